@@ -27,10 +27,15 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
+import com.github.piotr_rusin.yule.config.ExportConfig;
+import com.github.piotr_rusin.yule.config.PageCacheConfig;
+import com.github.piotr_rusin.yule.config.RenderingConfig;
+import com.github.piotr_rusin.yule.config.ReplicaConfig;
 import com.github.piotr_rusin.yule.config.YuleConfig;
 
 @SpringBootApplication
-@EnableConfigurationProperties(YuleConfig.class)
+@EnableConfigurationProperties({ YuleConfig.class, RenderingConfig.class,
+        PageCacheConfig.class, ExportConfig.class, ReplicaConfig.class })
 public class YuleApplication {
 
     public static void main(String[] args) {
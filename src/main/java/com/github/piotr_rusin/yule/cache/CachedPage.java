@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A rendered public page, stored in {@link PageCache}.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class CachedPage {
+    private final byte[] body;
+    private final String contentType;
+    private final HttpHeaders validators;
+    private final PageDependencies dependencies;
+
+    public CachedPage(byte[] body, String contentType, HttpHeaders validators,
+            PageDependencies dependencies) {
+        this.body = body;
+        this.contentType = contentType;
+        this.validators = HttpHeaders.readOnlyHttpHeaders(validators);
+        this.dependencies = dependencies;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Get validators of the page.
+     *
+     * @return the ETag, Last-Modified and Cache-Control headers sent with the
+     *         page, if any.
+     */
+    public HttpHeaders getValidators() {
+        return validators;
+    }
+
+    public PageDependencies getDependencies() {
+        return dependencies;
+    }
+}
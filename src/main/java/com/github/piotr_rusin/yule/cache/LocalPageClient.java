@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.embedded.EmbeddedServletContainerInitializedEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Requests pages from the running server as an anonymous reader, so that
+ * they are rendered exactly like pages requested by readers.
+ * <p>
+ * Each request carries a token generated on startup, so that the
+ * application can recognize requests sent by itself. Requests for pages to be
+ * exported as static files are also marked, so that links to pages that
+ * can't be exported are left out of them.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+public class LocalPageClient {
+    private static final Logger logger = LoggerFactory
+            .getLogger(LocalPageClient.class);
+
+    private static final String TOKEN_HEADER = "X-Yule-Local-Request";
+    private static final String EXPORT_HEADER = "X-Yule-Static-Export";
+
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final String token = UUID.randomUUID().toString();
+    private final ApplicationEventPublisher eventPublisher;
+    private volatile String baseUrl;
+
+    @Autowired
+    public LocalPageClient(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Record the address of the server and announce it is available.
+     *
+     * @param event
+     *            is an event published after the server started.
+     */
+    @EventListener
+    public void onContainerInitialized(
+            EmbeddedServletContainerInitializedEvent event) {
+        if (event.getApplicationContext().getNamespace() != null) {
+            return;
+        }
+        baseUrl = String.format("http://localhost:%d%s",
+                event.getEmbeddedServletContainer().getPort(),
+                event.getApplicationContext().getServletContext()
+                        .getContextPath());
+        logger.info("Local pages will be requested from {}", baseUrl);
+        eventPublisher.publishEvent(new LocalServerAvailableEvent());
+    }
+
+    public boolean isAvailable() {
+        return baseUrl != null;
+    }
+
+    /**
+     * Request a resource.
+     *
+     * @param path
+     *            is a path of the resource, relative to the context path.
+     * @param locale
+     *            is the locale of the request, or null if the default
+     *            locale of the server is to be used.
+     * @return the content of the resource, or null if it wasn't found.
+     * @throws org.springframework.web.client.RestClientException
+     *             if the request failed for any other reason.
+     */
+    public byte[] get(String path, Locale locale) {
+        HttpHeaders headers = new HttpHeaders();
+        if (locale != null) {
+            headers.set(HttpHeaders.ACCEPT_LANGUAGE, locale.toLanguageTag());
+        }
+        return get(path, headers);
+    }
+
+    /**
+     * Request a resource to be exported as a static file.
+     *
+     * @param path
+     *            is a path of the resource, relative to the context path.
+     * @return the content of the resource, or null if it wasn't found.
+     * @throws org.springframework.web.client.RestClientException
+     *             if the request failed for any other reason.
+     * @see #isExportRequest(HttpServletRequest)
+     */
+    public byte[] getForExport(String path) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(EXPORT_HEADER, "true");
+        return get(path, headers);
+    }
+
+    private byte[] get(String path, HttpHeaders headers) {
+        headers.setAccept(Collections.singletonList(MediaType.ALL));
+        headers.set(TOKEN_HEADER, token);
+        try {
+            ResponseEntity<byte[]> response = restTemplate.exchange(
+                    baseUrl + path, HttpMethod.GET, new HttpEntity<>(headers),
+                    byte[].class);
+            return response.getBody() == null ? new byte[0]
+                    : response.getBody();
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Check if a request was sent by this client.
+     *
+     * @param request
+     *            is a request received by the server.
+     * @return true if the request carries the token of this client.
+     */
+    public boolean isLocalRequest(HttpServletRequest request) {
+        String requestToken = request.getHeader(TOKEN_HEADER);
+        return requestToken != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8),
+                requestToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Check if a request was sent by this client for a resource to be
+     * exported as a static file.
+     *
+     * @param request
+     *            is a request received by the server.
+     * @return true if the request was sent by this client with
+     *         {@link #getForExport(String)}.
+     */
+    public boolean isExportRequest(HttpServletRequest request) {
+        return request.getHeader(EXPORT_HEADER) != null
+                && isLocalRequest(request);
+    }
+
+    /**
+     * An event published when the local server starts accepting requests.
+     */
+    public static class LocalServerAvailableEvent {
+    }
+}
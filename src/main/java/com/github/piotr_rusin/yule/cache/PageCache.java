@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.piotr_rusin.yule.config.PageCacheConfig;
+import com.github.piotr_rusin.yule.service.ArticleChange;
+import com.github.piotr_rusin.yule.service.ArticleChangeEvent;
+
+/**
+ * A cache of rendered public pages.
+ * <p>
+ * Pages affected by a change of articles are removed from the cache as soon as
+ * the change is saved, and rendered again in the background.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+public class PageCache {
+    private static final Logger logger = LoggerFactory
+            .getLogger(PageCache.class);
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final Cache<PageKey, CachedPage> cache;
+    private final PageCacheRefresher refresher;
+    /**
+     * The number of invalidations performed so far, used to detect pages
+     * rendered from data changed before they were stored.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public PageCache(PageCacheConfig config, PageCacheRefresher refresher) {
+        this.refresher = refresher;
+        if (config.getSize() > 0) {
+            cache = Caffeine.newBuilder().maximumWeight(config.getSize())
+                    .weigher((PageKey k, CachedPage p) -> ENTRY_OVERHEAD
+                            + 2 * k.getPath().length() + p.getBody().length)
+                    .build();
+        } else {
+            cache = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public CachedPage get(PageKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Get the current generation of the cache.
+     * <p>
+     * The value must be obtained before a page is rendered and passed to
+     * {@link #put(PageKey, CachedPage, long)}.
+     *
+     * @return the number of invalidations performed so far.
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Store a rendered page.
+     * <p>
+     * The page is not stored if any invalidation happened since its rendering
+     * started, as it might have been rendered from outdated data.
+     *
+     * @param key
+     *            is a key of the page.
+     * @param page
+     *            is the page.
+     * @param renderingGeneration
+     *            is the generation of the cache at the start of rendering.
+     */
+    public void put(PageKey key, CachedPage page, long renderingGeneration) {
+        if (generation.get() != renderingGeneration) {
+            return;
+        }
+        cache.put(key, page);
+        if (generation.get() != renderingGeneration) {
+            cache.asMap().remove(key, page);
+        }
+    }
+
+    /**
+     * Remove pages affected by changes of articles and schedule their
+     * rendering.
+     *
+     * @param event
+     *            is an event describing the changes.
+     */
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        generation.incrementAndGet();
+        List<PageKey> removed = new ArrayList<>();
+        cache.asMap().forEach((key, page) -> {
+            for (ArticleChange change : event.getChanges()) {
+                if (page.getDependencies().isAffectedBy(change)) {
+                    if (cache.asMap().remove(key, page)) {
+                        removed.add(key);
+                    }
+                    return;
+                }
+            }
+        });
+        logger.info("Removed {} cached pages affected by {}", removed.size(),
+                event);
+        refresher.refresh(removed);
+    }
+}
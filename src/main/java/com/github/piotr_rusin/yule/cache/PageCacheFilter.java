@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
+
+/**
+ * A filter serving public pages from {@link PageCache} to anonymous readers.
+ * <p>
+ * A page is stored only if the controller handling the request describes it
+ * with {@link PageDependencies}, stored as a request attribute. The filter
+ * must be applied after Spring Security filters, so that authenticated users
+ * are recognized and receive pages rendered for them.
+ * <p>
+ * Validators sent with a stored page are sent again with each cached copy,
+ * and conditional requests are answered with them.
+ * <p>
+ * Pages to be stored are rendered with data read from the primary database,
+ * so that a page read from a lagging replica isn't served until the next
+ * change.
+ * <p>
+ * Pages requested for the static export are rendered without links to pages
+ * that can't be exported, so they are neither served from the cache nor
+ * stored in it.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class PageCacheFilter extends OncePerRequestFilter {
+    /**
+     * Matches paths of public pages that may be cached.
+     */
+    private static final Pattern PUBLIC_PAGE_PATH = Pattern.compile(
+            "/(?:page/[1-9][0-9]*|\\d+(?:-\\d{2}){2}/[a-z-]+|[a-z-]+)?");
+    /**
+     * Matches paths of index pages, which may also be requested with a post
+     * cursor.
+     */
+    private static final Pattern INDEX_PAGE_PATH = Pattern
+            .compile("/(?:page/[1-9][0-9]*)?");
+    private static final Pattern CURSOR_QUERY = Pattern
+            .compile("(?:after|before)=-?\\d+_\\d+_\\d+");
+    private static final List<String> VALIDATOR_HEADERS = Arrays.asList(
+            HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED,
+            HttpHeaders.CACHE_CONTROL);
+
+    private final PageCache pageCache;
+    private final LocalPageClient localPageClient;
+    private final UrlPathHelper urlPathHelper = new UrlPathHelper();
+
+    public PageCacheFilter(PageCache pageCache,
+            LocalPageClient localPageClient) {
+        this.pageCache = pageCache;
+        this.localPageClient = localPageClient;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+            throws ServletException {
+        return !pageCache.isEnabled() || !"GET".equals(request.getMethod())
+                || request.getUserPrincipal() != null
+                || localPageClient.isExportRequest(request)
+                || !isCacheable(getPath(request), request.getQueryString());
+    }
+
+    private static boolean isCacheable(String path, String query) {
+        if (query == null) {
+            return PUBLIC_PAGE_PATH.matcher(path).matches();
+        }
+        return INDEX_PAGE_PATH.matcher(path).matches()
+                && CURSOR_QUERY.matcher(query).matches();
+    }
+
+    private String getPath(HttpServletRequest request) {
+        return urlPathHelper.getPathWithinApplication(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String query = request.getQueryString();
+        String path = query == null ? getPath(request)
+                : getPath(request) + "?" + query;
+        PageKey key = new PageKey(path, request.getLocale());
+        CachedPage page = pageCache.get(key);
+        if (page != null) {
+            HttpHeaders validators = page.getValidators();
+            validators.forEach((name, values) -> response.setHeader(name,
+                    values.get(0)));
+            if (validators.getETag() != null && new ServletWebRequest(request,
+                    response).checkNotModified(validators.getETag(),
+                            validators.getLastModified())) {
+                return;
+            }
+            response.setContentType(page.getContentType());
+            response.setContentLength(page.getBody().length);
+            response.getOutputStream().write(page.getBody());
+            return;
+        }
+
+        long generation = pageCache.getGeneration();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(
+                response);
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            filterChain.doFilter(request, wrapper);
+            PageDependencies dependencies = (PageDependencies) request
+                    .getAttribute(PageDependencies.ATTRIBUTE_NAME);
+            if (dependencies != null
+                    && wrapper.getStatusCode() == HttpStatus.OK.value()
+                    && !wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+                pageCache.put(key,
+                        new CachedPage(wrapper.getContentAsByteArray(),
+                                wrapper.getContentType(),
+                                getValidators(wrapper), dependencies),
+                        generation);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static HttpHeaders getValidators(HttpServletResponse response) {
+        HttpHeaders validators = new HttpHeaders();
+        for (String name : VALIDATOR_HEADERS) {
+            String value = response.getHeader(name);
+            if (value != null) {
+                validators.set(name, value);
+            }
+        }
+        return validators;
+    }
+}
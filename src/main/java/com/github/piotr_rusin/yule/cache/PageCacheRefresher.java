@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Renders removed public pages again in the background, so that they are
+ * cached before they are requested.
+ * <p>
+ * The pages are requested from the running server, so they are rendered and
+ * stored exactly like pages requested by readers.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+public class PageCacheRefresher {
+    private static final Logger logger = LoggerFactory
+            .getLogger(PageCacheRefresher.class);
+
+    private final LocalPageClient client;
+    private final ExecutorService executor = Executors
+            .newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "page-cache-refresher");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private final Set<PageKey> pending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public PageCacheRefresher(LocalPageClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Schedule rendering of pages.
+     *
+     * @param keys
+     *            are keys of the pages.
+     */
+    public void refresh(Collection<PageKey> keys) {
+        if (!client.isAvailable()) {
+            return;
+        }
+        for (PageKey key : keys) {
+            if (pending.add(key)) {
+                executor.execute(() -> request(key));
+            }
+        }
+    }
+
+    private void request(PageKey key) {
+        pending.remove(key);
+        try {
+            client.get(key.getPath(), key.getLocale());
+            logger.debug("Refreshed cached page {}", key);
+        } catch (RestClientException e) {
+            logger.debug("The page {} could not be refreshed: {}", key,
+                    e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        executor.shutdownNow();
+    }
+}
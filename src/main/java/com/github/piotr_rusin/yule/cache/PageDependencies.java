@@ -0,0 +1,168 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.Page;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.service.ArticleChange;
+
+/**
+ * A description of the articles displayed on a public page of the blog,
+ * used to decide if the page has to be rendered again after a change.
+ * <p>
+ * Each public page displays navigation links to all published blog pages, and
+ * either a single article or a page of the blog post list.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class PageDependencies {
+    /**
+     * The name of the request attribute under which a controller stores
+     * dependencies of a page that may be cached.
+     */
+    public static final String ATTRIBUTE_NAME = PageDependencies.class
+            .getName();
+
+    private final Long articleId;
+    private final Set<Long> listedIds;
+    private final Instant oldest;
+    private final boolean lastPage;
+    private final long totalElements;
+    private final int pageSize;
+    private final int totalPages;
+
+    private PageDependencies(Long articleId, Set<Long> listedIds,
+            Instant oldest, boolean lastPage, long totalElements,
+            int pageSize, int totalPages) {
+        this.articleId = articleId;
+        this.listedIds = listedIds;
+        this.oldest = oldest;
+        this.lastPage = lastPage;
+        this.totalElements = totalElements;
+        this.pageSize = pageSize;
+        this.totalPages = totalPages;
+    }
+
+    /**
+     * Get dependencies of a page displaying a single article.
+     *
+     * @param article
+     *            is the displayed article.
+     * @return the dependencies.
+     */
+    public static PageDependencies ofArticle(Article article) {
+        return ofArticle(article.getId());
+    }
+
+    /**
+     * Get dependencies of a page displaying a single article.
+     *
+     * @param articleId
+     *            is an identifier of the displayed article.
+     * @return the dependencies.
+     */
+    public static PageDependencies ofArticle(Long articleId) {
+        return new PageDependencies(articleId, Collections.emptySet(), null,
+                false, 0, 0, 0);
+    }
+
+    /**
+     * Get dependencies of a page of the blog post list.
+     *
+     * @param page
+     *            is the displayed page of published blog posts, ordered by
+     *            publication time, from the newest.
+     * @return the dependencies.
+     */
+    public static PageDependencies ofIndexPage(Page<Article> page) {
+        Set<Long> ids = page.getContent().stream().map(Article::getId)
+                .collect(Collectors.toSet());
+        Instant oldest = page.hasContent()
+                ? page.getContent().get(page.getNumberOfElements() - 1)
+                        .getPublicationTimestamp()
+                : null;
+        return new PageDependencies(null, ids, oldest, !page.hasNext(),
+                page.getTotalElements(), page.getSize(), page.getTotalPages());
+    }
+
+    public boolean isIndexPage() {
+        return articleId == null;
+    }
+
+    /**
+     * Check if a change may alter the content of the page.
+     *
+     * @param change
+     *            is a saved change of an article.
+     * @return true if the page has to be rendered again.
+     */
+    public boolean isAffectedBy(ArticleChange change) {
+        if (change.changesNavigation()) {
+            return true;
+        }
+        if (!isIndexPage()) {
+            return articleId.equals(change.getArticleId());
+        }
+        if (!change.movesListedPost()) {
+            return listedIds.contains(change.getArticleId());
+        }
+
+        ArticleSnapshot previous = change.getPrevious();
+        ArticleSnapshot current = change.getCurrent();
+        boolean wasListed = previous != null && previous.isListedPost();
+        boolean isListed = current != null && current.isListedPost();
+        if (wasListed != isListed
+                && getPageCount(totalElements + (isListed ? 1 : -1)) != totalPages) {
+            return true;
+        }
+        return wasListed && isShiftedBy(previous.getPublicationTimestamp())
+                || isListed && isShiftedBy(current.getPublicationTimestamp());
+    }
+
+    private int getPageCount(long elements) {
+        return (int) Math.ceil((double) elements / pageSize);
+    }
+
+    /**
+     * Check if adding or removing a post shifts the posts displayed on the
+     * page.
+     *
+     * @param publicationTimestamp
+     *            is a publication time of the added or removed post.
+     * @return true if the post precedes the last post of the page or it is
+     *         added after the last page.
+     */
+    private boolean isShiftedBy(Instant publicationTimestamp) {
+        return oldest == null || lastPage
+                || !oldest.isAfter(publicationTimestamp);
+    }
+}
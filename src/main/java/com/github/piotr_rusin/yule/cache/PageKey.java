@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Identifies a cached public page.
+ * <p>
+ * Dates on the pages are formatted according to the locale of the request,
+ * so the same path may be rendered differently for different locales.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class PageKey {
+    private final String path;
+    private final Locale locale;
+
+    public PageKey(String path, Locale locale) {
+        this.path = path;
+        this.locale = locale;
+    }
+
+    /**
+     * Get the path of the page.
+     *
+     * @return the path, relative to the context path of the application,
+     *         including a query string if the page was requested with one.
+     */
+    public String getPath() {
+        return path;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PageKey)) {
+            return false;
+        }
+        PageKey other = (PageKey) obj;
+        return path.equals(other.path) && locale.equals(other.locale);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, locale);
+    }
+
+    @Override
+    public String toString() {
+        return path + " [" + locale.toLanguageTag() + "]";
+    }
+}
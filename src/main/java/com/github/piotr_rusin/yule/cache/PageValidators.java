@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ModificationSummary;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+import com.github.piotr_rusin.yule.service.ArticleChange;
+import com.github.piotr_rusin.yule.service.ArticleChangeEvent;
+
+/**
+ * Provides validators (ETag and Last-Modified headers) of public pages and
+ * answers conditional requests for them.
+ * <p>
+ * The validators are calculated from the displayed articles and the
+ * published blog pages linked in the navigation, before anything is
+ * rendered. They are provided only to anonymous readers, as pages of
+ * authenticated users contain data specific to their sessions.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+public class PageValidators {
+    private final ArticleRepository repository;
+    /**
+     * The time the application started. Templates and blog configuration may
+     * change between restarts, so pages rendered before are never valid.
+     */
+    private final Instant startTime = Instant.now();
+    private volatile Instant lastListChange = startTime;
+    private volatile Instant lastNavigationChange = startTime;
+
+    @Autowired
+    public PageValidators(ArticleRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Record the time of changes of data that isn't represented by the
+     * articles displayed on a page: removals of blog posts from the list and
+     * removals of blog pages from the navigation.
+     *
+     * @param event
+     *            is an event describing saved changes.
+     */
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        Instant now = Instant.now();
+        for (ArticleChange change : event.getChanges()) {
+            if (change.movesListedPost()) {
+                lastListChange = now;
+            }
+            if (change.changesNavigation()) {
+                lastNavigationChange = now;
+            }
+        }
+    }
+
+    /**
+     * Set validators of a page of the blog post list and check if the page
+     * has been modified since the client requested it.
+     *
+     * @param request
+     *            is the current request.
+     * @param page
+     *            is the displayed page of blog posts.
+     * @return true if the client has an up-to-date version of the page and
+     *         the response status was set to 304 (Not Modified).
+     */
+    public boolean checkNotModified(ServletWebRequest request,
+            Page<Article> page) {
+        if (request.getUserPrincipal() != null) {
+            return false;
+        }
+        StringBuilder key = new StringBuilder("index:")
+                .append(page.getNumber()).append('/')
+                .append(page.getTotalPages());
+        Instant lastModified = lastListChange;
+        for (Article article : page) {
+            appendVersion(key, article);
+            lastModified = latest(lastModified,
+                    article.getModificationTimestamp());
+        }
+        return checkNotModified(request, key, lastModified);
+    }
+
+    /**
+     * Set validators of a page displaying a single article and check if the
+     * page has been modified since the client requested it.
+     *
+     * @param request
+     *            is the current request.
+     * @param article
+     *            is the displayed article.
+     * @return true if the client has an up-to-date version of the page and
+     *         the response status was set to 304 (Not Modified).
+     */
+    public boolean checkNotModified(ServletWebRequest request,
+            Article article) {
+        if (request.getUserPrincipal() != null) {
+            return false;
+        }
+        StringBuilder key = new StringBuilder("article:");
+        appendVersion(key, article);
+        return checkNotModified(request, key,
+                latest(startTime, article.getModificationTimestamp()));
+    }
+
+    private static void appendVersion(StringBuilder key, Article article) {
+        key.append(';').append(article.getId()).append('@')
+                .append(article.getVersion());
+    }
+
+    private static Instant latest(Instant first, Instant second) {
+        return second != null && second.isAfter(first) ? second : first;
+    }
+
+    private boolean checkNotModified(ServletWebRequest request,
+            StringBuilder key, Instant lastModified) {
+        ModificationSummary navigation = repository
+                .findPublishedPagesSummary();
+        lastModified = latest(latest(lastModified, lastNavigationChange),
+                navigation.getLastModified());
+        key.append(";navigation:").append(navigation.getCount()).append('@')
+                .append(navigation.getLastModified())
+                .append(";started:").append(startTime)
+                .append(";locale:").append(request.getLocale());
+
+        String etag = '"' + DigestUtils.md5DigestAsHex(
+                key.toString().getBytes(StandardCharsets.UTF_8)) + '"';
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                CacheControl.noCache().getHeaderValue());
+        return request.checkNotModified(etag, lastModified.toEpochMilli());
+    }
+}
@@ -25,10 +25,18 @@ package com.github.piotr_rusin.yule.config;
 
 import java.util.Arrays;
 
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.thymeleaf.dialect.springdata.SpringDataDialect;
 
+import com.github.piotr_rusin.yule.cache.LocalPageClient;
+import com.github.piotr_rusin.yule.cache.PageCache;
+import com.github.piotr_rusin.yule.cache.PageCacheFilter;
+import com.github.piotr_rusin.yule.dialect.YuleDialect;
+import com.github.piotr_rusin.yule.service.MarkdownToHtmlConverter;
+
 import com.vladsch.flexmark.ext.anchorlink.AnchorLinkExtension;
 import com.vladsch.flexmark.ext.definition.DefinitionExtension;
 import com.vladsch.flexmark.ext.footnotes.FootnoteExtension;
@@ -46,6 +54,31 @@ public class AppConfig {
         return new SpringDataDialect();
     }
 
+    @Bean
+    public YuleDialect yuleDialect(MarkdownToHtmlConverter markdownConverter) {
+        return new YuleDialect(markdownConverter);
+    }
+
+    /**
+     * Register the filter serving cached public pages, to be applied after
+     * Spring Security filters.
+     *
+     * @param pageCache
+     *            is the cache used by the filter.
+     * @param localPageClient
+     *            is the client whose requests for exported pages bypass the
+     *            cache.
+     * @return the filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean pageCacheFilter(PageCache pageCache,
+            LocalPageClient localPageClient) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new PageCacheFilter(pageCache, localPageClient));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
     @Bean
     public MutableDataSet getMarkdownOptions() {
         MutableDataSet options = new MutableDataSet()
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.config;
+
+import javax.validation.constraints.Min;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+@ConfigurationProperties("yule.rendering")
+@Validated
+public class RenderingConfig {
+    @Min(value = 0, message = "The maximum size of Markdown render cache "
+            + "(rendering.cacheSize) must not be negative. The default "
+            + "value is 0, which disables the cache.")
+    private long cacheSize = 0;
+
+    @Min(value = 1, message = "The number of threads rendering articles "
+            + "of a page (rendering.parallelism) must be at least 1. The "
+            + "default value is the number of available processors.")
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    @Min(value = 1, message = "The time limit for rendering articles of a "
+            + "page (rendering.pageTimeout) must be at least 1 ms. The "
+            + "default value is 5000 ms.")
+    private long pageTimeout = 5000;
+
+    public void setCacheSize(long cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Get the maximum size of Markdown render cache.
+     *
+     * @return an approximate number of bytes that may be occupied by cached
+     *         results of Markdown rendering. If 0, the results are not cached.
+     */
+    public long getCacheSize() {
+        return cacheSize;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the number of threads used for rendering articles of a page.
+     *
+     * @return the maximum number of articles rendered concurrently.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setPageTimeout(long pageTimeout) {
+        this.pageTimeout = pageTimeout;
+    }
+
+    /**
+     * Get the time limit for rendering articles of a page.
+     *
+     * @return the number of milliseconds a request waits for its articles to
+     *         be rendered concurrently. Articles not rendered in time are
+     *         rendered when the view is written.
+     */
+    public long getPageTimeout() {
+        return pageTimeout;
+    }
+}
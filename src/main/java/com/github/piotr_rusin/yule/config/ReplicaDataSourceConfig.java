@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.config;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.github.piotr_rusin.yule.cache.LocalPageClient;
+import com.github.piotr_rusin.yule.datasource.PrimaryReadsFilter;
+import com.github.piotr_rusin.yule.datasource.ReadReplicaRoutingDataSource;
+import com.github.piotr_rusin.yule.datasource.ReplicaCacheModeJpaDialect;
+
+/**
+ * A configuration of data sources used when a read replica of the database
+ * is configured with the yule.replica.url property.
+ * <p>
+ * Each database has its own connection pool: the pool of the primary
+ * database is configured with spring.datasource.tomcat.* properties, and the
+ * pool of the replica with yule.replica.tomcat.* properties. Read-only
+ * transactions are routed to the replica, unless they are executed in a
+ * {@link com.github.piotr_rusin.yule.datasource.PrimaryReads} scope, and
+ * they don't put data read from the replica in the second-level and query
+ * caches.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "yule.replica", name = "url")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.tomcat")
+    public DataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().build();
+    }
+
+    @Bean
+    @ConfigurationProperties("yule.replica.tomcat")
+    public DataSource replicaDataSource(DataSourceProperties properties,
+            ReplicaConfig config) {
+        String username = config.getUsername() != null ? config.getUsername()
+                : properties.determineUsername();
+        String password = config.getPassword() != null ? config.getPassword()
+                : properties.determinePassword();
+        return properties.initializeDataSourceBuilder().url(config.getUrl())
+                .username(username).password(password).build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica) {
+        ReadReplicaRoutingDataSource routingDataSource = new ReadReplicaRoutingDataSource(
+                primary, replica);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Create a transaction manager replacing the one configured by Spring
+     * Boot, with a JPA dialect keeping data read from the replica out of the
+     * shared caches.
+     *
+     * @param entityManagerFactory
+     *            is the factory of entity managers of the transactions.
+     * @return the transaction manager.
+     */
+    @Bean
+    public PlatformTransactionManager transactionManager(
+            EntityManagerFactory entityManagerFactory) {
+        JpaTransactionManager transactionManager = new JpaTransactionManager(
+                entityManagerFactory);
+        transactionManager.setJpaDialect(new ReplicaCacheModeJpaDialect());
+        return transactionManager;
+    }
+
+    /**
+     * Register the filter making authenticated users and the application
+     * itself read from the primary database, to be applied after Spring
+     * Security filters.
+     *
+     * @param localPageClient
+     *            is the client whose requests are recognized by the filter.
+     * @return the filter registration.
+     */
+    @Bean
+    public FilterRegistrationBean primaryReadsFilter(
+            LocalPageClient localPageClient) {
+        FilterRegistrationBean registration = new FilterRegistrationBean(
+                new PrimaryReadsFilter(localPageClient));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        return registration;
+    }
+}
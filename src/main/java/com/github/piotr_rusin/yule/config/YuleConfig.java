@@ -46,6 +46,18 @@ public class YuleConfig {
             + "be smaller than 5 (the default value)")
     private int indexPageSize = 5;
 
+    @Min(value = 1, message = "The interval (in seconds) between counts of "
+            + "published blog posts in the database "
+            + "(postCountReconciliationInterval) must be positive. "
+            + "The default value is 3600.")
+    private long postCountReconciliationInterval = 3600;
+
+    @Min(value = 1, message = "The maximum number of article revisions "
+            + "stored as deltas after a full snapshot of the content "
+            + "(revisionDeltaLimit) must be positive. "
+            + "The default value is 20.")
+    private int revisionDeltaLimit = 20;
+
     public void setTitle(String title) {
         this.title = title;
     }
@@ -69,4 +81,38 @@ public class YuleConfig {
     public int getIndexPageSize() {
         return indexPageSize;
     }
+
+    public void setPostCountReconciliationInterval(long interval) {
+        postCountReconciliationInterval = interval;
+    }
+
+    /**
+     * Get the interval between counts of published blog posts in the
+     * database.
+     * <p>
+     * Between the counts, the number of published blog posts is maintained
+     * in memory.
+     *
+     * @return the interval, in seconds.
+     */
+    public long getPostCountReconciliationInterval() {
+        return postCountReconciliationInterval;
+    }
+
+    public void setRevisionDeltaLimit(int limit) {
+        revisionDeltaLimit = limit;
+    }
+
+    /**
+     * Get the maximum number of article revisions stored as deltas after a
+     * full snapshot of the content.
+     * <p>
+     * It is also the maximum number of deltas applied to reconstruct the
+     * content of a revision.
+     *
+     * @return the number of revisions.
+     */
+    public int getRevisionDeltaLimit() {
+        return revisionDeltaLimit;
+    }
 }
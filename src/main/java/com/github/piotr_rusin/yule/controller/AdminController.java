@@ -23,6 +23,16 @@
  *******************************************************************************/
 package com.github.piotr_rusin.yule.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.slf4j.Logger;
@@ -32,24 +42,46 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.SessionAttribute;
 import org.springframework.web.bind.annotation.SessionAttributes;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleListItem;
+import com.github.piotr_rusin.yule.domain.ArticleTitle;
+import com.github.piotr_rusin.yule.domain.ArticleVersion;
+import com.github.piotr_rusin.yule.domain.Revision;
 import com.github.piotr_rusin.yule.exception.PageNotFoundException;
+import com.github.piotr_rusin.yule.service.ArticleExporter;
+import com.github.piotr_rusin.yule.service.ArticleFilter;
+import com.github.piotr_rusin.yule.service.ArticleImporter;
 import com.github.piotr_rusin.yule.service.ArticleProvider;
 import com.github.piotr_rusin.yule.service.ArticleRepositoryUpdater;
+import com.github.piotr_rusin.yule.service.ArticleTitleIndex;
+import com.github.piotr_rusin.yule.service.BulkAction;
+import com.github.piotr_rusin.yule.service.ImportReport;
+import com.github.piotr_rusin.yule.service.MarkdownPreview;
+import com.github.piotr_rusin.yule.service.PreviewRequest;
+import com.github.piotr_rusin.yule.service.RevisionHistory;
 
 @Controller
-@SessionAttributes({AdminController.PAGE_REQUEST_ATTR, AdminController.ARTICLE_ATTR})
+@SessionAttributes({AdminController.PAGE_REQUEST_ATTR,
+        AdminController.ARTICLE_FILTER_ATTR, AdminController.ARTICLE_ATTR})
 @RequestMapping("/admin")
 public class AdminController {
 
@@ -60,16 +92,35 @@ public class AdminController {
     final static String MESSAGE_ATTR = "message";
     final static String ARTICLE_NOT_VALIDATED = "articleNotValidated";
     final static String PAGE_REQUEST_ATTR = "pageRequest";
+    final static String ARTICLE_FILTER_ATTR = "articleFilter";
 
     final static int DEFAULT_PAGE_SIZE = 10;
+    final static String PREVIEW_REVISION_HEADER = "X-Preview-Revision";
+    final static int TITLE_SUGGESTION_LIMIT = 10;
+    final static String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    final static String REVISIONS_ATTR = "revisions";
+    final static String REVISION_DIFF_ATTR = "diff";
 
     private ArticleRepositoryUpdater articleRepositoryUpdater;
     private ArticleProvider articleProvider;
+    private MarkdownPreview markdownPreview;
+    private ArticleTitleIndex articleTitleIndex;
+    private ArticleImporter articleImporter;
+    private ArticleExporter articleExporter;
+    private RevisionHistory revisionHistory;
 
     public AdminController(ArticleRepositoryUpdater articleRepositoryUpdater,
-            ArticleProvider articleProvider) {
+            ArticleProvider articleProvider, MarkdownPreview markdownPreview,
+            ArticleTitleIndex articleTitleIndex,
+            ArticleImporter articleImporter, ArticleExporter articleExporter,
+            RevisionHistory revisionHistory) {
         this.articleRepositoryUpdater = articleRepositoryUpdater;
         this.articleProvider = articleProvider;
+        this.markdownPreview = markdownPreview;
+        this.articleTitleIndex = articleTitleIndex;
+        this.articleImporter = articleImporter;
+        this.articleExporter = articleExporter;
+        this.revisionHistory = revisionHistory;
     }
 
     @GetMapping()
@@ -81,9 +132,15 @@ public class AdminController {
     @GetMapping("/articles")
     public String articleList(
             @PageableDefault(size = DEFAULT_PAGE_SIZE, sort = "creationTimestamp", direction = Sort.Direction.DESC) Pageable pageRequest,
-            Model model) {
+            @ModelAttribute("filter") ArticleFilter filter,
+            ZoneId userTimeZone, Model model) {
         model.addAttribute(PAGE_REQUEST_ATTR, pageRequest);
-        Page<Article> articles = articleProvider.getAdminArticleListPage(pageRequest);
+        // Stored in the session under another name than the bound one, so
+        // that criteria missing from a request aren't taken from the session.
+        model.addAttribute(ARTICLE_FILTER_ATTR, filter);
+        logger.info("Listing articles matching {}.", filter);
+        Page<ArticleListItem> articles = articleProvider.getAdminArticleListPage(
+                filter.toSpecification(userTimeZone), pageRequest);
         model.addAttribute(ARTICLE_PAGE_ATTR, articles);
         return "admin/article-list";
     }
@@ -105,6 +162,52 @@ public class AdminController {
         return "admin/edit-article";
     }
 
+    @GetMapping("/article/{id:\\d+}/revisions")
+    public String revisionList(@PathVariable long id, Model model) {
+        Article article = articleProvider.getArticleById(id);
+        addArticleToModel(model, article);
+        model.addAttribute(REVISIONS_ATTR, revisionHistory.getRevisions(id));
+        logger.info("Listing revisions of article {}", article);
+        return "admin/revisions";
+    }
+
+    @GetMapping("/article/{id:\\d+}/revisions/{version:\\d+}")
+    public String compareRevision(@PathVariable long id,
+            @PathVariable int version, Model model) {
+        Article article = articleProvider.getArticleById(id);
+        addArticleToModel(model, article);
+        model.addAttribute(REVISION_DIFF_ATTR,
+                revisionHistory.getDiff(id, version));
+        logger.info("Comparing revision {} of article {} with the previous one",
+                version, article);
+        return "admin/revision";
+    }
+
+    /**
+     * Load a revision of an article for editing.
+     * <p>
+     * The revision is restored in the edit form of the current version of the
+     * article, so it replaces the current one only after the author saves it.
+     *
+     * @param id
+     *            is an identifier of the article
+     * @param version
+     *            is a version of the revision to be restored
+     * @param model
+     *            is a model of the edit form
+     * @return a name of the edit form view
+     */
+    @GetMapping("/article/{id:\\d+}/revisions/{version:\\d+}/restore")
+    public String loadRevisionForEditing(@PathVariable long id,
+            @PathVariable int version, Model model) {
+        Article article = articleProvider.getArticleById(id);
+        Revision revision = revisionHistory.getRevision(id, version);
+        addArticleToModel(model, revision.restoreIn(article));
+        logger.info("Loading revision {} of article {} for editing", version,
+                article);
+        return "admin/edit-article";
+    }
+
     @PostMapping("/article")
     public String saveOrUpdate(@Valid Article article,
             BindingResult bindingResult, RedirectAttributes attributes) {
@@ -120,15 +223,20 @@ public class AdminController {
             return "admin/edit-article";
         }
 
+        // The index is checked first, so that most duplicates are detected
+        // without a failed transaction.
+        if (articleTitleIndex.isTitleTaken(article)) {
+            logger.info("The article {} was not {} - its name is already in use.", article, executed);
+            rejectDuplicateTitle(article, bindingResult);
+            return "admin/edit-article";
+        }
+
         Article saved = null;
         try {
             saved = articleRepositoryUpdater.save(article);
         } catch (DataIntegrityViolationException e) {
             logger.info("The article {} was not {} - its name is already in use.", article, executed);
-            bindingResult.rejectValue("title", "error.duplicate-title",
-                    String.format(
-                            "An article named \"%s\" already exists.",
-                            article.getTitle()));
+            rejectDuplicateTitle(article, bindingResult);
             return "admin/edit-article";
         }
 
@@ -138,6 +246,100 @@ public class AdminController {
         return "redirect:/admin/article/{id}";
     }
 
+    private static void rejectDuplicateTitle(Article article,
+            BindingResult bindingResult) {
+        bindingResult.rejectValue("title", "error.duplicate-title",
+                String.format("An article named \"%s\" already exists.",
+                        article.getTitle()));
+    }
+
+    /**
+     * Find titles of articles to be suggested while a title is edited.
+     *
+     * @param prefix
+     *            is the beginning of the edited title.
+     * @return up to {@value #TITLE_SUGGESTION_LIMIT} titles of articles
+     *         starting with the prefix, ignoring case.
+     */
+    @GetMapping(value = "/articles/titles", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public List<ArticleTitle> findTitles(@RequestParam String prefix) {
+        return articleTitleIndex.findByTitlePrefix(prefix,
+                TITLE_SUGGESTION_LIMIT);
+    }
+
+    /**
+     * Render a preview of edited article content without saving it.
+     * <p>
+     * The revision of the rendered preview is returned in the
+     * {@value #PREVIEW_REVISION_HEADER} header, so that the client can send
+     * subsequent changes relative to it.
+     *
+     * @param request
+     *            is a request containing the content or its change.
+     * @param response
+     *            is a response to which the HTML of the preview is written.
+     * @throws IOException
+     *             if writing the response fails.
+     */
+    @PostMapping(value = "/article/preview", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public void preview(@RequestBody PreviewRequest request,
+            HttpServletResponse response) throws IOException {
+        MarkdownPreview.Rendering rendering = markdownPreview.update(request);
+        response.setContentType(MediaType.TEXT_HTML_VALUE + ";charset=UTF-8");
+        response.setHeader(PREVIEW_REVISION_HEADER,
+                String.valueOf(rendering.getRevision()));
+        rendering.writeTo(response.getWriter());
+    }
+
+    /**
+     * Export all articles as a file with one JSON object per line.
+     *
+     * @param response
+     *            is a response to which the articles are written.
+     * @throws IOException
+     *             if writing the response fails.
+     */
+    @GetMapping("/articles/export")
+    public void exportArticles(HttpServletResponse response)
+            throws IOException {
+        response.setContentType(NDJSON_MEDIA_TYPE + ";charset=UTF-8");
+        response.setHeader("Content-Disposition",
+                "attachment; filename=\"articles.ndjson\"");
+        articleExporter.exportArticles(response.getOutputStream());
+    }
+
+    /**
+     * Import articles from an uploaded file with one JSON object per line,
+     * and redirect to the admin article list with a summary of the import.
+     *
+     * @param file
+     *            is the uploaded file.
+     * @param attributes
+     *            is a container for redirect attributes.
+     * @throws IOException
+     *             if reading the file fails.
+     * @return a value interpreted as redirection request
+     */
+    @PostMapping("/articles/import")
+    public String importArticles(@RequestParam MultipartFile file,
+            RedirectAttributes attributes) throws IOException {
+        ImportReport report;
+        try (InputStream input = file.getInputStream()) {
+            report = articleImporter.importArticles(input);
+        }
+
+        StringBuilder message = new StringBuilder(String.format(
+                "%s articles have been imported.", report.getImportedCount()));
+        if (report.getRejectedCount() > 0) {
+            message.append(String.format(" %s articles were rejected.",
+                    report.getRejectedCount()));
+        }
+        report.getErrors().forEach(e -> message.append('\n').append(e));
+        attributes.addFlashAttribute(MESSAGE_ATTR, message.toString());
+        return "redirect:/admin/articles";
+    }
+
     /**
      * Redirect to a page of admin article list.
      *
@@ -148,14 +350,21 @@ public class AdminController {
      *            last displayed admin article list page, if any. If null, the
      *            redirection target is assumed to be the first page of the
      *            list, with default sorting order and page size (see
-     *            {@link AdminController#articleList(Pageable, Model)} and
-     *            {@link AdminController#DEFAULT_PAGE_SIZE})
+     *            {@link AdminController#articleList(Pageable, ArticleFilter, ZoneId, Model)}
+     *            and {@link AdminController#DEFAULT_PAGE_SIZE})
+     * @param filter
+     *            is an object representing criteria used to filter the last
+     *            displayed admin article list page, if any.
      * @return a value interpreted as redirection request
      */
     @GetMapping("/articles/redirect")
     public String redirectToArticleList(RedirectAttributes attributes,
-            @SessionAttribute(value = PAGE_REQUEST_ATTR, required = false) Pageable pageRequest) {
+            @SessionAttribute(value = PAGE_REQUEST_ATTR, required = false) Pageable pageRequest,
+            @SessionAttribute(value = ARTICLE_FILTER_ATTR, required = false) ArticleFilter filter) {
         String redirect = "redirect:/admin/articles";
+        if (filter != null) {
+            addFilterAttributes(attributes, filter);
+        }
         if (pageRequest == null) {
             return redirect;
         }
@@ -201,7 +410,9 @@ public class AdminController {
     @PostMapping("/article/{id:\\d+}/delete")
     public String deleteArticleAndRedirectToArticleList(@PathVariable long id,
             RedirectAttributes attributes,
-            @SessionAttribute(PAGE_REQUEST_ATTR) Pageable pageRequest) {
+            @SessionAttribute(PAGE_REQUEST_ATTR) Pageable pageRequest,
+            @SessionAttribute(value = ARTICLE_FILTER_ATTR, required = false) ArticleFilter filter,
+            ZoneId userTimeZone) {
         Article deleted = articleRepositoryUpdater.delete(id);
 
         attributes.addFlashAttribute(MESSAGE_ATTR,
@@ -209,13 +420,105 @@ public class AdminController {
                         "The article \"%s\" has been successfully deleted.",
                         deleted.getTitle()));
 
+        return redirectToExistingArticleListPage(attributes, pageRequest,
+                filter, userTimeZone);
+    }
+
+    /**
+     * Apply an action to articles selected on the admin article list and
+     * redirect to a page of the list.
+     * <p>
+     * An article is changed only if its version is equal to the selected one,
+     * so articles modified since the list was displayed are skipped. Articles
+     * without content are not published or scheduled for publication.
+     *
+     * @param action
+     *            is the action to be applied
+     * @param selected
+     *            are versions of the selected articles
+     * @param publicationTimestamp
+     *            is a future publication time, required when scheduling
+     *            articles for publication
+     * @param attributes
+     *            is a container for redirect attributes
+     * @param pageRequest
+     *            is an object representing page request used to display the
+     *            page on which the articles were presented
+     * @return a value interpreted as redirection request
+     */
+    @PostMapping("/articles/bulk")
+    public String applyToSelectedAndRedirectToArticleList(
+            @RequestParam BulkAction action,
+            @RequestParam(required = false) List<ArticleVersion> selected,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant publicationTimestamp,
+            RedirectAttributes attributes,
+            @SessionAttribute(value = PAGE_REQUEST_ATTR, required = false) Pageable pageRequest,
+            @SessionAttribute(value = ARTICLE_FILTER_ATTR, required = false) ArticleFilter filter,
+            ZoneId userTimeZone) {
+        if (selected == null || selected.isEmpty()) {
+            attributes.addFlashAttribute(MESSAGE_ATTR,
+                    "No articles have been selected.");
+            return redirectToArticleList(attributes, pageRequest, filter);
+        }
+        if (action == BulkAction.SCHEDULE && (publicationTimestamp == null
+                || !publicationTimestamp.isAfter(Instant.now()))) {
+            attributes.addFlashAttribute(MESSAGE_ATTR,
+                    "Scheduling articles for publication requires a future publication time.");
+            return redirectToArticleList(attributes, pageRequest, filter);
+        }
+
+        Map<Long, Integer> versions = new LinkedHashMap<>();
+        selected.forEach(v -> versions.put(v.getId(), v.getVersion()));
+        List<Long> changed = articleRepositoryUpdater.apply(action,
+                Collections.unmodifiableMap(versions), publicationTimestamp);
+
+        String message = String.format("%d of %d selected articles have been %s.",
+                changed.size(), versions.size(), action.getDescription());
+        int skipped = versions.size() - changed.size();
+        if (skipped > 0) {
+            message += String.format(
+                    "%n%d articles have been skipped, because they were modified in the meantime or the action could not be applied to them.",
+                    skipped);
+        }
+        attributes.addFlashAttribute(MESSAGE_ATTR, message);
+
+        if (pageRequest == null) {
+            return redirectToArticleList(attributes, null, filter);
+        }
+        return redirectToExistingArticleListPage(attributes, pageRequest,
+                filter, userTimeZone);
+    }
+
+    private String redirectToExistingArticleListPage(
+            RedirectAttributes attributes, Pageable pageRequest,
+            ArticleFilter filter, ZoneId userTimeZone) {
         try {
-            articleProvider.getAdminArticleListPage(pageRequest);
+            articleProvider.getAdminArticleListPage(filter == null ? null
+                    : filter.toSpecification(userTimeZone), pageRequest);
         } catch (PageNotFoundException e) {
             pageRequest = pageRequest.previousOrFirst();
         }
 
-        return redirectToArticleList(attributes, pageRequest);
+        return redirectToArticleList(attributes, pageRequest, filter);
+    }
+
+    private static void addFilterAttributes(RedirectAttributes attributes,
+            ArticleFilter filter) {
+        if (filter.getStatus() != null) {
+            attributes.addAttribute("status", filter.getStatus());
+        }
+        if (filter.getPost() != null) {
+            attributes.addAttribute("post", filter.getPost());
+        }
+        if (filter.getPublishedFrom() != null) {
+            attributes.addAttribute("publishedFrom", filter.getPublishedFrom());
+        }
+        if (filter.getPublishedTo() != null) {
+            attributes.addAttribute("publishedTo", filter.getPublishedTo());
+        }
+        if (StringUtils.hasText(filter.getTitlePrefix())) {
+            attributes.addAttribute("titlePrefix", filter.getTitlePrefix());
+        }
     }
 
     private void addArticleToModel(Model model, Article article) {
@@ -25,35 +25,38 @@ package com.github.piotr_rusin.yule.controller;
 
 import java.time.ZoneId;
 import java.util.Map;
-import java.util.stream.Collectors;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
 
+import com.github.piotr_rusin.yule.cache.LocalPageClient;
 import com.github.piotr_rusin.yule.config.UserConfig;
 import com.github.piotr_rusin.yule.config.YuleConfig;
-import com.github.piotr_rusin.yule.domain.Article;
-import com.github.piotr_rusin.yule.repository.ArticleRepository;
+import com.github.piotr_rusin.yule.service.BlogNavigation;
 
 @ControllerAdvice
 public class CommonModelAttributeController {
     private YuleConfig config;
     private UserConfig adminConfig;
-    private ArticleRepository articleRepository;
+    private BlogNavigation blogNavigation;
+    private LocalPageClient localPageClient;
 
     @Autowired
     public CommonModelAttributeController(YuleConfig config,
-            UserConfig userConfig, ArticleRepository articleRepository) {
+            UserConfig userConfig, BlogNavigation blogNavigation,
+            LocalPageClient localPageClient) {
         this.config = config;
         this.adminConfig = userConfig;
-        this.articleRepository = articleRepository;
+        this.blogNavigation = blogNavigation;
+        this.localPageClient = localPageClient;
     }
 
     @ModelAttribute("blogPageNameToSlug")
     public Map<String, String> getBlogPageNameToSlugMap() {
-        return articleRepository.findPublishedPages().stream()
-                .collect(Collectors.toMap(Article::getTitle, Article::getSlug));
+        return blogNavigation.getPageNameToSlugMap();
     }
 
     @ModelAttribute("blogTitle")
@@ -80,4 +83,9 @@ public class CommonModelAttributeController {
     public String getAdminEmail() {
         return adminConfig.getEmail();
     }
+
+    @ModelAttribute("staticExport")
+    public boolean isStaticExport(HttpServletRequest request) {
+        return localPageClient.isExportRequest(request);
+    }
 }
@@ -24,56 +24,179 @@
 package com.github.piotr_rusin.yule.controller;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import com.github.piotr_rusin.yule.cache.PageDependencies;
+import com.github.piotr_rusin.yule.cache.PageValidators;
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.PostCursor;
+import com.github.piotr_rusin.yule.domain.SearchCursor;
+import com.github.piotr_rusin.yule.domain.SearchHit;
 import com.github.piotr_rusin.yule.service.ArticleProvider;
+import com.github.piotr_rusin.yule.service.ArticleSearch;
+import com.github.piotr_rusin.yule.service.ParallelArticleRenderer;
+import com.github.piotr_rusin.yule.service.PostArchive;
 
 @Controller
 public class YuleController {
 
     private ArticleProvider articleProvider;
+    private ParallelArticleRenderer articleRenderer;
+    private PageValidators pageValidators;
+    private ArticleSearch articleSearch;
+    private PostArchive postArchive;
 
     @Autowired
-    public YuleController(ArticleProvider articleProvider) {
+    public YuleController(ArticleProvider articleProvider,
+            ParallelArticleRenderer articleRenderer,
+            PageValidators pageValidators, ArticleSearch articleSearch,
+            PostArchive postArchive) {
         this.articleProvider = articleProvider;
+        this.articleRenderer = articleRenderer;
+        this.pageValidators = pageValidators;
+        this.articleSearch = articleSearch;
+        this.postArchive = postArchive;
+    }
+
+    private static void setPageDependencies(ServletWebRequest request,
+            PageDependencies dependencies) {
+        request.setAttribute(PageDependencies.ATTRIBUTE_NAME, dependencies,
+                RequestAttributes.SCOPE_REQUEST);
     }
 
     @GetMapping({ "/", "/page/{page:[1-9][0-9]*}" })
     public String getBlogPostListPage(
-            @PathVariable(required = false) Integer page, Model model) {
+            @PathVariable(required = false) Integer page,
+            @RequestParam(required = false) PostCursor after,
+            @RequestParam(required = false) PostCursor before, Model model,
+            ServletWebRequest request) {
         if (page == null) {
             page = 1;
         }
-        Page<Article> articles = articleProvider.getBlogPostPage(page - 1);
+        Page<Article> articles = articleProvider.getBlogPostPage(page - 1,
+                after, before);
+        if (pageValidators.checkNotModified(request, articles)) {
+            return null;
+        }
+        articleRenderer.renderMissingHtml(articles.getContent());
+        setPageDependencies(request, PageDependencies.ofIndexPage(articles));
         model.addAttribute("articlePage", articles);
+        if (articles.hasContent()) {
+            List<Article> posts = articles.getContent();
+            model.addAttribute("previousPageCursor",
+                    PostCursor.of(posts.get(0)));
+            model.addAttribute("nextPageCursor",
+                    PostCursor.of(posts.get(posts.size() - 1)));
+        }
         return "index";
     }
 
     @GetMapping("/{publicationDate:\\d+(?:\\-\\d{2}){2}}/{slug:[a-z-]+}")
     public String showBlogPost(
             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publicationDate,
-            @PathVariable String slug, Model model) {
+            @PathVariable String slug, Model model,
+            ServletWebRequest request) {
         Article article = articleProvider.getPublishedBlogPost(slug, publicationDate);
+        if (pageValidators.checkNotModified(request, article)) {
+            return null;
+        }
+        articleRenderer.renderMissingHtml(Collections.singletonList(article));
+        setPageDependencies(request, PageDependencies.ofArticle(article));
         model.addAttribute("article", article);
         return "article";
     }
 
+    @GetMapping("/archive")
+    public String showArchive(Model model) {
+        model.addAttribute("archive", postArchive.getMonthsByYear());
+        return "archive";
+    }
+
+    @GetMapping({ "/{year:\\d{4}}",
+            "/{year:\\d{4}}/page/{page:[1-9][0-9]*}" })
+    public String showYearArchive(@PathVariable int year,
+            @PathVariable(required = false) Integer page,
+            @RequestParam(required = false) PostCursor after,
+            @RequestParam(required = false) PostCursor before, Model model) {
+        model.addAttribute("archiveYear", year);
+        return showArchivePage(YearMonth.of(year, 1), YearMonth.of(year, 12),
+                page, after, before, model);
+    }
+
+    @GetMapping({ "/{year:\\d{4}}-{month:0[1-9]|1[0-2]}",
+            "/{year:\\d{4}}-{month:0[1-9]|1[0-2]}/page/{page:[1-9][0-9]*}" })
+    public String showMonthArchive(@PathVariable int year,
+            @PathVariable int month,
+            @PathVariable(required = false) Integer page,
+            @RequestParam(required = false) PostCursor after,
+            @RequestParam(required = false) PostCursor before, Model model) {
+        YearMonth archiveMonth = YearMonth.of(year, month);
+        model.addAttribute("archiveMonth", archiveMonth);
+        return showArchivePage(archiveMonth, archiveMonth, page, after, before,
+                model);
+    }
+
+    private String showArchivePage(YearMonth first, YearMonth last,
+            Integer page, PostCursor after, PostCursor before, Model model) {
+        if (page == null) {
+            page = 1;
+        }
+        Page<Article> articles = articleProvider.getArchivePage(first, last,
+                page - 1, after, before);
+        articleRenderer.renderMissingHtml(articles.getContent());
+        model.addAttribute("articlePage", articles);
+        List<Article> posts = articles.getContent();
+        model.addAttribute("previousPageCursor", PostCursor.of(posts.get(0)));
+        model.addAttribute("nextPageCursor",
+                PostCursor.of(posts.get(posts.size() - 1)));
+        model.addAttribute("archive", postArchive.getMonthsByYear());
+        return "archive";
+    }
+
+    @GetMapping("/search")
+    public String search(
+            @RequestParam(name = "q", required = false) String terms,
+            @RequestParam(required = false) SearchCursor after,
+            Model model) {
+        Slice<SearchHit> results = articleSearch.search(terms, after);
+        model.addAttribute("terms", terms);
+        model.addAttribute("searchResults", results);
+        if (results.hasNext()) {
+            List<SearchHit> hits = results.getContent();
+            model.addAttribute("nextResultCursor",
+                    SearchCursor.of(hits.get(hits.size() - 1)));
+        }
+        return "search";
+    }
+
     @GetMapping("/login")
     public String showLoginPage() {
         return "login";
     }
 
     @GetMapping("/{slug:[a-z-]+}")
-    public String showPage(@PathVariable String slug, Model model) {
+    public String showPage(@PathVariable String slug, Model model,
+            ServletWebRequest request) {
         Article article = articleProvider.getPublishedPage(slug);
+        if (pageValidators.checkNotModified(request, article)) {
+            return null;
+        }
+        articleRenderer.renderMissingHtml(Collections.singletonList(article));
+        setPageDependencies(request, PageDependencies.ofArticle(article));
         model.addAttribute("article", article);
         return "article";
     }
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.datasource;
+
+/**
+ * A scope in which the current thread reads from the primary database, even
+ * in read-only transactions that would otherwise be routed to a replica.
+ * <p>
+ * The scope is used where data read from a lagging replica could be
+ * mistaken for the current state: by requests of authors, who expect to see
+ * their changes immediately, and by tasks that modify articles or keep state
+ * derived from them. Scopes may be nested, and each must be closed in the
+ * thread that opened it:
+ *
+ * <pre>
+ * try (PrimaryReads reads = PrimaryReads.begin()) {
+ *     ...
+ * }
+ * </pre>
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class PrimaryReads implements AutoCloseable {
+    private static final ThreadLocal<Integer> depth = new ThreadLocal<>();
+
+    private boolean closed;
+
+    private PrimaryReads() {
+        Integer current = depth.get();
+        depth.set(current == null ? 1 : current + 1);
+    }
+
+    /**
+     * Open a new scope of reads from the primary database.
+     *
+     * @return the scope, to be closed after the reads.
+     */
+    public static PrimaryReads begin() {
+        return new PrimaryReads();
+    }
+
+    /**
+     * Check if the current thread is in a scope of reads from the primary
+     * database.
+     *
+     * @return true if the thread must read from the primary database.
+     */
+    public static boolean isActive() {
+        return depth.get() != null;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        int current = depth.get();
+        if (current == 1) {
+            depth.remove();
+        } else {
+            depth.set(current - 1);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.datasource;
+
+import java.sql.SQLException;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * A JPA dialect preventing transactions routed to a read replica by
+ * {@link ReadReplicaRoutingDataSource} from filling the second-level cache and
+ * the query cache.
+ * <p>
+ * The caches are shared by all readers, including authors and tasks reading
+ * in a {@link PrimaryReads} scope, so an entity or a query result read from a
+ * lagging replica after the caches were invalidated by a change could be
+ * served to all of them until it expires. Sessions of such transactions only
+ * {@link CacheMode#GET get} data from the caches, so the caches are filled
+ * only with data read from the primary database.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    public Object beginTransaction(EntityManager entityManager,
+            TransactionDefinition definition)
+            throws PersistenceException, SQLException {
+        Object transactionData = super.beginTransaction(entityManager,
+                definition);
+        if (!isRoutedToReplica(definition)) {
+            return transactionData;
+        }
+        Session session = getSession(entityManager);
+        return new ReplicaTransactionData(transactionData, session,
+                restrictCacheMode(session));
+    }
+
+    @Override
+    public void cleanupTransaction(Object transactionData) {
+        if (transactionData instanceof ReplicaTransactionData) {
+            ReplicaTransactionData data = (ReplicaTransactionData) transactionData;
+            data.session.setCacheMode(data.previousCacheMode);
+            transactionData = data.transactionData;
+        }
+        super.cleanupTransaction(transactionData);
+    }
+
+    /**
+     * Check if connections of a transaction are routed to the replica.
+     * <p>
+     * The transaction isn't marked as read-only in the synchronization
+     * manager when it begins, so it is recognized by its definition.
+     *
+     * @param definition
+     *            is the definition of the transaction.
+     * @return true if the transaction reads from the replica.
+     */
+    static boolean isRoutedToReplica(TransactionDefinition definition) {
+        return definition.isReadOnly() && !PrimaryReads.isActive();
+    }
+
+    /**
+     * Make a session only read data from the caches.
+     *
+     * @param session
+     *            is the session of a transaction routed to the replica.
+     * @return the previous cache mode of the session, to be restored after
+     *         the transaction, as the session may outlive it.
+     */
+    static CacheMode restrictCacheMode(Session session) {
+        CacheMode previous = session.getCacheMode();
+        if (previous.isPutEnabled()) {
+            session.setCacheMode(
+                    previous.isGetEnabled() ? CacheMode.GET : CacheMode.IGNORE);
+        }
+        return previous;
+    }
+
+    /**
+     * Data of a transaction routed to the replica, wrapping the data of the
+     * superclass.
+     */
+    static class ReplicaTransactionData {
+        private final Object transactionData;
+        private final Session session;
+        private final CacheMode previousCacheMode;
+
+        ReplicaTransactionData(Object transactionData, Session session,
+                CacheMode previousCacheMode) {
+            this.transactionData = transactionData;
+            this.session = session;
+            this.previousCacheMode = previousCacheMode;
+        }
+    }
+}
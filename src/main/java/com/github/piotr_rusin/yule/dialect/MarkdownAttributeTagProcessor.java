@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.dialect;
+
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.element.AbstractAttributeTagProcessor;
+import org.thymeleaf.processor.element.IElementTagStructureHandler;
+import org.thymeleaf.standard.expression.IStandardExpression;
+import org.thymeleaf.standard.expression.IStandardExpressionParser;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import com.github.piotr_rusin.yule.service.MarkdownToHtmlConverter;
+
+/**
+ * A processor of yule:markdown attribute, replacing the body of an element
+ * with HTML rendered from Markdown value of the attribute expression.
+ * <p>
+ * The HTML is rendered when the template output is written, directly to the
+ * output writer.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class MarkdownAttributeTagProcessor
+        extends AbstractAttributeTagProcessor {
+    public static final String ATTRIBUTE_NAME = "markdown";
+
+    /**
+     * The precedence of the processor, equal to that of th:utext.
+     */
+    public static final int PRECEDENCE = 1400;
+
+    private MarkdownToHtmlConverter markdownConverter;
+
+    public MarkdownAttributeTagProcessor(String dialectPrefix,
+            MarkdownToHtmlConverter markdownConverter) {
+        super(TemplateMode.HTML, dialectPrefix, null, false, ATTRIBUTE_NAME,
+                true, PRECEDENCE, true);
+        this.markdownConverter = markdownConverter;
+    }
+
+    @Override
+    protected void doProcess(ITemplateContext context,
+            IProcessableElementTag tag, AttributeName attributeName,
+            String attributeValue,
+            IElementTagStructureHandler structureHandler) {
+        IStandardExpressionParser parser = StandardExpressions
+                .getExpressionParser(context.getConfiguration());
+        IStandardExpression expression = parser.parseExpression(context,
+                attributeValue);
+        Object markdown = expression.execute(context);
+        if (markdown == null) {
+            structureHandler.removeBody();
+            return;
+        }
+        structureHandler.setBody(
+                new MarkdownCharSequence(markdown.toString(),
+                        markdownConverter),
+                false);
+    }
+}
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.dialect;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.thymeleaf.util.AbstractLazyCharSequence;
+
+import com.github.piotr_rusin.yule.service.MarkdownToHtmlConverter;
+
+/**
+ * A lazily rendered HTML version of a Markdown value.
+ * <p>
+ * When written to the template output, the HTML is streamed to the output
+ * writer by the Markdown renderer, so the memory needed for writing an
+ * article doesn't include its whole HTML.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+class MarkdownCharSequence extends AbstractLazyCharSequence {
+    private final String markdown;
+    private final MarkdownToHtmlConverter markdownConverter;
+
+    MarkdownCharSequence(String markdown,
+            MarkdownToHtmlConverter markdownConverter) {
+        this.markdown = markdown;
+        this.markdownConverter = markdownConverter;
+    }
+
+    @Override
+    protected String resolveText() {
+        return markdownConverter.convert(markdown);
+    }
+
+    @Override
+    protected void writeUnresolved(Writer writer) throws IOException {
+        markdownConverter.convert(markdown, writer);
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.dialect;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.standard.StandardDialect;
+
+import com.github.piotr_rusin.yule.service.MarkdownToHtmlConverter;
+
+/**
+ * A Thymeleaf dialect providing Yule-specific attributes, with "yule" prefix.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class YuleDialect extends AbstractProcessorDialect {
+    public static final String NAME = "Yule";
+    public static final String PREFIX = "yule";
+
+    private MarkdownToHtmlConverter markdownConverter;
+
+    /**
+     * Create a new instance.
+     *
+     * @param markdownConverter
+     *            is an object used by the processors of the dialect to
+     *            render Markdown.
+     */
+    public YuleDialect(MarkdownToHtmlConverter markdownConverter) {
+        super(NAME, PREFIX, StandardDialect.PROCESSOR_PRECEDENCE);
+        this.markdownConverter = markdownConverter;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        Set<IProcessor> processors = new HashSet<>();
+        processors.add(new MarkdownAttributeTagProcessor(dialectPrefix,
+                markdownConverter));
+        return processors;
+    }
+}
@@ -29,19 +29,27 @@ import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 import javax.persistence.Version;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.hibernate.validator.constraints.NotBlank;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -55,24 +63,73 @@ import com.github.piotr_rusin.yule.validation.StatusConstraintsFulfilled;
  * @author Piotr Rusin <piotr.rusin88@gmail.com>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @EntityListeners(ArticleListener.class)
 @Table(name = "articles")
 @StatusConstraintsFulfilled
 public class Article {
+    /**
+     * A tag separating an introduction from the rest of the content.
+     */
+    public static final String MORE_TAG = "<!--more-->";
+
+    /**
+     * A value of {@link #teaserBoundary} used when the content has no
+     * introduction.
+     */
+    static final int NO_TEASER = -1;
+
+    /**
+     * Matches slugs other than the ones reserved for paths of pages like the
+     * archive or the search results, which would hide blog pages with the
+     * same slugs.
+     */
+    static final String UNRESERVED_SLUG = "(?!(?:archive|login|search)$).*";
+
+    /*
+     * Ids are allocated from the sequence in ranges, so that new articles can
+     * be inserted in JDBC batches.
+     */
     @Id
     @Column(name = "id")
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "articles_id_seq")
+    @GenericGenerator(name = "articles_id_seq", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "articles_id_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled") })
     private Long id;
 
     @NotBlank
     private String title;
 
+    @Pattern(regexp = UNRESERVED_SLUG, message = "this value is reserved")
     private String slug;
 
     private String customIntroduction;
 
     private String content;
 
+    /**
+     * An offset of the {@link #MORE_TAG "more" tag} ending an introduction
+     * within the content, or {@link #NO_TEASER} if the content has no
+     * introduction. Null if not calculated yet.
+     */
+    @Column(name = "teaser_boundary")
+    private Integer teaserBoundary;
+
+    @Transient
+    private String derivedIntroduction;
+
+    @Transient
+    private boolean contentOmitted;
+
+    @Column(name = "content_html")
+    private String contentHtml;
+
+    @Column(name = "introduction_html")
+    private String introductionHtml;
+
     @Column(name = "creation_timestamp")
     @CreationTimestamp
     private Instant creationTimestamp;
@@ -116,6 +173,32 @@ public class Article {
         this.modificationTimestamp = article.modificationTimestamp;
         this.slug = article.slug;
         this.version = article.version;
+        this.contentHtml = article.contentHtml;
+        this.introductionHtml = article.introductionHtml;
+    }
+
+    /**
+     * Create a view of a published article to be listed on an index page.
+     * <p>
+     * The view is not managed by the persistence context and it has no
+     * Markdown content. It has no HTML content either if its introduction is
+     * displayed on the list instead.
+     */
+    public Article(Long id, int version, String title, String slug,
+            boolean post, ArticleStatus status, Instant publicationTimestamp,
+            Instant modificationTimestamp, String introductionHtml,
+            String contentHtml) {
+        this.id = id;
+        this.version = version;
+        this.title = title;
+        this.slug = slug;
+        this.post = post;
+        this.status = status;
+        this.publicationTimestamp = publicationTimestamp;
+        this.modificationTimestamp = modificationTimestamp;
+        this.introductionHtml = introductionHtml;
+        this.contentHtml = contentHtml;
+        this.contentOmitted = introductionHtml != null;
     }
 
     /**
@@ -133,6 +216,8 @@ public class Article {
     public void setAdminAlterableData(Article dto) {
         this.title = dto.title;
         this.content = dto.content;
+        this.teaserBoundary = dto.teaserBoundary;
+        this.derivedIntroduction = dto.derivedIntroduction;
         this.post = dto.post;
         this.publicationTimestamp = dto.publicationTimestamp;
         this.status = dto.status;
@@ -180,31 +265,93 @@ public class Article {
      *            is a value to be set as a slug. If it's null, and no other
      *            value will be set before saving the article in the database, a
      *            value based on the title at the time of persist or update
-     *            operation will be generated and set instead.
+     *            operation will be generated and set instead. It must not be
+     *            one of the {@link #isReservedSlug(String) reserved values}.
      * @see ArticleListener#makeSureHasSlug(Article)
      */
     public void setSlug(String slug) {
         this.slug = slug;
     }
 
+    /**
+     * Check if a slug is reserved for a path of another page of the blog.
+     *
+     * @param slug
+     *            is a slug to be checked.
+     * @return true if the slug is the same as the path of a page like the
+     *         archive, without the leading slash.
+     */
+    public static boolean isReservedSlug(String slug) {
+        return slug != null && !slug.matches(UNRESERVED_SLUG);
+    }
+
     /**
      * Get a value used as an introduction to the article
+     * <p>
+     * An introduction derived from the content is calculated with the
+     * {@link #teaserBoundary teaser boundary} saved with the article, without
+     * searching the content, and it is remembered until the content changes.
      *
      * @return the custom introduction value, if set, otherwise a value derived
      *         from the current content. If the content is not null and has a
-     *         <!--more--> tag, the part of the content before the tag will be
-     *         returned, otherwise the whole content will.
+     *         <!--more--> tag followed by more content, the part of the
+     *         content before the tag will be returned, otherwise null will.
      */
     public String getIntroduction() {
         if (customIntroduction != null && !customIntroduction.isEmpty())
             return customIntroduction;
+        if (derivedIntroduction == null && content != null) {
+            int boundary = getTeaserBoundary();
+            if (boundary != NO_TEASER)
+                derivedIntroduction = content.substring(0, boundary);
+        }
+        return derivedIntroduction;
+    }
+
+    /**
+     * Get the offset of the "more" tag ending an introduction within the
+     * content.
+     *
+     * @return the saved value, if it is still valid for the content,
+     *         otherwise a value found in the content.
+     */
+    private int getTeaserBoundary() {
+        if (teaserBoundary != null && (teaserBoundary == NO_TEASER
+                || content.startsWith(MORE_TAG, teaserBoundary)))
+            return teaserBoundary;
+        return findTeaserBoundary(content);
+    }
+
+    /**
+     * Find the offset of the "more" tag ending an introduction.
+     *
+     * @param content
+     *            is the content to be searched.
+     * @return the offset of the first "more" tag, if it is followed by
+     *         anything else than other "more" tags, otherwise
+     *         {@link #NO_TEASER}.
+     */
+    static int findTeaserBoundary(String content) {
         if (content == null)
-            return null;
-        String[] segments = content.split("<!--more-->");
-        if (segments.length > 1) {
-            return segments[0];
+            return NO_TEASER;
+        int index = content.indexOf(MORE_TAG);
+        if (index < 0)
+            return NO_TEASER;
+        int rest = index + MORE_TAG.length();
+        while (content.startsWith(MORE_TAG, rest)) {
+            rest += MORE_TAG.length();
         }
-        return null;
+        return rest < content.length() ? index : NO_TEASER;
+    }
+
+    /**
+     * Make sure the teaser boundary saved with the article is up to date.
+     */
+    @PrePersist
+    @PreUpdate
+    void updateTeaserBoundary() {
+        if (content != null)
+            teaserBoundary = getTeaserBoundary();
     }
 
     /**
@@ -244,6 +391,72 @@ public class Article {
      */
     public void setContent(String content) {
         this.content = content;
+        teaserBoundary = findTeaserBoundary(content);
+        derivedIntroduction = null;
+    }
+
+    /**
+     * Check if the article is listed on index pages with its introduction,
+     * instead of the content.
+     *
+     * @return true if the content was omitted from this view of the article
+     *         or if the article has an introduction, whether its HTML was
+     *         already rendered or not.
+     */
+    public boolean hasIntroduction() {
+        return contentOmitted || getIntroduction() != null;
+    }
+
+    /**
+     * Check if the content was omitted from this view of the article.
+     *
+     * @return true if the article was created as a view listed on an index
+     *         page, with an introduction displayed instead of the content.
+     */
+    public boolean isContentOmitted() {
+        return contentOmitted;
+    }
+
+    /**
+     * Get an HTML version of the content.
+     *
+     * @return the value rendered from the Markdown content of the article when
+     *         it was last saved.
+     */
+    public String getContentHtml() {
+        return contentHtml;
+    }
+
+    /**
+     * Set an HTML version of the content.
+     *
+     * @param contentHtml
+     *            is a value rendered from the current content of the article.
+     */
+    public void setContentHtml(String contentHtml) {
+        this.contentHtml = contentHtml;
+    }
+
+    /**
+     * Get an HTML version of the introduction.
+     *
+     * @return the value rendered from {@link #getIntroduction() the
+     *         introduction} of the article when it was last saved, or null if
+     *         the article had no introduction.
+     */
+    public String getIntroductionHtml() {
+        return introductionHtml;
+    }
+
+    /**
+     * Set an HTML version of the introduction.
+     *
+     * @param introductionHtml
+     *            is a value rendered from the current introduction of the
+     *            article.
+     */
+    public void setIntroductionHtml(String introductionHtml) {
+        this.introductionHtml = introductionHtml;
     }
 
     public Instant getCreationTimestamp() {
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.time.Instant;
+
+/**
+ * An article as presented on the admin article list, without its content.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class ArticleListItem {
+    private final Long id;
+    private final int version;
+    private final String title;
+    private final String slug;
+    private final boolean post;
+    private final ArticleStatus status;
+    private final Instant creationTimestamp;
+    private final Instant publicationTimestamp;
+
+    public ArticleListItem(Long id, int version, String title, String slug,
+            boolean post, ArticleStatus status, Instant creationTimestamp,
+            Instant publicationTimestamp) {
+        this.id = id;
+        this.version = version;
+        this.title = title;
+        this.slug = slug;
+        this.post = post;
+        this.status = status;
+        this.creationTimestamp = creationTimestamp;
+        this.publicationTimestamp = publicationTimestamp;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public boolean isPost() {
+        return post;
+    }
+
+    public ArticleStatus getStatus() {
+        return status;
+    }
+
+    public Instant getCreationTimestamp() {
+        return creationTimestamp;
+    }
+
+    public Instant getPublicationTimestamp() {
+        return publicationTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ArticleListItem [id=%s, title=%s, status=%s]",
+                id, title, status);
+    }
+}
@@ -37,6 +37,9 @@ public class ArticleListener {
     public void makeSureHasSlug(Article article) {
         if (article.getSlug() == null) {
             String slug = slg.slugify(article.getTitle());
+            if (Article.isReservedSlug(slug)) {
+                slug += "-page";
+            }
             article.setSlug(slug);
         }
     }
@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.time.Instant;
+
+/**
+ * Data of an article, as exported to and imported from a file with one
+ * JSON object per line.
+ * <p>
+ * The status and the publication timestamp are kept as strings, so that an
+ * invalid value rejects a single record instead of ending the parsing of a
+ * file. The timestamp is an ISO-8601 instant. The id is exported for
+ * reference only, since imported articles get new ids.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class ArticleRecord {
+    private Long id;
+    private String title;
+    private String slug;
+    private String customIntroduction;
+    private String content;
+    private boolean post = true;
+    private String status;
+    private String publicationTimestamp;
+
+    public ArticleRecord() {
+    }
+
+    public ArticleRecord(Long id, String title, String slug,
+            String customIntroduction, String content, boolean post,
+            ArticleStatus status, Instant publicationTimestamp) {
+        this.id = id;
+        this.title = title;
+        this.slug = slug;
+        this.customIntroduction = customIntroduction;
+        this.content = content;
+        this.post = post;
+        this.status = status == null ? null : status.name();
+        this.publicationTimestamp = publicationTimestamp == null ? null
+                : publicationTimestamp.toString();
+    }
+
+    /**
+     * Create a new article with the data of this record.
+     *
+     * @throws java.time.format.DateTimeParseException
+     *             if the publication timestamp can't be parsed.
+     * @throws IllegalArgumentException
+     *             if the status is not a name of an article status.
+     * @return the article, not validated yet.
+     */
+    public Article toArticle() {
+        Article article = new Article(title, content);
+        article.setSlug(slug);
+        article.setCustomIntroduction(customIntroduction);
+        article.setPost(post);
+        // The timestamp is set first, so that a published article doesn't
+        // get the current time instead.
+        article.setPublicationTimestamp(publicationTimestamp == null ? null
+                : Instant.parse(publicationTimestamp));
+        if (status != null) {
+            article.setStatus(ArticleStatus.valueOf(status));
+        }
+        return article;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public void setSlug(String slug) {
+        this.slug = slug;
+    }
+
+    public String getCustomIntroduction() {
+        return customIntroduction;
+    }
+
+    public void setCustomIntroduction(String customIntroduction) {
+        this.customIntroduction = customIntroduction;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public boolean isPost() {
+        return post;
+    }
+
+    public void setPost(boolean post) {
+        this.post = post;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getPublicationTimestamp() {
+        return publicationTimestamp;
+    }
+
+    public void setPublicationTimestamp(String publicationTimestamp) {
+        this.publicationTimestamp = publicationTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ArticleRecord [id=%s, title=%s, slug=%s]", id,
+                title, slug);
+    }
+}
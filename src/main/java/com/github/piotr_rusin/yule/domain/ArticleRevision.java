@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+/**
+ * A stored revision of an article, saved by its author.
+ * <p>
+ * The content of a revision is either a compressed {@link #isSnapshot()
+ * snapshot} of the whole Markdown content, or a compressed delta against the
+ * content of the previous revision of the same article, whose version is
+ * stored as the {@link #getBaseVersion() base version}.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ */
+@Entity
+@IdClass(ArticleRevision.Key.class)
+@Table(name = "article_revisions")
+public class ArticleRevision {
+    @Id
+    @Column(name = "article_id")
+    private long articleId;
+
+    @Id
+    private int version;
+
+    private String title;
+
+    @Column(name = "custom_introduction")
+    private String customIntroduction;
+
+    private boolean snapshot;
+
+    @Column(name = "base_version")
+    private Integer baseVersion;
+
+    private byte[] content;
+
+    @Column(name = "creation_timestamp")
+    private Instant creationTimestamp;
+
+    protected ArticleRevision() {
+    }
+
+    /**
+     * Create a stored revision.
+     *
+     * @param revision
+     *            is the revision to be stored.
+     * @param baseVersion
+     *            is the version of the revision the content is a delta
+     *            against, or null if the content is a snapshot.
+     * @param content
+     *            is the compressed delta or snapshot.
+     */
+    public ArticleRevision(Revision revision, Integer baseVersion,
+            byte[] content) {
+        this.articleId = revision.getArticleId();
+        this.version = revision.getVersion();
+        this.title = revision.getTitle();
+        this.customIntroduction = revision.getCustomIntroduction();
+        this.creationTimestamp = revision.getCreationTimestamp();
+        this.snapshot = baseVersion == null;
+        this.baseVersion = baseVersion;
+        this.content = content;
+    }
+
+    public long getArticleId() {
+        return articleId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCustomIntroduction() {
+        return customIntroduction;
+    }
+
+    /**
+     * Check if the content of this revision is stored as a whole.
+     *
+     * @return true if the content is a compressed snapshot, false if it is a
+     *         compressed delta against the previous revision.
+     */
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Get the version of the revision the content is a delta against.
+     *
+     * @return the version, or null if the content is a snapshot.
+     */
+    public Integer getBaseVersion() {
+        return baseVersion;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public Instant getCreationTimestamp() {
+        return creationTimestamp;
+    }
+
+    /**
+     * Convert this revision to a revision with the given content.
+     *
+     * @param content
+     *            is the reconstructed Markdown content of this revision.
+     * @return the revision.
+     */
+    public Revision toRevision(String content) {
+        return new Revision(articleId, version, title, customIntroduction,
+                content, creationTimestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleRevision [articleId=" + articleId + ", version="
+                + version + ", baseVersion=" + baseVersion + "]";
+    }
+
+    /**
+     * An identifier of an article revision.
+     *
+     * @author Piotr Rusin <piotr.rusin88@gmail.com>
+     */
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private long articleId;
+        private int version;
+
+        public Key() {
+        }
+
+        public Key(long articleId, int version) {
+            this.articleId = articleId;
+            this.version = version;
+        }
+
+        public long getArticleId() {
+            return articleId;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return articleId == other.articleId && version == other.version;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(articleId, version);
+        }
+    }
+}
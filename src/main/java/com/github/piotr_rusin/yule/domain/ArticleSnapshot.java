@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * An immutable copy of the article data that determines where and how the
+ * article is listed on public pages of the blog.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class ArticleSnapshot {
+    private final Long id;
+    private final String title;
+    private final String slug;
+    private final boolean post;
+    private final ArticleStatus status;
+    private final Instant publicationTimestamp;
+
+    public ArticleSnapshot(Article article) {
+        this.id = article.getId();
+        this.title = article.getTitle();
+        this.slug = article.getSlug();
+        this.post = article.isPost();
+        this.status = article.getStatus();
+        this.publicationTimestamp = article.getPublicationTimestamp();
+    }
+
+    /**
+     * Create a snapshot of an article.
+     *
+     * @param article
+     *            is a saved article, or null.
+     * @return a snapshot of the article, or null if the article is null.
+     */
+    public static ArticleSnapshot of(Article article) {
+        return article == null ? null : new ArticleSnapshot(article);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public boolean isPost() {
+        return post;
+    }
+
+    public ArticleStatus getStatus() {
+        return status;
+    }
+
+    public Instant getPublicationTimestamp() {
+        return publicationTimestamp;
+    }
+
+    public boolean isPublished() {
+        return status == ArticleStatus.PUBLISHED;
+    }
+
+    /**
+     * Check if the article is listed on the index pages of the blog.
+     *
+     * @return true if the article is a published blog post.
+     */
+    public boolean isListedPost() {
+        return isPublished() && post;
+    }
+
+    /**
+     * Check if the article is linked in the navigation of the blog.
+     *
+     * @return true if the article is a published blog page.
+     */
+    public boolean isNavigationPage() {
+        return isPublished() && !post;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ArticleSnapshot)) {
+            return false;
+        }
+        ArticleSnapshot other = (ArticleSnapshot) obj;
+        return Objects.equals(id, other.id) && post == other.post
+                && status == other.status
+                && Objects.equals(title, other.title)
+                && Objects.equals(slug, other.slug)
+                && Objects.equals(publicationTimestamp,
+                        other.publicationTimestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, title, slug, post, status,
+                publicationTimestamp);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ArticleSnapshot[id=%s, slug=%s, status=%s]", id,
+                slug, status);
+    }
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.util.Objects;
+
+/**
+ * An identifier of an article together with the version of the article
+ * that was displayed to the author, used to change the article only if it
+ * wasn't modified since.
+ * <p>
+ * A version can be passed in a request parameter in the form returned by
+ * {@link #toString()}.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class ArticleVersion {
+    private static final String SEPARATOR = "_";
+
+    private final long id;
+    private final int version;
+
+    public ArticleVersion(long id, int version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public static ArticleVersion of(ArticleListItem item) {
+        return new ArticleVersion(item.getId(), item.getVersion());
+    }
+
+    /**
+     * Parse a version.
+     *
+     * @param value
+     *            is a value returned by {@link #toString()}.
+     * @return the version.
+     * @throws IllegalArgumentException
+     *             if the value is not a valid article version.
+     */
+    public static ArticleVersion valueOf(String value) {
+        String[] parts = value.split(SEPARATOR);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException(String
+                    .format("\"%s\" is not a valid article version.", value));
+        }
+        try {
+            return new ArticleVersion(Long.parseLong(parts[0]),
+                    Integer.parseInt(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String.format(
+                    "\"%s\" is not a valid article version.", value), e);
+        }
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ArticleVersion)) {
+            return false;
+        }
+        ArticleVersion other = (ArticleVersion) obj;
+        return id == other.id && version == other.version;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, version);
+    }
+
+    @Override
+    public String toString() {
+        return id + SEPARATOR + version;
+    }
+}
@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A position of a blog post on the list of published posts, ordered by
+ * publication time and id, from the newest.
+ * <p>
+ * A cursor can be passed in a URL in the form returned by
+ * {@link #toString()}.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class PostCursor {
+    private static final String SEPARATOR = "_";
+
+    private final Instant publicationTimestamp;
+    private final long id;
+
+    public PostCursor(Instant publicationTimestamp, Long id) {
+        this.publicationTimestamp = Objects
+                .requireNonNull(publicationTimestamp);
+        this.id = id;
+    }
+
+    public static PostCursor of(Article post) {
+        return new PostCursor(post.getPublicationTimestamp(), post.getId());
+    }
+
+    /**
+     * Parse a cursor.
+     *
+     * @param value
+     *            is a value returned by {@link #toString()}.
+     * @return the cursor.
+     * @throws IllegalArgumentException
+     *             if the value is not a valid cursor.
+     */
+    public static PostCursor valueOf(String value) {
+        String[] parts = value.split(SEPARATOR);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException(
+                    String.format("\"%s\" is not a valid post cursor.", value));
+        }
+        try {
+            return new PostCursor(
+                    Instant.ofEpochSecond(Long.parseLong(parts[0]),
+                            Long.parseLong(parts[1])),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(
+                    String.format("\"%s\" is not a valid post cursor.", value),
+                    e);
+        }
+    }
+
+    public Instant getPublicationTimestamp() {
+        return publicationTimestamp;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PostCursor)) {
+            return false;
+        }
+        PostCursor other = (PostCursor) obj;
+        return id == other.id
+                && publicationTimestamp.equals(other.publicationTimestamp);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(publicationTimestamp, id);
+    }
+
+    @Override
+    public String toString() {
+        return publicationTimestamp.getEpochSecond() + SEPARATOR
+                + publicationTimestamp.getNano() + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.time.Instant;
+
+/**
+ * A version of the data of an article alterable by its author, as it was
+ * saved.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ */
+public final class Revision {
+    private final long articleId;
+    private final int version;
+    private final String title;
+    private final String customIntroduction;
+    private final String content;
+    private final Instant creationTimestamp;
+
+    public Revision(long articleId, int version, String title,
+            String customIntroduction, String content,
+            Instant creationTimestamp) {
+        this.articleId = articleId;
+        this.version = version;
+        this.title = title;
+        this.customIntroduction = customIntroduction;
+        this.content = content;
+        this.creationTimestamp = creationTimestamp;
+    }
+
+    /**
+     * Create a revision of the current state of an article.
+     *
+     * @param article
+     *            is a saved article.
+     * @return the revision.
+     */
+    public static Revision of(Article article) {
+        Instant timestamp = article.getModificationTimestamp();
+        return new Revision(article.getId(), article.getVersion(),
+                article.getTitle(), article.getCustomIntroduction(),
+                article.getContent() == null ? "" : article.getContent(),
+                timestamp == null ? Instant.now() : timestamp);
+    }
+
+    public long getArticleId() {
+        return articleId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCustomIntroduction() {
+        return customIntroduction;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public Instant getCreationTimestamp() {
+        return creationTimestamp;
+    }
+
+    /**
+     * Restore this revision in a copy of the current version of the article.
+     * <p>
+     * The copy keeps the version of the article, so that saving it doesn't
+     * overwrite changes made after it was restored.
+     *
+     * @param current
+     *            is the current version of the article.
+     * @return the copy.
+     */
+    public Article restoreIn(Article current) {
+        Article restored = new Article(current);
+        restored.setTitle(title);
+        restored.setCustomIntroduction(customIntroduction);
+        restored.setContent(content);
+        return restored;
+    }
+
+    @Override
+    public String toString() {
+        return "Revision [articleId=" + articleId + ", version=" + version
+                + ", title=" + title + "]";
+    }
+}
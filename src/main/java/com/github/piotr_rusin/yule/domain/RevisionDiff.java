@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.util.List;
+
+/**
+ * Differences between a revision of an article and the revision preceding
+ * it.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ */
+public final class RevisionDiff {
+    private final Revision revision;
+    private final Revision previous;
+    private final List<DiffLine> lines;
+
+    public RevisionDiff(Revision revision, Revision previous,
+            List<DiffLine> lines) {
+        this.revision = revision;
+        this.previous = previous;
+        this.lines = lines;
+    }
+
+    public Revision getRevision() {
+        return revision;
+    }
+
+    /**
+     * Get the preceding revision.
+     *
+     * @return the revision, or null if the compared one is the first.
+     */
+    public Revision getPrevious() {
+        return previous;
+    }
+
+    /**
+     * Get lines of content of both revisions.
+     *
+     * @return the lines, marked as unchanged, added or removed by the
+     *         compared revision.
+     */
+    public List<DiffLine> getLines() {
+        return lines;
+    }
+}
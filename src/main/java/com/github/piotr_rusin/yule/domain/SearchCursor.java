@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.util.Objects;
+
+/**
+ * A position of an article on a list of search results, ordered by rank and
+ * id, from the most relevant.
+ * <p>
+ * A cursor can be passed in a URL in the form returned by
+ * {@link #toString()}.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class SearchCursor {
+    private static final String SEPARATOR = "_";
+
+    private final float rank;
+    private final long id;
+
+    public SearchCursor(float rank, long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public static SearchCursor of(SearchHit hit) {
+        return new SearchCursor(hit.getRank(), hit.getId());
+    }
+
+    /**
+     * Parse a cursor.
+     *
+     * @param value
+     *            is a value returned by {@link #toString()}.
+     * @return the cursor.
+     * @throws IllegalArgumentException
+     *             if the value is not a valid cursor.
+     */
+    public static SearchCursor valueOf(String value) {
+        String[] parts = value.split(SEPARATOR);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException(String
+                    .format("\"%s\" is not a valid search cursor.", value));
+        }
+        try {
+            return new SearchCursor(Float.parseFloat(parts[0]),
+                    Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(String
+                    .format("\"%s\" is not a valid search cursor.", value), e);
+        }
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof SearchCursor)) {
+            return false;
+        }
+        SearchCursor other = (SearchCursor) obj;
+        return id == other.id
+                && Float.floatToIntBits(rank) == Float
+                        .floatToIntBits(other.rank);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(rank, id);
+    }
+
+    @Override
+    public String toString() {
+        return rank + SEPARATOR + id;
+    }
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.domain;
+
+import java.time.Instant;
+
+/**
+ * A published article found by a search, without its content.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class SearchHit {
+    private final Long id;
+    private final String title;
+    private final String slug;
+    private final boolean post;
+    private final Instant publicationTimestamp;
+    private final float rank;
+    private final String snippet;
+
+    public SearchHit(Long id, String title, String slug, boolean post,
+            Instant publicationTimestamp, float rank, String snippet) {
+        this.id = id;
+        this.title = title;
+        this.slug = slug;
+        this.post = post;
+        this.publicationTimestamp = publicationTimestamp;
+        this.rank = rank;
+        this.snippet = snippet;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getSlug() {
+        return slug;
+    }
+
+    public boolean isPost() {
+        return post;
+    }
+
+    public Instant getPublicationTimestamp() {
+        return publicationTimestamp;
+    }
+
+    /**
+     * Get the relevance of the article to the search query.
+     *
+     * @return the rank of the article; more relevant articles have higher
+     *         ranks.
+     */
+    public float getRank() {
+        return rank;
+    }
+
+    /**
+     * Get fragments of the article matching the search query.
+     *
+     * @return escaped HTML of the fragments, with matching words marked.
+     */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SearchHit [id=%s, title=%s, rank=%s]", id,
+                title, rank);
+    }
+}
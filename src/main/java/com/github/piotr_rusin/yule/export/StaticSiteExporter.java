@@ -0,0 +1,397 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.export;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import com.github.piotr_rusin.yule.cache.LocalPageClient;
+import com.github.piotr_rusin.yule.cache.LocalPageClient.LocalServerAvailableEvent;
+import com.github.piotr_rusin.yule.cache.PageDependencies;
+import com.github.piotr_rusin.yule.config.ExportConfig;
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.service.ArticleChange;
+import com.github.piotr_rusin.yule.service.ArticleChangeEvent;
+import com.github.piotr_rusin.yule.service.ArticleProvider;
+
+/**
+ * Exports the published blog to a directory as static files, to be served by
+ * a web server or a CDN.
+ * <p>
+ * Each page is written as an {@code index.html} file in a directory
+ * corresponding to its path, together with the assets it refers to. The
+ * pages are requested from the running server, so they are rendered with the
+ * same templates as pages displayed to readers.
+ * <p>
+ * The whole blog is exported when the server starts. After that, only the
+ * files affected by saved changes of articles are written again or deleted.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+public class StaticSiteExporter {
+    private static final Logger logger = LoggerFactory
+            .getLogger(StaticSiteExporter.class);
+    private static final String PAGE_FILE = "index.html";
+    /**
+     * Matches references to local files in the exported HTML.
+     */
+    private static final Pattern ASSET_REFERENCE = Pattern
+            .compile("(?:href|src)=\"(/[^\"?#]*/[^\"?#/]+\\.[a-z0-9]+)\"");
+
+    private final ArticleProvider articleProvider;
+    private final LocalPageClient client;
+    private final Path directory;
+    /**
+     * Dependencies of each exported page, by its path.
+     */
+    private final Map<String, PageDependencies> exportedPages = new ConcurrentHashMap<>();
+    private final Set<String> exportedAssets = ConcurrentHashMap.newKeySet();
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+
+    @Autowired
+    public StaticSiteExporter(ArticleProvider articleProvider,
+            LocalPageClient client, ExportConfig config) {
+        this.articleProvider = articleProvider;
+        this.client = client;
+        if (config.getDirectory() == null) {
+            directory = null;
+            coordinator = null;
+            workers = null;
+            return;
+        }
+        directory = Paths.get(config.getDirectory()).toAbsolutePath()
+                .normalize();
+        coordinator = Executors.newSingleThreadExecutor(
+                r -> new Thread(r, "static-site-exporter"));
+        workers = Executors.newFixedThreadPool(config.getParallelism());
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    @EventListener(LocalServerAvailableEvent.class)
+    public void onLocalServerAvailable() {
+        if (isEnabled()) {
+            coordinator.execute(readingFromPrimary(this::exportAll));
+        }
+    }
+
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (isEnabled() && client.isAvailable()) {
+            coordinator.execute(
+                    readingFromPrimary(() -> update(event.getChanges())));
+        }
+    }
+
+    /**
+     * Wrap a task of the coordinator, so that the articles to be exported are
+     * read from the primary database, like the exported pages.
+     *
+     * @param task
+     *            is a task to be wrapped.
+     * @return the wrapped task.
+     */
+    private static Runnable readingFromPrimary(Runnable task) {
+        return () -> {
+            try (PrimaryReads reads = PrimaryReads.begin()) {
+                task.run();
+            }
+        };
+    }
+
+    /**
+     * Get the path of a published article.
+     *
+     * @param article
+     *            is a snapshot of the article.
+     * @return the path under which the article is displayed.
+     */
+    static String getPath(ArticleSnapshot article) {
+        if (!article.isPost()) {
+            return "/" + article.getSlug();
+        }
+        return "/" + article.getPublicationTimestamp().atOffset(ZoneOffset.UTC)
+                .toLocalDate() + "/" + article.getSlug();
+    }
+
+    private static String getIndexPath(int pageNumber) {
+        return pageNumber == 0 ? "/" : "/page/" + (pageNumber + 1);
+    }
+
+    void exportAll() {
+        logger.info("Exporting the blog to {}", directory);
+        Map<String, PageDependencies> pages = new HashMap<>();
+        int pageCount = collectIndexPages(pages, null);
+        for (Article page : articleProvider.getPublishedPages()) {
+            pages.put(getPath(ArticleSnapshot.of(page)),
+                    PageDependencies.ofArticle(page));
+        }
+        exportPages(pages);
+        deleteIndexPagesFrom(pageCount);
+        deleteUnpublishedPages(pages.keySet());
+        logger.info("Exported {} pages and {} assets", exportedPages.size(),
+                exportedAssets.size());
+    }
+
+    /**
+     * Delete pages left by a previous export, of articles removed or
+     * unpublished while the application wasn't running.
+     * <p>
+     * Pages that are still published are kept even if they couldn't be
+     * exported again, so that a failed request doesn't remove them from the
+     * exported blog.
+     *
+     * @param publishedPaths
+     *            are paths of all pages of the published blog.
+     */
+    private void deleteUnpublishedPages(Set<String> publishedPaths) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(f -> f.getFileName().toString().equals(PAGE_FILE))
+                    .filter(f -> !publishedPaths.contains(getPagePath(f)))
+                    .forEach(this::delete);
+        } catch (IOException e) {
+            logger.warn("Pages left by a previous export could not be deleted",
+                    e);
+        }
+    }
+
+    private String getPagePath(Path pageFile) {
+        String relative = directory.relativize(pageFile.getParent())
+                .toString().replace(File.separatorChar, '/');
+        return "/" + relative;
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            logger.debug("Deleted {}", file);
+        } catch (IOException e) {
+            logger.warn("The file {} could not be deleted", file, e);
+        }
+    }
+
+    /**
+     * Collect index pages and the blog posts listed on them.
+     *
+     * @param pages
+     *            is a map to which paths of the pages and their dependencies
+     *            are added.
+     * @param indexPaths
+     *            are paths of the index pages to be collected, or null if
+     *            all pages are to be collected, together with their posts.
+     * @return the number of index pages.
+     */
+    private int collectIndexPages(Map<String, PageDependencies> pages,
+            Set<String> indexPaths) {
+        int pageCount = 1;
+        for (int number = 0; number < pageCount; number++) {
+            String path = getIndexPath(number);
+            boolean collectPage = indexPaths == null
+                    || indexPaths.contains(path)
+                    || !exportedPages.containsKey(path);
+            if (number > 0 && !collectPage) {
+                continue;
+            }
+            Page<Article> page = articleProvider.getBlogPostPage(number);
+            pageCount = Math.max(page.getTotalPages(), 1);
+            if (!collectPage) {
+                continue;
+            }
+            pages.put(path, PageDependencies.ofIndexPage(page));
+            if (indexPaths == null) {
+                for (Article post : page) {
+                    pages.put(getPath(ArticleSnapshot.of(post)),
+                            PageDependencies.ofArticle(post));
+                }
+            }
+        }
+        return pageCount;
+    }
+
+    private void update(List<ArticleChange> changes) {
+        Map<String, PageDependencies> pages = new HashMap<>();
+        Set<String> affectedIndexPaths = new HashSet<>();
+        exportedPages.forEach((path, dependencies) -> {
+            if (changes.stream().anyMatch(dependencies::isAffectedBy)) {
+                if (dependencies.isIndexPage()) {
+                    affectedIndexPaths.add(path);
+                } else {
+                    pages.put(path, dependencies);
+                }
+            }
+        });
+        for (ArticleChange change : changes) {
+            ArticleSnapshot previous = change.getPrevious();
+            ArticleSnapshot current = change.getCurrent();
+            if (previous != null && previous.isPublished()) {
+                pages.put(getPath(previous),
+                        PageDependencies.ofArticle(change.getArticleId()));
+            }
+            if (current != null && current.isPublished()) {
+                pages.put(getPath(current),
+                        PageDependencies.ofArticle(change.getArticleId()));
+            }
+        }
+        int pageCount = collectIndexPages(pages, affectedIndexPaths);
+        exportPages(pages);
+        deleteIndexPagesFrom(pageCount);
+        logger.info("Exported {} pages affected by {}", pages.size(), changes);
+    }
+
+    private void exportPages(Map<String, PageDependencies> pages) {
+        Set<String> assets = ConcurrentHashMap.newKeySet();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        pages.forEach((path, dependencies) -> tasks.add(CompletableFuture
+                .runAsync(() -> exportPage(path, dependencies, assets),
+                        workers)));
+        waitFor(tasks);
+
+        tasks.clear();
+        assets.removeAll(exportedAssets);
+        for (String asset : assets) {
+            tasks.add(CompletableFuture.runAsync(() -> exportAsset(asset),
+                    workers));
+        }
+        waitFor(tasks);
+    }
+
+    private static void waitFor(List<CompletableFuture<Void>> tasks) {
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null).join();
+    }
+
+    private void exportPage(String path, PageDependencies dependencies,
+            Set<String> assets) {
+        Path file = resolve(path).resolve(PAGE_FILE);
+        try {
+            byte[] content = client.getForExport(path);
+            if (content == null) {
+                exportedPages.remove(path);
+                delete(file);
+                return;
+            }
+            write(file, content);
+            exportedPages.put(path, dependencies);
+            Matcher matcher = ASSET_REFERENCE
+                    .matcher(new String(content, StandardCharsets.UTF_8));
+            while (matcher.find()) {
+                assets.add(matcher.group(1));
+            }
+        } catch (IOException | RestClientException e) {
+            logger.warn("The page {} could not be exported", path, e);
+        }
+    }
+
+    private void exportAsset(String path) {
+        try {
+            byte[] content = client.getForExport(path);
+            if (content != null) {
+                write(resolve(path), content);
+                exportedAssets.add(path);
+            }
+        } catch (IOException | RestClientException e) {
+            logger.warn("The asset {} could not be exported", path, e);
+        }
+    }
+
+    private void deleteIndexPagesFrom(int pageCount) {
+        for (int number = pageCount;; number++) {
+            String path = getIndexPath(number);
+            if (exportedPages.remove(path) == null) {
+                return;
+            }
+            delete(directory.resolve(path.substring(1)).resolve(PAGE_FILE));
+        }
+    }
+
+    private Path resolve(String path) throws IOException {
+        Path resolved = directory.resolve(path.substring(1)).normalize();
+        if (!resolved.startsWith(directory)) {
+            throw new IOException(String.format(
+                    "The path %s is outside of the export directory.", path));
+        }
+        return resolved;
+    }
+
+    /**
+     * Write a file, replacing its previous version atomically, so that the
+     * file is never served partially written.
+     */
+    private static void write(Path file, byte[] content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temporary = Files.createTempFile(file.getParent(), ".export",
+                ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        if (isEnabled()) {
+            coordinator.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+}
@@ -23,42 +23,175 @@
  *******************************************************************************/
 package com.github.piotr_rusin.yule.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
 import java.time.Instant;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleRecord;
+import com.github.piotr_rusin.yule.domain.ArticleTitle;
+import com.github.piotr_rusin.yule.domain.ModificationSummary;
+import com.github.piotr_rusin.yule.domain.PageLink;
+import com.github.piotr_rusin.yule.domain.PostCursor;
 
+@Transactional(readOnly = true)
 public interface ArticleRepository extends JpaRepository<Article, Long>,
-        JpaSpecificationExecutor<Article> {
+        JpaSpecificationExecutor<Article>, ArticleRepositoryCustom {
 
-    @Query("select a from Article a where a.post = true "
+    /*
+     * Published posts are selected as views listed on index pages, without
+     * their Markdown content. The HTML content is read only if they have no
+     * introduction.
+     */
+    String POST_LIST_VIEW = "select new com.github.piotr_rusin.yule.domain"
+            + ".Article(a.id, a.version, a.title, a.slug, a.post, a.status, "
+            + "a.publicationTimestamp, a.modificationTimestamp, "
+            + "a.introductionHtml, "
+            + "case when a.introductionHtml is null then a.contentHtml "
+            + "else null end) "
+            + "from Article a where a.post = true "
             + "and a.status = com.github.piotr_rusin.yule.domain"
-            + ".ArticleStatus.PUBLISHED order by a.publicationTimestamp desc")
-    Page<Article> findPublishedPosts(Pageable pageRequest);
+            + ".ArticleStatus.PUBLISHED ";
+
+    @Query(POST_LIST_VIEW
+            + "order by a.publicationTimestamp desc, a.id desc")
+    List<Article> findLatestPublishedPosts(Pageable pageRequest);
+
+    /*
+     * The redundant "publicationTimestamp <= :timestamp" condition lets the
+     * database seek to the cursor using the published posts index and filter
+     * out only the posts published at the same time as the cursor.
+     */
+    @Query(POST_LIST_VIEW + "and a.publicationTimestamp <= :timestamp "
+            + "and (a.publicationTimestamp < :timestamp or a.id < :id) "
+            + "order by a.publicationTimestamp desc, a.id desc")
+    List<Article> findPublishedPostsBefore(
+            @Param("timestamp") Instant publicationTimestamp,
+            @Param("id") long id, Pageable pageRequest);
+
+    @Query(POST_LIST_VIEW + "and a.publicationTimestamp >= :timestamp "
+            + "and (a.publicationTimestamp > :timestamp or a.id > :id) "
+            + "order by a.publicationTimestamp asc, a.id asc")
+    List<Article> findPublishedPostsAfter(
+            @Param("timestamp") Instant publicationTimestamp,
+            @Param("id") long id, Pageable pageRequest);
 
+    /*
+     * Archive pages list posts published in a time range, seeking within it
+     * with the same published posts index. The range of a page requested
+     * without a cursor is bounded by a month or a year, so the skipped
+     * offset stays short.
+     */
+    @Query(POST_LIST_VIEW + "and a.publicationTimestamp >= :from "
+            + "and a.publicationTimestamp < :to "
+            + "order by a.publicationTimestamp desc, a.id desc")
+    List<Article> findPublishedPostsBetween(@Param("from") Instant from,
+            @Param("to") Instant to, Pageable pageRequest);
+
+    @Query(POST_LIST_VIEW + "and a.publicationTimestamp >= :from "
+            + "and a.publicationTimestamp <= :timestamp "
+            + "and (a.publicationTimestamp < :timestamp or a.id < :id) "
+            + "order by a.publicationTimestamp desc, a.id desc")
+    List<Article> findPublishedPostsBetweenBefore(@Param("from") Instant from,
+            @Param("timestamp") Instant publicationTimestamp,
+            @Param("id") long id, Pageable pageRequest);
+
+    @Query(POST_LIST_VIEW + "and a.publicationTimestamp < :to "
+            + "and a.publicationTimestamp >= :timestamp "
+            + "and (a.publicationTimestamp > :timestamp or a.id > :id) "
+            + "order by a.publicationTimestamp asc, a.id asc")
+    List<Article> findPublishedPostsBetweenAfter(@Param("to") Instant to,
+            @Param("timestamp") Instant publicationTimestamp,
+            @Param("id") long id, Pageable pageRequest);
+
+    @Query("select new com.github.piotr_rusin.yule.domain"
+            + ".PostCursor(a.publicationTimestamp, a.id) "
+            + "from Article a where a.post = true "
+            + "and a.status = com.github.piotr_rusin.yule.domain"
+            + ".ArticleStatus.PUBLISHED "
+            + "order by a.publicationTimestamp desc, a.id desc")
+    List<PostCursor> findPublishedPostCursors(Pageable pageRequest);
+
+    @Query("select count(a) from Article a where a.post = true "
+            + "and a.status = com.github.piotr_rusin.yule.domain"
+            + ".ArticleStatus.PUBLISHED")
+    long countPublishedPosts();
+
+    @Query("select a.publicationTimestamp from Article a where a.post = true "
+            + "and a.status = com.github.piotr_rusin.yule.domain"
+            + ".ArticleStatus.PUBLISHED")
+    List<Instant> findPublishedPostTimestamps();
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select a from Article a where a.post = false "
             + "and a.status = com.github.piotr_rusin.yule.domain"
             + ".ArticleStatus.PUBLISHED order by a.publicationTimestamp desc")
     List<Article> findPublishedPages();
 
+    @Query("select new com.github.piotr_rusin.yule.domain"
+            + ".PageLink(a.title, a.slug) from Article a where a.post = false "
+            + "and a.status = com.github.piotr_rusin.yule.domain"
+            + ".ArticleStatus.PUBLISHED order by a.title")
+    List<PageLink> findPublishedPageLinks();
+
+    @Query("select new com.github.piotr_rusin.yule.domain"
+            + ".ArticleTitle(a.id, a.title, a.slug) from Article a")
+    List<ArticleTitle> findAllTitles();
+
+    /*
+     * With a fetch size, PostgreSQL returns the records through a cursor, in
+     * chunks, so they can be exported with constant memory. The stream has
+     * to be read and closed within a transaction.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.github.piotr_rusin.yule.domain"
+            + ".ArticleRecord(a.id, a.title, a.slug, a.customIntroduction, "
+            + "a.content, a.post, a.status, a.publicationTimestamp) "
+            + "from Article a order by a.id")
+    Stream<ArticleRecord> streamAllRecords();
+
+    @Query("select new com.github.piotr_rusin.yule.domain"
+            + ".ModificationSummary(count(a), max(a.modificationTimestamp)) "
+            + "from Article a where a.post = false "
+            + "and a.status = com.github.piotr_rusin.yule.domain"
+            + ".ArticleStatus.PUBLISHED")
+    ModificationSummary findPublishedPagesSummary();
+
+    /*
+     * The publication date of a post is a part of its URL, so the post is
+     * looked up by both, and requests with a wrong date don't load it.
+     */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select a from Article a where a.post = true "
             + "and a.status = com.github.piotr_rusin.yule.domain"
-            + ".ArticleStatus.PUBLISHED and a.slug = :slug")
-    Article findPublishedPostBy(@Param("slug") String slug);
+            + ".ArticleStatus.PUBLISHED and a.slug = :slug "
+            + "and a.publicationTimestamp >= :from "
+            + "and a.publicationTimestamp < :to")
+    Article findPublishedPostBy(@Param("slug") String slug,
+            @Param("from") Instant from, @Param("to") Instant to);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     @Query("select a from Article a where a.post = false "
             + "and a.status = com.github.piotr_rusin.yule.domain"
             + ".ArticleStatus.PUBLISHED and a.slug = :slug")
     Article findPublishedPageBy(@Param("slug") String slug);
 
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     Article findOneBySlug(String slug);
 
     @Query("select a from Article a where "
@@ -80,6 +213,20 @@ public interface ArticleRepository extends JpaRepository<Article, Long>,
     @Query("select a from Article a where "
             + "a.status = com.github.piotr_rusin.yule.domain"
             + ".ArticleStatus.SCHEDULED_FOR_PUBLICATION "
-            + "and a.publicationTimestamp <= CURRENT_TIMESTAMP")
-    List<Article> findCurrentAutoPublicationTargets();
+            + "and a.publicationTimestamp <= CURRENT_TIMESTAMP "
+            + "and a.id > :id order by a.id")
+    List<Article> findCurrentAutoPublicationTargets(@Param("id") long id,
+            Pageable pageRequest);
+
+    List<Article> findByContentHtmlIsNullAndIdGreaterThanOrderByIdAsc(
+            Long id, Pageable pageRequest);
+
+    @Modifying
+    @Transactional
+    @Query("update Article a set a.contentHtml = :contentHtml, "
+            + "a.introductionHtml = :introductionHtml where a.id = :id "
+            + "and a.contentHtml is null")
+    int updateHtml(@Param("id") Long id,
+            @Param("contentHtml") String contentHtml,
+            @Param("introductionHtml") String introductionHtml);
 }
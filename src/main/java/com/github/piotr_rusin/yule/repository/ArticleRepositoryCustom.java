@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleListItem;
+import com.github.piotr_rusin.yule.domain.SearchCursor;
+import com.github.piotr_rusin.yule.domain.SearchHit;
+
+/**
+ * Queries of {@link ArticleRepository} that can't be derived or declared
+ * with {@link org.springframework.data.jpa.repository.Query}.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public interface ArticleRepositoryCustom {
+
+    /**
+     * Find a page of articles to be presented on the admin article list.
+     *
+     * @param specification
+     *            is a condition the articles must fulfill, or null.
+     * @param pageRequest
+     *            is a page request, possibly with a sorting order of the
+     *            articles.
+     * @return the page, with articles read without their content.
+     */
+    Page<ArticleListItem> findListItems(Specification<Article> specification,
+            Pageable pageRequest);
+
+    /**
+     * Detach an article from the current persistence context, if it is
+     * managed by it, so that its later modifications aren't flushed.
+     *
+     * @param article
+     *            is the article to be detached.
+     */
+    void detach(Article article);
+
+    /**
+     * Publish articles scheduled for auto-publication whose publication time
+     * has come, with a single statement.
+     * <p>
+     * An article is published only if its version is still equal to the
+     * given one, so articles modified since they were read are left
+     * unchanged. HTML versions of the content and the introduction of each
+     * published article are replaced by the given ones in the same statement.
+     * Published articles are evicted from the second-level cache after the
+     * transaction commits.
+     *
+     * @param articles
+     *            are the articles to be published, with their versions as
+     *            they were read and their HTML rendered again.
+     * @return identifiers of the published articles.
+     */
+    List<Long> publishScheduled(List<Article> articles);
+
+    /**
+     * Publish selected articles with a single statement.
+     * <p>
+     * An article is published only if its version is still equal to the
+     * given one, it isn't published yet and its content isn't blank. Its
+     * publication time is kept if it has passed, and otherwise it is set to
+     * the current minute. Changed articles are evicted from the second-level
+     * cache after the transaction commits, like with all of the statements
+     * changing selected articles.
+     *
+     * @param versions
+     *            are versions of the articles to be published, by their
+     *            identifiers.
+     * @return publication times of the published articles, by their
+     *         identifiers.
+     */
+    Map<Long, Instant> publishSelected(Map<Long, Integer> versions);
+
+    /**
+     * Turn selected published or scheduled articles into drafts, with a
+     * single statement.
+     *
+     * @param versions
+     *            are expected versions of the articles, by their identifiers.
+     *            Articles with other versions are left unchanged.
+     * @return identifiers of the changed articles.
+     */
+    List<Long> unpublishSelected(Map<Long, Integer> versions);
+
+    /**
+     * Schedule selected articles for auto-publication, with a single
+     * statement.
+     * <p>
+     * Articles with blank content are left unchanged.
+     *
+     * @param versions
+     *            are expected versions of the articles, by their identifiers.
+     *            Articles with other versions are left unchanged.
+     * @param publicationTimestamp
+     *            is a future time of the publication.
+     * @return identifiers of the scheduled articles.
+     */
+    List<Long> scheduleSelected(Map<Long, Integer> versions,
+            Instant publicationTimestamp);
+
+    /**
+     * Delete selected articles with a single statement.
+     *
+     * @param versions
+     *            are expected versions of the articles, by their identifiers.
+     *            Articles with other versions are left unchanged.
+     * @return identifiers of the deleted articles.
+     */
+    List<Long> deleteSelected(Map<Long, Integer> versions);
+
+    /**
+     * Search published articles with PostgreSQL full-text search.
+     * <p>
+     * The articles are matched against their title, custom introduction and
+     * content, and ranked with the title weighted the most. Snippets are
+     * created only for the returned articles, and their content isn't read
+     * by the application.
+     *
+     * @param terms
+     *            are words to be searched for.
+     * @param after
+     *            is a position after which the results start, or null for
+     *            the most relevant results.
+     * @param limit
+     *            is the maximum number of results.
+     * @return the found articles, from the most relevant, with snippets
+     *         returned by ts_headline.
+     */
+    List<SearchHit> search(String terms, SearchCursor after, int limit);
+
+    /**
+     * Insert new articles in a single transaction.
+     * <p>
+     * The inserts are sent in JDBC batches. The articles are detached after
+     * they are inserted, so that the persistence context doesn't grow with
+     * the number of articles inserted by consecutive calls.
+     *
+     * @param articles
+     *            are new articles to be inserted.
+     */
+    void insertAll(List<Article> articles);
+}
@@ -0,0 +1,378 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StringType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleListItem;
+import com.github.piotr_rusin.yule.domain.SearchCursor;
+import com.github.piotr_rusin.yule.domain.SearchHit;
+
+/**
+ * An implementation of {@link ArticleRepositoryCustom}, combined with
+ * {@link ArticleRepository} by Spring Data.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class ArticleRepositoryImpl implements ArticleRepositoryCustom {
+    /*
+     * Matching articles are ranked using only the search_vector column, so
+     * that snippets are created for a single page of results.
+     */
+    private static final String SEARCH = "SELECT a.id, a.title, a.slug, "
+            + "a.is_blog_post, a.publication_timestamp, hit.rank, "
+            + "ts_headline('english', a.content, hit.query, "
+            + "'MaxFragments=2, MinWords=10, MaxWords=30') "
+            + "FROM (SELECT id, ts_rank(search_vector, query) AS rank, query "
+            + "FROM articles, plainto_tsquery('english', :terms) AS query "
+            + "WHERE status = 'PUBLISHED' AND search_vector @@ query %s"
+            + "ORDER BY rank DESC, id DESC LIMIT :limit) AS hit "
+            + "JOIN articles a ON a.id = hit.id "
+            + "ORDER BY hit.rank DESC, hit.id DESC";
+    private static final String SEARCH_AFTER = "AND "
+            + "(ts_rank(search_vector, query), id) < (:rank, :id) ";
+
+    /*
+     * Statements changing articles selected by the author join them with a
+     * list of their versions displayed to the author, so that articles
+     * modified since then are left unchanged. Articles are published or
+     * scheduled only if their content isn't blank, as required by the
+     * status constraints.
+     */
+    private static final String SET_CHANGED = "version = a.version + 1, "
+            + "modification_timestamp = now() "
+            + "FROM (VALUES %s) AS selected (id, version) "
+            + "WHERE a.id = selected.id AND a.version = selected.version ";
+    private static final String PUBLISH_SELECTED = "UPDATE articles AS a "
+            + "SET status = 'PUBLISHED', publication_timestamp = CASE "
+            + "WHEN a.publication_timestamp IS NULL "
+            + "OR a.publication_timestamp > now() "
+            + "THEN date_trunc('minute', now()) "
+            + "ELSE a.publication_timestamp END, " + SET_CHANGED
+            + "AND a.status <> 'PUBLISHED' AND a.content ~ '\\S' "
+            + "RETURNING a.id, a.publication_timestamp";
+    private static final String UNPUBLISH_SELECTED = "UPDATE articles AS a "
+            + "SET status = 'DRAFT', " + SET_CHANGED
+            + "AND a.status <> 'DRAFT' RETURNING a.id";
+    private static final String SCHEDULE_SELECTED = "UPDATE articles AS a "
+            + "SET status = 'SCHEDULED_FOR_PUBLICATION', "
+            + "publication_timestamp = ?%s, " + SET_CHANGED
+            + "AND a.content ~ '\\S' RETURNING a.id";
+    private static final String DELETE_SELECTED = "DELETE FROM articles AS a "
+            + "USING (VALUES %s) AS selected (id, version) "
+            + "WHERE a.id = selected.id AND a.version = selected.version "
+            + "RETURNING a.id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ArticleListItem> findListItems(
+            Specification<Article> specification, Pageable pageRequest) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ArticleListItem> query = builder
+                .createQuery(ArticleListItem.class);
+        Root<Article> root = query.from(Article.class);
+        query.select(builder.construct(ArticleListItem.class, root.get("id"),
+                root.get("version"), root.get("title"), root.get("slug"),
+                root.get("post"),
+                root.get("status"), root.get("creationTimestamp"),
+                root.get("publicationTimestamp")));
+        applySpecification(specification, root, query, builder);
+        if (pageRequest.getSort() != null) {
+            query.orderBy(
+                    QueryUtils.toOrders(pageRequest.getSort(), root, builder));
+        }
+
+        List<ArticleListItem> content = entityManager.createQuery(query)
+                .setFirstResult(pageRequest.getOffset())
+                .setMaxResults(pageRequest.getPageSize()).getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageRequest,
+                () -> count(specification));
+    }
+
+    /*
+     * Detaching doesn't access the database, so no transaction is started
+     * for it.
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void detach(Article article) {
+        if (entityManager.contains(article)) {
+            entityManager.detach(article);
+        }
+    }
+
+    @Override
+    @Transactional
+    public List<Long> publishScheduled(List<Article> articles) {
+        if (articles.isEmpty()) {
+            return Collections.emptyList();
+        }
+        StringBuilder values = new StringBuilder();
+        for (int i = 1; i < articles.size() * 4; i += 4) {
+            values.append(i == 1 ? "" : ", ").append("(?").append(i)
+                    .append(", ?").append(i + 1).append(", ?").append(i + 2)
+                    .append(", ?").append(i + 3).append(")");
+        }
+        // The HTML is bound with its type, as it may be null
+        NativeQuery<?> query = entityManager.createNativeQuery(String.format(
+                "UPDATE articles AS a SET status = 'PUBLISHED', "
+                        + "version = a.version + 1, "
+                        + "modification_timestamp = now(), "
+                        + "content_html = due.content_html, "
+                        + "introduction_html = due.introduction_html "
+                        + "FROM (VALUES %s) AS due (id, version, "
+                        + "content_html, introduction_html) "
+                        + "WHERE a.id = due.id AND a.version = due.version "
+                        + "AND a.status = 'SCHEDULED_FOR_PUBLICATION' "
+                        + "AND a.publication_timestamp <= now() "
+                        + "RETURNING a.id, a.version",
+                values)).unwrap(NativeQuery.class);
+        int position = 1;
+        for (Article article : articles) {
+            query.setParameter(position++, article.getId());
+            query.setParameter(position++, article.getVersion());
+            query.setParameter(position++, article.getContentHtml(),
+                    StringType.INSTANCE);
+            query.setParameter(position++, article.getIntroductionHtml(),
+                    StringType.INSTANCE);
+        }
+
+        List<Long> published = new ArrayList<>();
+        for (Object row : query.getResultList()) {
+            published.add(((Number) ((Object[]) row)[0]).longValue());
+        }
+        evictAfterCommit(published);
+        return published;
+    }
+
+    @Override
+    @Transactional
+    public Map<Long, Instant> publishSelected(Map<Long, Integer> versions) {
+        if (versions.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, Instant> published = new LinkedHashMap<>();
+        for (Object result : createVersionedStatement(PUBLISH_SELECTED,
+                versions).getResultList()) {
+            Object[] row = (Object[]) result;
+            published.put(((Number) row[0]).longValue(),
+                    ((Timestamp) row[1]).toInstant());
+        }
+        evictAfterCommit(new ArrayList<>(published.keySet()));
+        return published;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> unpublishSelected(Map<Long, Integer> versions) {
+        return changeSelected(UNPUBLISH_SELECTED, versions, null);
+    }
+
+    @Override
+    @Transactional
+    public List<Long> scheduleSelected(Map<Long, Integer> versions,
+            Instant publicationTimestamp) {
+        return changeSelected(SCHEDULE_SELECTED, versions,
+                Timestamp.from(publicationTimestamp));
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deleteSelected(Map<Long, Integer> versions) {
+        return changeSelected(DELETE_SELECTED, versions, null);
+    }
+
+    /**
+     * Execute a statement changing selected articles and returning their
+     * identifiers.
+     *
+     * @param statement
+     *            is a statement with a placeholder for a list of versions
+     *            and, if the parameter is not null, a placeholder for its
+     *            position preceding it.
+     * @param versions
+     *            are versions of the articles to be changed, by their
+     *            identifiers.
+     * @param parameter
+     *            is a value of a parameter of the statement, or null.
+     * @return identifiers of the changed articles.
+     */
+    private List<Long> changeSelected(String statement,
+            Map<Long, Integer> versions, Object parameter) {
+        if (versions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int position = versions.size() * 2 + 1;
+        Query query = createVersionedStatement(parameter == null ? statement
+                : String.format(statement, position, "%s"), versions);
+        if (parameter != null) {
+            query.setParameter(position, parameter);
+        }
+
+        List<Long> changed = new ArrayList<>();
+        for (Object id : query.getResultList()) {
+            changed.add(((Number) id).longValue());
+        }
+        evictAfterCommit(changed);
+        return changed;
+    }
+
+    /**
+     * Create a native statement with a list of article versions, to be used
+     * as a VALUES list of (id, version) rows.
+     *
+     * @param statement
+     *            is a statement with a placeholder for the list.
+     * @param versions
+     *            are versions of articles, by their identifiers.
+     * @return the statement, with positional parameters of the list bound.
+     */
+    private Query createVersionedStatement(String statement,
+            Map<Long, Integer> versions) {
+        StringBuilder values = new StringBuilder();
+        for (int i = 1; i < versions.size() * 2; i += 2) {
+            values.append(i == 1 ? "" : ", ").append("(?").append(i)
+                    .append(", ?").append(i + 1).append(")");
+        }
+        Query query = entityManager
+                .createNativeQuery(String.format(statement, values));
+        int position = 1;
+        for (Map.Entry<Long, Integer> version : versions.entrySet()) {
+            query.setParameter(position++, version.getKey());
+            query.setParameter(position++, version.getValue());
+        }
+        return query;
+    }
+
+    @Override
+    @Transactional
+    public void insertAll(List<Article> articles) {
+        articles.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<SearchHit> search(String terms, SearchCursor after,
+            int limit) {
+        Query query = entityManager.createNativeQuery(
+                String.format(SEARCH, after == null ? "" : SEARCH_AFTER))
+                .setParameter("terms", terms).setParameter("limit", limit);
+        if (after != null) {
+            query.setParameter("rank", after.getRank()).setParameter("id",
+                    after.getId());
+        }
+
+        List<SearchHit> hits = new ArrayList<>();
+        for (Object result : query.getResultList()) {
+            Object[] row = (Object[]) result;
+            hits.add(new SearchHit(((Number) row[0]).longValue(),
+                    (String) row[1], (String) row[2], (Boolean) row[3],
+                    ((Timestamp) row[4]).toInstant(),
+                    ((Number) row[5]).floatValue(), (String) row[6]));
+        }
+        return hits;
+    }
+
+    /**
+     * Evict articles modified by a native statement from the second-level
+     * cache, together with cached query results that may include them.
+     *
+     * @param ids
+     *            are identifiers of the modified articles.
+     */
+    private void evictAfterCommit(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManager.getEntityManagerFactory()
+                .getCache();
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        for (Long id : ids) {
+                            cache.evict(Article.class, id);
+                        }
+                        cache.unwrap(org.hibernate.Cache.class)
+                                .evictDefaultQueryRegion();
+                    }
+                });
+    }
+
+    private long count(Specification<Article> specification) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Article> root = query.from(Article.class);
+        query.select(builder.count(root));
+        applySpecification(specification, root, query, builder);
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private static void applySpecification(
+            Specification<Article> specification, Root<Article> root,
+            CriteriaQuery<?> query, CriteriaBuilder builder) {
+        if (specification == null) {
+            return;
+        }
+        Predicate predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.piotr_rusin.yule.domain.ArticleRevision;
+import com.github.piotr_rusin.yule.domain.ArticleRevisionItem;
+
+@Transactional(readOnly = true)
+public interface ArticleRevisionRepository
+        extends JpaRepository<ArticleRevision, ArticleRevision.Key> {
+
+    /**
+     * Find revisions needed to reconstruct content of a revision: the last
+     * snapshot preceding it, and all revisions following the snapshot, up to
+     * the revision itself.
+     *
+     * @param articleId
+     *            is an identifier of the article.
+     * @param version
+     *            is a version of the revision.
+     * @return the revisions, in order of their versions, or an empty list if
+     *         there is no snapshot preceding the version.
+     */
+    @Query("select r from ArticleRevision r where r.articleId = :articleId "
+            + "and r.version <= :version and r.version >= ("
+            + "select max(s.version) from ArticleRevision s "
+            + "where s.articleId = :articleId and s.snapshot = true "
+            + "and s.version <= :version) order by r.version")
+    List<ArticleRevision> findChain(@Param("articleId") long articleId,
+            @Param("version") int version);
+
+    /**
+     * Find the version of the last recorded revision of an article.
+     *
+     * @param articleId
+     *            is an identifier of the article.
+     * @return the version, or null if the article has no revisions.
+     */
+    @Query("select max(r.version) from ArticleRevision r "
+            + "where r.articleId = :articleId")
+    Integer findLatestVersion(@Param("articleId") long articleId);
+
+    /**
+     * Find the version of the revision preceding the given one.
+     *
+     * @param articleId
+     *            is an identifier of the article.
+     * @param version
+     *            is a version of the revision.
+     * @return the version, or null if there is no earlier revision.
+     */
+    @Query("select max(r.version) from ArticleRevision r "
+            + "where r.articleId = :articleId and r.version < :version")
+    Integer findPreviousVersion(@Param("articleId") long articleId,
+            @Param("version") int version);
+
+    @Query("select new com.github.piotr_rusin.yule.domain.ArticleRevisionItem("
+            + "r.version, r.title, r.snapshot, r.creationTimestamp) "
+            + "from ArticleRevision r where r.articleId = :articleId "
+            + "order by r.version desc")
+    List<ArticleRevisionItem> findItems(@Param("articleId") long articleId);
+}
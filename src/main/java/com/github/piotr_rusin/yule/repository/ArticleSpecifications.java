@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.repository;
+
+import java.time.Instant;
+import java.util.Locale;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+
+/**
+ * Conditions used to filter articles queried with
+ * {@link org.springframework.data.jpa.repository.JpaSpecificationExecutor}
+ * methods and {@link ArticleRepositoryCustom#findListItems}.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class ArticleSpecifications {
+    private static final char LIKE_ESCAPE = '\\';
+
+    private ArticleSpecifications() {
+    }
+
+    public static Specification<Article> hasStatus(ArticleStatus status) {
+        return (root, query, builder) -> builder.equal(root.get("status"),
+                status);
+    }
+
+    public static Specification<Article> isPost(boolean post) {
+        return (root, query, builder) -> builder.equal(root.get("post"), post);
+    }
+
+    public static Specification<Article> publishedAtOrAfter(Instant time) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(
+                root.<Instant>get("publicationTimestamp"), time);
+    }
+
+    public static Specification<Article> publishedBefore(Instant time) {
+        return (root, query, builder) -> builder
+                .lessThan(root.<Instant>get("publicationTimestamp"), time);
+    }
+
+    /**
+     * Get a condition fulfilled by articles whose titles start with a prefix,
+     * regardless of case.
+     *
+     * @param prefix
+     *            is the prefix.
+     * @return the condition.
+     */
+    public static Specification<Article> titleStartsWith(String prefix) {
+        String pattern = escapeLikePattern(prefix.toLowerCase(Locale.ROOT))
+                + "%";
+        return (root, query, builder) -> builder.like(
+                builder.lower(root.<String>get("title")), pattern, LIKE_ESCAPE);
+    }
+
+    private static String escapeLikePattern(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (char c : value.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
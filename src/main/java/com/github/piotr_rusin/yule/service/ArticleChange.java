@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.Objects;
+
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+
+/**
+ * A change of a single article.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public final class ArticleChange {
+    private final Long articleId;
+    private final ArticleSnapshot previous;
+    private final ArticleSnapshot current;
+
+    /**
+     * Create a new instance.
+     *
+     * @param articleId
+     *            is an identifier of the changed article.
+     * @param previous
+     *            is a snapshot of the article before the change, or null if
+     *            the article was created.
+     * @param current
+     *            is a snapshot of the article after the change, or null if
+     *            the article was deleted.
+     */
+    public ArticleChange(Long articleId, ArticleSnapshot previous,
+            ArticleSnapshot current) {
+        this.articleId = articleId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public Long getArticleId() {
+        return articleId;
+    }
+
+    public ArticleSnapshot getPrevious() {
+        return previous;
+    }
+
+    public ArticleSnapshot getCurrent() {
+        return current;
+    }
+
+    /**
+     * Check if the change affects the list of blog posts.
+     * <p>
+     * The list is affected when a post is added to or removed from it, or
+     * when its position changes.
+     *
+     * @return true if the article was added, removed or moved on the list.
+     */
+    public boolean movesListedPost() {
+        boolean wasListed = previous != null && previous.isListedPost();
+        boolean isListed = current != null && current.isListedPost();
+        if (wasListed != isListed) {
+            return true;
+        }
+        return wasListed && !previous.getPublicationTimestamp()
+                .equals(current.getPublicationTimestamp());
+    }
+
+    /**
+     * Check if the change affects the navigation displayed on all pages.
+     *
+     * @return true if a link to a published blog page was added, removed or
+     *         changed.
+     */
+    public boolean changesNavigation() {
+        return !Objects.equals(navigationLink(previous),
+                navigationLink(current));
+    }
+
+    private static String navigationLink(ArticleSnapshot snapshot) {
+        if (snapshot == null || !snapshot.isNavigationPage()) {
+            return null;
+        }
+        return snapshot.getTitle() + '\n' + snapshot.getSlug();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ArticleChange[%s -> %s]", previous, current);
+    }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+
+/**
+ * An application event published after changes to articles have been saved.
+ * <p>
+ * The event is published after the changes are committed, so listeners
+ * maintaining state derived from the database can't tell whether their own
+ * reads of the database, made before the event arrived, already included the
+ * changes. To let them find out, each event carries a
+ * {@link #getWritePosition() write position} taken from a sequence shared with
+ * the readers before the changes were written.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class ArticleChangeEvent {
+    private static final AtomicLong positions = new AtomicLong();
+
+    private final List<ArticleChange> changes;
+    private final long writePosition;
+
+    /**
+     * Create a new instance.
+     *
+     * @param changes
+     *            are the saved changes.
+     * @param writePosition
+     *            is a position returned by {@link #nextPosition()} before
+     *            the changes started being written.
+     */
+    public ArticleChangeEvent(List<ArticleChange> changes,
+            long writePosition) {
+        this.changes = Collections.unmodifiableList(changes);
+        this.writePosition = writePosition;
+    }
+
+    /**
+     * Get the next position in the order of writes of articles and reads of
+     * state derived from them.
+     * <p>
+     * A writer takes a position before writing changes, and a reader after
+     * its read completes. A change whose write position is greater than the
+     * position of a read was committed after the read, so the read didn't
+     * include it. Otherwise, it may or may not be included.
+     *
+     * @return the position.
+     */
+    public static long nextPosition() {
+        return positions.incrementAndGet();
+    }
+
+    /**
+     * Create an event for a change of a single article.
+     *
+     * @param articleId
+     *            is an identifier of the article.
+     * @param previous
+     *            is a snapshot of the article before the change, or null if
+     *            the article was created.
+     * @param current
+     *            is the saved article, or null if the article was deleted.
+     * @param writePosition
+     *            is a position returned by {@link #nextPosition()} before
+     *            the change started being written.
+     * @return the event.
+     */
+    public static ArticleChangeEvent of(Long articleId,
+            ArticleSnapshot previous, Article current, long writePosition) {
+        return new ArticleChangeEvent(
+                Collections.singletonList(new ArticleChange(articleId,
+                        previous, ArticleSnapshot.of(current))),
+                writePosition);
+    }
+
+    public List<ArticleChange> getChanges() {
+        return changes;
+    }
+
+    public long getWritePosition() {
+        return writePosition;
+    }
+
+    @Override
+    public String toString() {
+        return "ArticleChangeEvent" + changes;
+    }
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.piotr_rusin.yule.domain.ArticleRecord;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+/**
+ * A service exporting all articles to a file with one JSON object per line,
+ * which can be imported with {@link ArticleImporter}.
+ * <p>
+ * The articles are read from a database cursor and written one by one, so
+ * the export uses the same amount of memory regardless of the number of
+ * articles.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Service
+public class ArticleExporter {
+    private static final Logger logger = LoggerFactory
+            .getLogger(ArticleExporter.class);
+
+    private final ArticleRepository repository;
+    private final ObjectWriter writer;
+
+    @Autowired
+    public ArticleExporter(ArticleRepository repository,
+            ObjectMapper objectMapper) {
+        this.repository = repository;
+        writer = objectMapper.writerFor(ArticleRecord.class);
+    }
+
+    /**
+     * Export all articles.
+     *
+     * @param output
+     *            is a stream to which the articles are written, in the order
+     *            of their ids. It is flushed, but not closed.
+     * @throws IOException
+     *             if writing the articles fails.
+     * @return the number of exported articles.
+     */
+    @Transactional(readOnly = true)
+    public long exportArticles(OutputStream output) throws IOException {
+        logger.info("Exporting articles.");
+        Writer out = new BufferedWriter(
+                new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<ArticleRecord> records = repository.streamAllRecords()) {
+            Iterator<ArticleRecord> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                out.write(writer.writeValueAsString(iterator.next()));
+                out.write('\n');
+                count++;
+            }
+        }
+        out.flush();
+        logger.info("Exported {} articles.", count);
+        return count;
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.domain.Specifications;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.util.StringUtils;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.repository.ArticleSpecifications;
+
+/**
+ * Criteria used to filter the admin article list.
+ * <p>
+ * Each criterion is optional - if it is null, articles are not filtered by
+ * it.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class ArticleFilter implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private ArticleStatus status;
+    private Boolean post;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate publishedTo;
+    private String titlePrefix;
+
+    public ArticleStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ArticleStatus status) {
+        this.status = status;
+    }
+
+    public Boolean getPost() {
+        return post;
+    }
+
+    public void setPost(Boolean post) {
+        this.post = post;
+    }
+
+    public LocalDate getPublishedFrom() {
+        return publishedFrom;
+    }
+
+    public void setPublishedFrom(LocalDate publishedFrom) {
+        this.publishedFrom = publishedFrom;
+    }
+
+    public LocalDate getPublishedTo() {
+        return publishedTo;
+    }
+
+    public void setPublishedTo(LocalDate publishedTo) {
+        this.publishedTo = publishedTo;
+    }
+
+    public String getTitlePrefix() {
+        return titlePrefix;
+    }
+
+    public void setTitlePrefix(String titlePrefix) {
+        this.titlePrefix = titlePrefix;
+    }
+
+    /**
+     * Get a condition fulfilled by articles matching the criteria.
+     *
+     * @param zone
+     *            is a time zone in which the publication dates are given.
+     * @return the condition, or null if no criteria are set.
+     */
+    public Specification<Article> toSpecification(ZoneId zone) {
+        Specifications<Article> specification = null;
+        if (status != null) {
+            specification = and(specification,
+                    ArticleSpecifications.hasStatus(status));
+        }
+        if (post != null) {
+            specification = and(specification,
+                    ArticleSpecifications.isPost(post));
+        }
+        if (publishedFrom != null) {
+            specification = and(specification,
+                    ArticleSpecifications.publishedAtOrAfter(
+                            publishedFrom.atStartOfDay(zone).toInstant()));
+        }
+        if (publishedTo != null) {
+            specification = and(specification,
+                    ArticleSpecifications.publishedBefore(publishedTo
+                            .plusDays(1).atStartOfDay(zone).toInstant()));
+        }
+        if (StringUtils.hasText(titlePrefix)) {
+            specification = and(specification,
+                    ArticleSpecifications.titleStartsWith(titlePrefix.trim()));
+        }
+        return specification;
+    }
+
+    private static Specifications<Article> and(
+            Specifications<Article> specification,
+            Specification<Article> condition) {
+        return specification == null ? Specifications.where(condition)
+                : specification.and(condition);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ArticleFilter [status=%s, post=%s, publishedFrom=%s, "
+                        + "publishedTo=%s, titlePrefix=%s]",
+                status, post, publishedFrom, publishedTo, titlePrefix);
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+/**
+ * A service rendering HTML versions of articles saved before the HTML was
+ * persisted along with their Markdown source.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Service
+public class ArticleHtmlInitializer {
+    private static final Logger logger = LoggerFactory
+            .getLogger(ArticleHtmlInitializer.class);
+
+    static final int BATCH_SIZE = 50;
+
+    private ArticleRepository repository;
+    private MarkdownToHtmlConverter markdownConverter;
+    private boolean initialized;
+
+    @Autowired
+    public ArticleHtmlInitializer(ArticleRepository repository,
+            MarkdownToHtmlConverter markdownConverter) {
+        this.repository = repository;
+        this.markdownConverter = markdownConverter;
+    }
+
+    /**
+     * Render and save HTML for all articles that don't have it yet.
+     * <p>
+     * The method is executed once the application context is ready, but
+     * before the application starts handling requests, so the templates can
+     * always rely on the HTML being present.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public synchronized void renderMissingHtml() {
+        if (initialized)
+            return;
+        initialized = true;
+        logger.info("Rendering missing HTML versions of articles...");
+        long lastId = 0;
+        int count = 0;
+        List<Article> batch;
+        do {
+            batch = repository
+                    .findByContentHtmlIsNullAndIdGreaterThanOrderByIdAsc(
+                            lastId, new PageRequest(0, BATCH_SIZE));
+            for (Article article : batch) {
+                markdownConverter.renderHtmlOf(article);
+                repository.updateHtml(article.getId(),
+                        article.getContentHtml(),
+                        article.getIntroductionHtml());
+                lastId = article.getId();
+            }
+            count += batch.size();
+        } while (batch.size() == BATCH_SIZE);
+        logger.info("Rendered HTML for {} articles.", count);
+    }
+}
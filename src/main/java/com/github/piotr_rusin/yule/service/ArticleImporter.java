@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.github.piotr_rusin.yule.config.RenderingConfig;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleRecord;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+import com.github.slugify.Slugify;
+
+/**
+ * A service importing articles from a file with one JSON object per line,
+ * as written by {@link ArticleExporter}.
+ * <p>
+ * The file is read as a stream, in batches of records. Articles of a batch
+ * are validated and rendered concurrently, on a pool with the number of
+ * threads configured for rendering, and then inserted in a single
+ * transaction, with JDBC batching. Invalid records and records of articles
+ * whose title or slug is already in use are rejected and reported, without
+ * stopping the import.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Service
+public class ArticleImporter {
+    private static final Logger logger = LoggerFactory
+            .getLogger(ArticleImporter.class);
+
+    /**
+     * The number of records inserted in one transaction.
+     */
+    static final int BATCH_SIZE = 500;
+
+    private final ArticleRepository repository;
+    private final AutoPublicationScheduler publicationScheduler;
+    private final MarkdownToHtmlConverter markdownConverter;
+    private final ArticleTitleIndex titleIndex;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader reader;
+    private final ForkJoinPool pool;
+    private final Slugify slugify = new Slugify();
+
+    @Autowired
+    public ArticleImporter(ArticleRepository repository,
+            AutoPublicationScheduler publicationScheduler,
+            MarkdownToHtmlConverter markdownConverter,
+            ArticleTitleIndex titleIndex, Validator validator,
+            ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+            RenderingConfig renderingConfig) {
+        this.repository = repository;
+        this.publicationScheduler = publicationScheduler;
+        this.markdownConverter = markdownConverter;
+        this.titleIndex = titleIndex;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        reader = objectMapper.readerFor(ArticleRecord.class);
+        pool = new ForkJoinPool(renderingConfig.getParallelism());
+    }
+
+    /**
+     * Import articles.
+     * <p>
+     * After each batch of articles is inserted, an
+     * {@link ArticleChangeEvent} is published for the batch. The
+     * auto-publication task is rescheduled once, after the import.
+     *
+     * @param input
+     *            is a stream of records, one JSON object per line.
+     * @throws IOException
+     *             if reading the stream fails.
+     * @return a summary of the import.
+     */
+    public ImportReport importArticles(InputStream input) throws IOException {
+        logger.info("Importing articles.");
+        ImportReport report = new ImportReport();
+        try (MappingIterator<ArticleRecord> records = reader
+                .readValues(input)) {
+            List<Item> batch = new ArrayList<>(BATCH_SIZE);
+            while (true) {
+                try {
+                    if (!records.hasNextValue()) {
+                        break;
+                    }
+                    ArticleRecord record = records.nextValue();
+                    batch.add(new Item(records.getParser()
+                            .getCurrentLocation().getLineNr(), record));
+                } catch (JsonProcessingException e) {
+                    report.stop(String.format(
+                            "The import stopped at a malformed record in line %s: %s",
+                            e.getLocation() == null ? "?"
+                                    : e.getLocation().getLineNr(),
+                            e.getOriginalMessage()));
+                    break;
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    importBatch(batch, report);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            importBatch(batch, report);
+        } finally {
+            publicationScheduler.scheduleNew();
+        }
+        logger.info("Finished importing articles: {}.", report);
+        return report;
+    }
+
+    private void importBatch(List<Item> batch, ImportReport report) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Item>> prepared = batch.stream()
+                .map(i -> CompletableFuture.supplyAsync(() -> prepare(i),
+                        pool))
+                .collect(Collectors.toList());
+
+        // Titles and slugs of already imported articles are checked with the
+        // index, which is updated with the change events.
+        Set<String> titles = new HashSet<>();
+        Set<String> slugs = new HashSet<>();
+        List<Article> articles = new ArrayList<>(batch.size());
+        for (CompletableFuture<Item> future : prepared) {
+            Item item = future.join();
+            if (item.error != null) {
+                report.reject(item.line, item.error);
+                continue;
+            }
+            Article article = item.article;
+            if (article.getSlug() == null) {
+                article.setSlug(slugify.slugify(article.getTitle()));
+            }
+            if (titleIndex.isTitleTaken(article)
+                    || titles.contains(article.getTitle())
+                    || slugs.contains(article.getSlug())) {
+                report.reject(item.line,
+                        String.format("An article named \"%s\" already exists.",
+                                article.getTitle()));
+                continue;
+            }
+            titles.add(article.getTitle());
+            slugs.add(article.getSlug());
+            articles.add(article);
+        }
+        if (articles.isEmpty()) {
+            return;
+        }
+
+        long writePosition = ArticleChangeEvent.nextPosition();
+        try {
+            repository.insertAll(articles);
+        } catch (DataIntegrityViolationException e) {
+            logger.warn("Inserting a batch of imported articles failed.", e);
+            report.rejectAll(articles.size(), String.format(
+                    "Lines %s to %s: the articles were not imported, because "
+                            + "some of their names were used concurrently.",
+                    batch.get(0).line, batch.get(batch.size() - 1).line));
+            return;
+        }
+        report.addImported(articles.size());
+        eventPublisher.publishEvent(new ArticleChangeEvent(articles.stream()
+                .map(a -> new ArticleChange(a.getId(), null,
+                        ArticleSnapshot.of(a)))
+                .collect(Collectors.toList()), writePosition));
+    }
+
+    private Item prepare(Item item) {
+        try {
+            item.article = item.record.toArticle();
+        } catch (DateTimeException | IllegalArgumentException e) {
+            item.error = "Invalid value: " + e.getMessage();
+            return item;
+        }
+
+        Set<ConstraintViolation<Article>> violations = validator
+                .validate(item.article);
+        if (!violations.isEmpty()) {
+            item.error = violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted().collect(Collectors.joining("; "));
+            return item;
+        }
+        markdownConverter.renderHtmlOf(item.article);
+        return item;
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * A record read from a line of the imported file, and the article
+     * created from it.
+     */
+    private static class Item {
+        private final long line;
+        private final ArticleRecord record;
+        private Article article;
+        private String error;
+
+        private Item(long line, ArticleRecord record) {
+            this.line = line;
+            this.record = record;
+        }
+    }
+}
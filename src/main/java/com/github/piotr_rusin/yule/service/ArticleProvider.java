@@ -23,21 +23,34 @@
  *******************************************************************************/
 package com.github.piotr_rusin.yule.service;
 
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import com.github.piotr_rusin.yule.config.YuleConfig;
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleListItem;
+import com.github.piotr_rusin.yule.domain.PostCursor;
 import com.github.piotr_rusin.yule.exception.PageNotFoundException;
 import com.github.piotr_rusin.yule.exception.ResourceNotFoundException;
 import com.github.piotr_rusin.yule.repository.ArticleRepository;
@@ -55,11 +68,24 @@ public class ArticleProvider {
 
     private ArticleRepository repository;
     private YuleConfig config;
+    private PublishedPostCounter publishedPostCounter;
+    private PostArchive postArchive;
+
+    /**
+     * Positions of the last posts preceding numbered pages of published
+     * posts, used to seek to the pages instead of skipping an offset.
+     */
+    private final Map<Integer, PostCursor> pageAnchors = new ConcurrentHashMap<>();
+    private final AtomicLong anchorGeneration = new AtomicLong();
 
     @Autowired
-    public ArticleProvider(ArticleRepository repository, YuleConfig config) {
+    public ArticleProvider(ArticleRepository repository, YuleConfig config,
+            PublishedPostCounter publishedPostCounter,
+            PostArchive postArchive) {
         this.repository = repository;
         this.config = config;
+        this.publishedPostCounter = publishedPostCounter;
+        this.postArchive = postArchive;
     }
 
     /**
@@ -75,12 +101,11 @@ public class ArticleProvider {
      *             if the page is empty and not first.
      * @return the requested page
      */
-    private Page<Article> getArticlePage(
-            Function<Pageable, Page<Article>> query, String queryFor,
-            Pageable pageRequest) {
+    private <T> Page<T> getArticlePage(Function<Pageable, Page<T>> query,
+            String queryFor, Pageable pageRequest) {
         logger.info("Requesting a page of {}, with page request: {}", queryFor,
                 pageRequest);
-        Page<Article> articles = query.apply(pageRequest);
+        Page<T> articles = query.apply(pageRequest);
 
         if (articles.hasContent() || articles.isFirst()) {
             logger.info("The page was successfully found.");
@@ -102,24 +127,233 @@ public class ArticleProvider {
      * @return the requested page.
      */
     public Page<Article> getBlogPostPage(int page) {
+        return getBlogPostPage(page, null, null);
+    }
+
+    /**
+     * Get a page of published blog posts.
+     * <p>
+     * The posts are found by seeking to a position on the list of published
+     * posts rather than by skipping an offset. The position is given by one of
+     * the cursors or, if neither is provided, by the last post of the preceding
+     * page, remembered since the preceding page was requested or found by a
+     * query reading only the positions of the preceding posts.
+     *
+     * @param page
+     *            the number of the requested page, starting from 0.
+     * @param after
+     *            is a position of the last post of the preceding page, or
+     *            null.
+     * @param before
+     *            is a position of the first post of the following page, or
+     *            null. It is ignored if the other cursor is provided.
+     * @throws PageNotFoundException
+     *             if the page is empty and not first.
+     * @return the requested page.
+     */
+    public Page<Article> getBlogPostPage(int page, PostCursor after,
+            PostCursor before) {
         PageRequest pageRequest = new PageRequest(page,
                 config.getIndexPageSize());
 
-        return getArticlePage(repository::findPublishedPosts,
+        return getArticlePage(
+                request -> findPublishedPosts(request, after, before),
                 "published blog posts", pageRequest);
     }
 
+    private Page<Article> findPublishedPosts(Pageable pageRequest,
+            PostCursor after, PostCursor before) {
+        long generation = anchorGeneration.get();
+        PageRequest limit = new PageRequest(0, pageRequest.getPageSize());
+        List<Article> posts;
+        if (after != null) {
+            posts = repository.findPublishedPostsBefore(
+                    after.getPublicationTimestamp(), after.getId(), limit);
+        } else if (before != null) {
+            posts = new ArrayList<>(repository.findPublishedPostsAfter(
+                    before.getPublicationTimestamp(), before.getId(), limit));
+            Collections.reverse(posts);
+        } else if (pageRequest.getPageNumber() == 0) {
+            posts = repository.findLatestPublishedPosts(limit);
+        } else {
+            PostCursor anchor = getPageAnchor(pageRequest, generation);
+            posts = anchor == null ? Collections.emptyList()
+                    : repository.findPublishedPostsBefore(
+                            anchor.getPublicationTimestamp(), anchor.getId(),
+                            limit);
+        }
+
+        // Pages found with cursors are not necessarily aligned with page
+        // numbers, since the cursors may come from an older list of posts.
+        if (!posts.isEmpty() && after == null && before == null) {
+            putPageAnchor(pageRequest.getPageNumber() + 1,
+                    PostCursor.of(posts.get(posts.size() - 1)), generation);
+        }
+        return new PageImpl<>(withUnrenderedContent(posts), pageRequest,
+                publishedPostCounter.get());
+    }
+
     /**
-     * Get a page of all existing articles.
+     * Get a page of blog posts published in a range of months.
+     * <p>
+     * The posts are found by seeking to a position within the range, given
+     * by one of the cursors, or by skipping an offset within the range if
+     * neither cursor is provided.
      *
+     * @param first
+     *            is the first UTC-based month of the range.
+     * @param last
+     *            is the last UTC-based month of the range.
+     * @param page
+     *            the number of the requested page, starting from 0.
+     * @param after
+     *            is a position of the last post of the preceding page, or
+     *            null.
+     * @param before
+     *            is a position of the first post of the following page, or
+     *            null. It is ignored if the other cursor is provided.
+     * @throws ResourceNotFoundException
+     *             if no posts were published in the range.
+     * @throws PageNotFoundException
+     *             if the page is empty and not first.
+     * @return the requested page.
+     */
+    public Page<Article> getArchivePage(YearMonth first, YearMonth last,
+            int page, PostCursor after, PostCursor before) {
+        Instant from = first.atDay(1).atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+        Instant to = last.plusMonths(1).atDay(1).atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+        PageRequest pageRequest = new PageRequest(page,
+                config.getIndexPageSize());
+
+        Page<Article> posts = getArticlePage(
+                request -> findPublishedPosts(request, from, to, after,
+                        before, postArchive.countPosts(first, last)),
+                String.format("blog posts published from %s to %s", first,
+                        last),
+                pageRequest);
+        if (!posts.hasContent()) {
+            throw new ResourceNotFoundException(String.format(
+                    "No blog posts were published from %s to %s.", first,
+                    last));
+        }
+        return posts;
+    }
+
+    private Page<Article> findPublishedPosts(Pageable pageRequest,
+            Instant from, Instant to, PostCursor after, PostCursor before,
+            long total) {
+        PageRequest limit = new PageRequest(0, pageRequest.getPageSize());
+        List<Article> posts;
+        if (after != null) {
+            posts = repository.findPublishedPostsBetweenBefore(from,
+                    after.getPublicationTimestamp(), after.getId(), limit);
+        } else if (before != null) {
+            posts = new ArrayList<>(repository.findPublishedPostsBetweenAfter(
+                    to, before.getPublicationTimestamp(), before.getId(),
+                    limit));
+            Collections.reverse(posts);
+        } else {
+            posts = repository.findPublishedPostsBetween(from, to,
+                    pageRequest);
+        }
+        return new PageImpl<>(withUnrenderedContent(posts), pageRequest,
+                total);
+    }
+
+    /**
+     * Replace views of posts that weren't rendered yet with the posts, so
+     * that they can be rendered.
+     *
+     * @param posts
+     *            are views of posts to be listed on an index page.
+     * @return the views and the posts, in the original order.
+     */
+    private List<Article> withUnrenderedContent(List<Article> posts) {
+        List<Long> unrendered = posts.stream()
+                .filter(p -> p.getContentHtml() == null && !p.isContentOmitted())
+                .map(Article::getId).collect(Collectors.toList());
+        if (unrendered.isEmpty()) {
+            return posts;
+        }
+
+        Map<Long, Article> loaded = repository.findAll(unrendered).stream()
+                .collect(Collectors.toMap(Article::getId, p -> p));
+        return posts.stream().map(p -> loaded.getOrDefault(p.getId(), p))
+                .collect(Collectors.toList());
+    }
+
+    private PostCursor getPageAnchor(Pageable pageRequest, long generation) {
+        PostCursor anchor = pageAnchors.get(pageRequest.getPageNumber());
+        if (anchor != null) {
+            return anchor;
+        }
+
+        long offset = (long) pageRequest.getPageNumber()
+                * pageRequest.getPageSize() - 1;
+        if (offset > Integer.MAX_VALUE) {
+            return null;
+        }
+        logger.info("Looking for the position of page {} of published posts.",
+                pageRequest.getPageNumber());
+        List<PostCursor> cursors = repository
+                .findPublishedPostCursors(new PageRequest((int) offset, 1));
+        if (cursors.isEmpty()) {
+            return null;
+        }
+        anchor = cursors.get(0);
+        putPageAnchor(pageRequest.getPageNumber(), anchor, generation);
+        return anchor;
+    }
+
+    /**
+     * Remember a position of a page, unless the list of published posts
+     * changed since it was read.
+     */
+    private void putPageAnchor(int page, PostCursor anchor, long generation) {
+        if (anchorGeneration.get() != generation) {
+            return;
+        }
+        pageAnchors.put(page, anchor);
+        if (anchorGeneration.get() != generation) {
+            pageAnchors.remove(page, anchor);
+        }
+    }
+
+    /**
+     * Forget positions of pages after the list of published posts changed.
+     *
+     * @param event
+     *            is an event describing changes of articles.
+     */
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.getChanges().stream()
+                .anyMatch(ArticleChange::movesListedPost)) {
+            anchorGeneration.incrementAndGet();
+            pageAnchors.clear();
+        }
+    }
+
+    /**
+     * Get a page of existing articles to be presented on the admin article
+     * list.
+     *
+     * @param filter
+     *            is a condition the articles must fulfill, or null if all
+     *            articles are to be listed.
      * @param pageRequest
      *            is a page request to be passed to the query.
      * @throws PageNotFoundException
      *             if the page is empty and not first.
      * @return the requested page.
      */
-    public Page<Article> getAdminArticleListPage(Pageable pageRequest) {
-        return getArticlePage(repository::findAll, "articles", pageRequest);
+    public Page<ArticleListItem> getAdminArticleListPage(
+            Specification<Article> filter, Pageable pageRequest) {
+        return getArticlePage(
+                request -> repository.findListItems(filter, request),
+                "articles", pageRequest);
     }
 
     private Article getArticleBy(String slug, Function<String, Article> query) {
@@ -171,15 +405,15 @@ public class ArticleProvider {
             LocalDate publicationDate) {
         logger.info("Requesting a blog post \"{}\", published on {}.", slug,
                 publicationDate);
-        Article article = getArticleBy(slug, repository::findPublishedPostBy);
-
-        LocalDate actualPublicationDate = LocalDateTime
-                .ofInstant(article.getPublicationTimestamp(), ZoneOffset.UTC)
-                .toLocalDate();
-        if (!publicationDate.equals(actualPublicationDate)) {
+        Instant from = publicationDate.atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+        Instant to = publicationDate.plusDays(1).atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+        Article article = repository.findPublishedPostBy(slug, from, to);
+        if (article == null) {
             throw new ResourceNotFoundException(String.format(
-                    "Incorrect publication date for blog post %s - the requested date was %s.",
-                    article, publicationDate));
+                    "The requested blog post \"%s\" published on %s was not found.",
+                    slug, publicationDate));
         }
 
         logger.info("The request was handled succesfully, returning {}.",
@@ -200,4 +434,14 @@ public class ArticleProvider {
         return getArticleBy(slug, repository::findPublishedPageBy);
     }
 
+    /**
+     * Get all published blog pages.
+     *
+     * @return the pages, from the most recently published.
+     */
+    public List<Article> getPublishedPages() {
+        logger.info("Requesting all published blog pages.");
+        return repository.findPublishedPages();
+    }
+
 }
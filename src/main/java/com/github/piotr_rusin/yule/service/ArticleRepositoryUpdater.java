@@ -23,12 +23,21 @@
  *******************************************************************************/
 package com.github.piotr_rusin.yule.service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
 import com.github.piotr_rusin.yule.exception.ResourceNotFoundException;
 import com.github.piotr_rusin.yule.repository.ArticleRepository;
 
@@ -45,20 +54,35 @@ public class ArticleRepositoryUpdater {
     private ArticleRepository articleRepository;
     private AutoPublicationScheduler publicationScheduler;
     private ArticleProvider articleProvider;
+    private MarkdownToHtmlConverter markdownConverter;
+    private ApplicationEventPublisher eventPublisher;
+    private RevisionHistory revisionHistory;
 
     public ArticleRepositoryUpdater(ArticleRepository articleRepository,
-            AutoPublicationScheduler publicationScheduler, ArticleProvider articleProvider) {
+            AutoPublicationScheduler publicationScheduler, ArticleProvider articleProvider,
+            MarkdownToHtmlConverter markdownConverter,
+            ApplicationEventPublisher eventPublisher,
+            RevisionHistory revisionHistory) {
         this.articleRepository = articleRepository;
         this.publicationScheduler = publicationScheduler;
         this.articleProvider = articleProvider;
+        this.markdownConverter = markdownConverter;
+        this.eventPublisher = eventPublisher;
+        this.revisionHistory = revisionHistory;
     }
 
     /**
      * Save a new article or update an existing one.
      * <p>
+     * Before saving, HTML versions of the content and the introduction are
+     * rendered, so that they don't have to be rendered on each request for the
+     * article.
+     * <p>
      * After the article is successfully saved, auto-publication task is
      * rescheduled in case this article is scheduled for auto-publication and
-     * the next auto-publication time needs to be updated.
+     * the next auto-publication time needs to be updated, an
+     * {@link ArticleChangeEvent} is published, and the saved version is
+     * recorded in the {@link RevisionHistory revision history}.
      *
      * @param article
      *            is an article to be saved or updated.
@@ -67,6 +91,10 @@ public class ArticleRepositoryUpdater {
      */
     public Article save(Article article) {
         logger.info("Attempting to save an article: {}.", article);
+        markdownConverter.renderHtmlOf(article);
+        ArticleSnapshot previous = article.isNew() ? null
+                : ArticleSnapshot.of(articleRepository.findOne(article.getId()));
+        long writePosition = ArticleChangeEvent.nextPosition();
         Article saved = null;
         try {
             saved = articleRepository.save(article);
@@ -80,9 +108,13 @@ public class ArticleRepositoryUpdater {
             Article mostRecentlySaved = articleRepository
                     .findOne(article.getId());
             mostRecentlySaved.setAdminAlterableData(article);
+            markdownConverter.renderHtmlOf(mostRecentlySaved);
             saved = articleRepository.save(mostRecentlySaved);
         }
         publicationScheduler.scheduleNew();
+        eventPublisher.publishEvent(ArticleChangeEvent.of(saved.getId(),
+                previous, saved, writePosition));
+        revisionHistory.record(saved);
         return saved;
     }
 
@@ -91,7 +123,7 @@ public class ArticleRepositoryUpdater {
      * <p>
      * After the article is successfully deleted, auto-publication task is
      * rescheduled, in case the article was the only one scheduled for next
-     * auto-publication.
+     * auto-publication, and an {@link ArticleChangeEvent} is published.
      * 
      * @param id
      *            is an identifier of the article to be deleted.
@@ -102,10 +134,96 @@ public class ArticleRepositoryUpdater {
     public Article delete(long id) {
         logger.info("Deleting an article with id = {}...", id);
         Article article = articleProvider.getArticleById(id);
+        ArticleSnapshot previous = ArticleSnapshot.of(article);
+        long writePosition = ArticleChangeEvent.nextPosition();
         articleRepository.delete(id);
         logger.info("The article {} has been successfully deleted.", article);
         publicationScheduler.scheduleNew();
+        eventPublisher.publishEvent(
+                ArticleChangeEvent.of(id, previous, null, writePosition));
         return article;
     }
 
+    /**
+     * Apply an action to articles selected by the author.
+     * <p>
+     * The articles are changed with a single statement, and only if their
+     * versions are still equal to the ones displayed to the author. After
+     * that, auto-publication task is rescheduled once, and a single
+     * {@link ArticleChangeEvent} is published for all changed articles.
+     *
+     * @param action
+     *            is the action to be applied.
+     * @param versions
+     *            are versions of the selected articles, by their identifiers.
+     * @param publicationTimestamp
+     *            is a future publication time of articles to be scheduled, or
+     *            null for other actions.
+     * @return identifiers of the changed articles. Articles modified
+     *         concurrently, or that can't be changed by the action, are left
+     *         unchanged.
+     */
+    public List<Long> apply(BulkAction action, Map<Long, Integer> versions,
+            Instant publicationTimestamp) {
+        logger.info("Applying {} action to articles {}.", action,
+                versions.keySet());
+        // The articles are read for change events. Those with other versions
+        // won't be changed anyway.
+        Map<Long, Article> previous = articleRepository
+                .findAll(versions.keySet()).stream()
+                .filter(a -> versions.get(a.getId()).equals(a.getVersion()))
+                .collect(Collectors.toMap(Article::getId, a -> a));
+        Map<Long, Integer> current = versions.entrySet().stream()
+                .filter(e -> previous.containsKey(e.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        Map.Entry::getValue));
+
+        long writePosition = ArticleChangeEvent.nextPosition();
+        List<ArticleChange> changes = new ArrayList<>();
+        switch (action) {
+        case PUBLISH:
+            articleRepository.publishSelected(current)
+                    .forEach((id, timestamp) -> changes.add(getChange(
+                            previous.get(id), ArticleStatus.PUBLISHED,
+                            timestamp)));
+            break;
+        case UNPUBLISH:
+            articleRepository.unpublishSelected(current)
+                    .forEach(id -> changes.add(getChange(previous.get(id),
+                            ArticleStatus.DRAFT,
+                            previous.get(id).getPublicationTimestamp())));
+            break;
+        case SCHEDULE:
+            articleRepository.scheduleSelected(current, publicationTimestamp)
+                    .forEach(id -> changes.add(getChange(previous.get(id),
+                            ArticleStatus.SCHEDULED_FOR_PUBLICATION,
+                            publicationTimestamp)));
+            break;
+        case DELETE:
+            articleRepository.deleteSelected(current)
+                    .forEach(id -> changes.add(new ArticleChange(id,
+                            ArticleSnapshot.of(previous.get(id)), null)));
+            break;
+        }
+        logger.info("{} of {} articles have been {}.", changes.size(),
+                versions.size(), action.getDescription());
+
+        publicationScheduler.scheduleNew();
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(
+                    new ArticleChangeEvent(changes, writePosition));
+        }
+        return changes.stream().map(ArticleChange::getArticleId)
+                .collect(Collectors.toList());
+    }
+
+    private static ArticleChange getChange(Article previous,
+            ArticleStatus status, Instant publicationTimestamp) {
+        Article current = new Article(previous);
+        current.setPublicationTimestamp(publicationTimestamp);
+        current.setStatus(status);
+        return new ArticleChange(previous.getId(),
+                ArticleSnapshot.of(previous), ArticleSnapshot.of(current));
+    }
+
 }
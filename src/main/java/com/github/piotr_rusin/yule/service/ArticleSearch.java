@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.domain.SearchCursor;
+import com.github.piotr_rusin.yule.domain.SearchHit;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+/**
+ * A service searching published articles.
+ * <p>
+ * Results are paginated with {@link SearchCursor}s, so each page is found
+ * with a single index scan regardless of its position, and the total number
+ * of results is never counted.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Service
+public class ArticleSearch {
+    private static final Logger logger = LoggerFactory
+            .getLogger(ArticleSearch.class);
+
+    /**
+     * The maximum length of searched text. Longer text is truncated.
+     */
+    static final int MAX_TERMS_LENGTH = 200;
+
+    private final ArticleRepository repository;
+    private final YuleConfig config;
+
+    @Autowired
+    public ArticleSearch(ArticleRepository repository, YuleConfig config) {
+        this.repository = repository;
+        this.config = config;
+    }
+
+    /**
+     * Search published articles.
+     *
+     * @param terms
+     *            are words to be searched for.
+     * @param after
+     *            is a position after which the results start, or null for
+     *            the first page of results.
+     * @return a page of results, with as many results as a page of the blog
+     *         post list.
+     */
+    public Slice<SearchHit> search(String terms, SearchCursor after) {
+        Pageable pageRequest = new PageRequest(0, config.getIndexPageSize());
+        if (terms == null || terms.trim().isEmpty()) {
+            return new SliceImpl<>(Collections.emptyList(), pageRequest,
+                    false);
+        }
+        terms = terms.trim();
+        if (terms.length() > MAX_TERMS_LENGTH) {
+            terms = terms.substring(0, MAX_TERMS_LENGTH);
+        }
+
+        logger.info("Searching for \"{}\" after {}.", terms, after);
+        List<SearchHit> hits = repository.search(terms, after,
+                pageRequest.getPageSize() + 1);
+        boolean hasNext = hits.size() > pageRequest.getPageSize();
+        List<SearchHit> content = new ArrayList<>();
+        for (SearchHit hit : hits.subList(0,
+                Math.min(hits.size(), pageRequest.getPageSize()))) {
+            content.add(new SearchHit(hit.getId(), hit.getTitle(),
+                    hit.getSlug(), hit.isPost(), hit.getPublicationTimestamp(),
+                    hit.getRank(), toSnippetHtml(hit.getSnippet())));
+        }
+        return new SliceImpl<>(content, pageRequest, hasNext);
+    }
+
+    /**
+     * Convert a headline created by PostgreSQL to HTML.
+     * <p>
+     * The headline is a fragment of Markdown source, so it is escaped, and
+     * only the tags marking matching words are restored.
+     *
+     * @param headline
+     *            is a headline returned by ts_headline.
+     * @return the HTML of the headline.
+     */
+    static String toSnippetHtml(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline).replace("&lt;b&gt;", "<mark>")
+                .replace("&lt;/b&gt;", "</mark>");
+    }
+}
@@ -0,0 +1,228 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.domain.ArticleTitle;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+import com.github.slugify.Slugify;
+
+/**
+ * An in-memory index of titles and slugs of all articles, used for
+ * suggesting titles and detecting duplicate ones before an article is
+ * saved.
+ * <p>
+ * The titles are read once and kept as an immutable snapshot, with titles
+ * sorted case-insensitively. The snapshot is replaced with an updated copy
+ * after a change of articles affects their titles or slugs. Articles
+ * modified outside of the application may be missing from the index, so
+ * saving an article must still handle violations of the unique
+ * constraints.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Service
+public class ArticleTitleIndex {
+    private static final Logger logger = LoggerFactory
+            .getLogger(ArticleTitleIndex.class);
+
+    private static final Comparator<ArticleTitle> ORDER = Comparator
+            .comparing((ArticleTitle t) -> normalize(t.getTitle()))
+            .thenComparing(ArticleTitle::getId);
+
+    private final ArticleRepository repository;
+    private final Slugify slugify = new Slugify();
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public ArticleTitleIndex(ArticleRepository repository) {
+        this.repository = repository;
+    }
+
+    private static String normalize(String title) {
+        return title.toLowerCase(Locale.ROOT);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (lock) {
+            if (snapshot == null) {
+                logger.info("Reading titles of all articles.");
+                List<ArticleTitle> titles;
+                try (PrimaryReads reads = PrimaryReads.begin()) {
+                    titles = new ArrayList<>(repository.findAllTitles());
+                }
+                titles.sort(ORDER);
+                snapshot = new Snapshot(titles);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Find articles with titles starting with a prefix, ignoring case.
+     *
+     * @param prefix
+     *            is a prefix of the titles.
+     * @param limit
+     *            is the maximum number of articles to be found.
+     * @return titles of the articles, in alphabetical order.
+     */
+    public List<ArticleTitle> findByTitlePrefix(String prefix, int limit) {
+        Snapshot current = getSnapshot();
+        String key = normalize(prefix);
+        int i = Arrays.binarySearch(current.keys, key);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        List<ArticleTitle> found = new ArrayList<>();
+        while (i < current.keys.length && found.size() < limit
+                && current.keys[i].startsWith(key)) {
+            found.add(current.entries.get(i++));
+        }
+        return found;
+    }
+
+    /**
+     * Check if the title of an article, or the slug derived from it, is
+     * already used by another article.
+     *
+     * @param article
+     *            is an article to be saved.
+     * @return true if saving the article would violate the uniqueness of
+     *         titles or slugs.
+     */
+    public boolean isTitleTaken(Article article) {
+        Snapshot current = getSnapshot();
+        String slug = article.getSlug() != null ? article.getSlug()
+                : slugify.slugify(article.getTitle());
+        return isTakenByAnother(current.idsByTitle.get(article.getTitle()),
+                article)
+                || isTakenByAnother(current.idsBySlug.get(slug), article);
+    }
+
+    private static boolean isTakenByAnother(Long id, Article article) {
+        return id != null && !id.equals(article.getId());
+    }
+
+    /**
+     * Update the index after a change affecting titles or slugs of
+     * articles.
+     *
+     * @param event
+     *            is an event describing changes of articles.
+     */
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        synchronized (lock) {
+            // Changes before the index is read are included in the titles
+            // read from the database.
+            if (snapshot == null) {
+                return;
+            }
+            Map<Long, ArticleTitle> byId = null;
+            List<ArticleTitle> entries = null;
+            for (ArticleChange change : event.getChanges()) {
+                if (!changesTitle(change)) {
+                    continue;
+                }
+                if (byId == null) {
+                    byId = new HashMap<>(snapshot.byId);
+                    entries = new ArrayList<>(snapshot.entries);
+                }
+                ArticleTitle previous = byId.remove(change.getArticleId());
+                if (previous != null) {
+                    int i = Collections.binarySearch(entries, previous, ORDER);
+                    entries.remove(i);
+                }
+                ArticleSnapshot current = change.getCurrent();
+                if (current != null) {
+                    ArticleTitle added = new ArticleTitle(
+                            change.getArticleId(), current.getTitle(),
+                            current.getSlug());
+                    byId.put(added.getId(), added);
+                    int i = Collections.binarySearch(entries, added, ORDER);
+                    entries.add(-i - 1, added);
+                }
+            }
+            if (entries != null) {
+                snapshot = new Snapshot(entries);
+            }
+        }
+    }
+
+    private static boolean changesTitle(ArticleChange change) {
+        ArticleSnapshot previous = change.getPrevious();
+        ArticleSnapshot current = change.getCurrent();
+        return previous == null || current == null
+                || !Objects.equals(previous.getTitle(), current.getTitle())
+                || !Objects.equals(previous.getSlug(), current.getSlug());
+    }
+
+    /**
+     * Titles of all articles, sorted with {@link ArticleTitleIndex#ORDER}.
+     */
+    private static final class Snapshot {
+        private final List<ArticleTitle> entries;
+        private final String[] keys;
+        private final Map<Long, ArticleTitle> byId = new HashMap<>();
+        private final Map<String, Long> idsByTitle = new HashMap<>();
+        private final Map<String, Long> idsBySlug = new HashMap<>();
+
+        Snapshot(List<ArticleTitle> entries) {
+            this.entries = Collections.unmodifiableList(entries);
+            keys = new String[entries.size()];
+            for (int i = 0; i < keys.length; i++) {
+                ArticleTitle title = entries.get(i);
+                keys[i] = normalize(title.getTitle());
+                byId.put(title.getId(), title);
+                idsByTitle.put(title.getTitle(), title.getId());
+                idsBySlug.put(title.getSlug(), title.getId());
+            }
+        }
+    }
+}
@@ -27,13 +27,21 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.ILoggerFactory;
 import org.slf4j.Logger;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
 import com.github.piotr_rusin.yule.domain.ArticleStatus;
 import com.github.piotr_rusin.yule.repository.ArticleRepository;
 
@@ -45,7 +53,11 @@ import com.github.piotr_rusin.yule.repository.ArticleRepository;
  *
  */
 public class AutoPublicationTask implements Runnable {
+    static final int CHUNK_SIZE = 500;
+
     private ArticleRepository repository;
+    private MarkdownToHtmlConverter markdownConverter;
+    private ApplicationEventPublisher eventPublisher;
     private Clock clock;
     private final Logger logger;
 
@@ -54,67 +66,118 @@ public class AutoPublicationTask implements Runnable {
      *
      * @param repository
      *            is an object to be used to query for articles to publish
+     * @param markdownConverter
+     *            is an object used to render HTML versions of the articles
+     * @param eventPublisher
+     *            is an object used to publish changes of the articles
      * @param clock
      *            is a clock object to be used for detecting delayed executions
      *            of the task
      * @param loggerFactory
      */
-    public AutoPublicationTask(ArticleRepository repository, Clock clock,
+    public AutoPublicationTask(ArticleRepository repository,
+            MarkdownToHtmlConverter markdownConverter,
+            ApplicationEventPublisher eventPublisher, Clock clock,
             ILoggerFactory loggerFactory) {
         this.repository = repository;
+        this.markdownConverter = markdownConverter;
+        this.eventPublisher = eventPublisher;
         this.clock = clock;
         logger = loggerFactory.getLogger(AutoPublicationTask.class.getName());
     }
 
     /**
-     * Publish all due articles, each in a separate transaction.
+     * Publish all due articles, in chunks of {@value #CHUNK_SIZE} articles.
+     * <p>
+     * The articles are read from the primary database, as they are about to
+     * be modified.
      */
     @Override
     public void run() {
         logger.info("Executing scheduled automatic publication task");
-        List<Article> toBePublished = repository
-                .findCurrentAutoPublicationTargets();
-        if (toBePublished.isEmpty())
-            logger.warn("No articles to publish");
-        for (Article a : toBePublished) {
-            publish(a);
+        int count = 0;
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            long lastId = 0;
+            List<Article> chunk;
+            do {
+                chunk = repository.findCurrentAutoPublicationTargets(lastId,
+                        new PageRequest(0, CHUNK_SIZE));
+                if (!chunk.isEmpty()) {
+                    publish(chunk);
+                    lastId = chunk.get(chunk.size() - 1).getId();
+                }
+                count += chunk.size();
+            } while (chunk.size() == CHUNK_SIZE);
         }
+        if (count == 0)
+            logger.warn("No articles to publish");
     }
 
     /**
-     * Publish an article.
+     * Publish a chunk of articles.
+     * <p>
+     * HTML versions of the content and the introduction of each article are
+     * rendered again, so the article is displayed with the current Markdown
+     * rendering options. The articles are then published together with their
+     * HTML with a single statement, changing only those not modified since
+     * they were read, and a single {@link ArticleChangeEvent} is published
+     * for the chunk.
      * <p>
-     * If the article is being concurrently edited, the method fails and logs a
-     * warning.
+     * Articles edited concurrently are left unpublished, and a message is
+     * logged for each of them.
      * <p>
      * In any case, the method calculates the difference between scheduled
      * auto-publication time and the actual time of the attempt. If this time is
      * longer than a minute, it may indicate some problems preventing executing
      * the task on time (possibly server failures).
      *
-     * @param article
-     *            is an article to be published
+     * @param articles
+     *            are articles to be published
      */
-    private void publish(Article article) {
-        article.setStatus(ArticleStatus.PUBLISHED);
+    private void publish(List<Article> articles) {
+        // The HTML is stored only with articles not modified since they were
+        // read, so it is rendered from the content of copies of read articles
+        Map<Long, Article> rendered = new LinkedHashMap<>();
+        for (Article article : articles) {
+            Article copy = new Article(article);
+            markdownConverter.renderHtmlOf(copy);
+            rendered.put(copy.getId(), copy);
+        }
+        long writePosition = ArticleChangeEvent.nextPosition();
+        Set<Long> published = new HashSet<>(repository
+                .publishScheduled(new ArrayList<>(rendered.values())));
+        Instant attemptTime = Instant.now(clock);
 
-        try {
-            repository.save(article);
-            logger.info("Completed autopublication for " + article);
-        } catch (ObjectOptimisticLockingFailureException e) {
-            logger.info(String.format(
-                    "Postponing auto-publication of %s due to a concurrent update",
-                    article));
-        } finally {
-            Duration delay = Duration
-                    .ofSeconds(article.getPublicationTimestamp()
-                            .until(Instant.now(clock), ChronoUnit.SECONDS));
-            if (delay.toMinutes() >= 1) {
-                logger.warn(String.format(
-                        "The auto-publication attempt for %s was delayed - it was executed "
-                                + "%s after the scheduled publication time.",
-                        article, delay));
+        List<ArticleChange> changes = new ArrayList<>();
+        for (Article article : articles) {
+            if (published.contains(article.getId())) {
+                Article current = rendered.get(article.getId());
+                current.setStatus(ArticleStatus.PUBLISHED);
+                logger.info("Completed autopublication for " + current);
+                changes.add(new ArticleChange(article.getId(),
+                        ArticleSnapshot.of(article),
+                        ArticleSnapshot.of(current)));
+            } else {
+                logger.info(String.format(
+                        "Postponing auto-publication of %s due to a concurrent update",
+                        article));
             }
+            logDelay(article, attemptTime);
+        }
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(
+                    new ArticleChangeEvent(changes, writePosition));
+        }
+    }
+
+    private void logDelay(Article article, Instant attemptTime) {
+        Duration delay = Duration.ofSeconds(article.getPublicationTimestamp()
+                .until(attemptTime, ChronoUnit.SECONDS));
+        if (delay.toMinutes() >= 1) {
+            logger.warn(String.format(
+                    "The auto-publication attempt for %s was delayed - it was executed "
+                            + "%s after the scheduled publication time.",
+                    article, delay));
         }
     }
 }
@@ -27,6 +27,7 @@ import java.time.Clock;
 
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.github.piotr_rusin.yule.repository.ArticleRepository;
@@ -40,6 +41,8 @@ import com.github.piotr_rusin.yule.repository.ArticleRepository;
 @Service
 public class AutoPublicationTaskFactory {
     private ArticleRepository repository;
+    private MarkdownToHtmlConverter markdownConverter;
+    private ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new instance
@@ -47,14 +50,25 @@ public class AutoPublicationTaskFactory {
      * @param repository
      *            is an article repository to be passed to each auto-publication
      *            task.
+     * @param markdownConverter
+     *            is a Markdown converter to be passed to each auto-publication
+     *            task.
+     * @param eventPublisher
+     *            is an event publisher to be passed to each auto-publication
+     *            task.
      */
     @Autowired
-    public AutoPublicationTaskFactory(ArticleRepository repository) {
+    public AutoPublicationTaskFactory(ArticleRepository repository,
+            MarkdownToHtmlConverter markdownConverter,
+            ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
+        this.markdownConverter = markdownConverter;
+        this.eventPublisher = eventPublisher;
     }
 
     public AutoPublicationTask getNew() {
-        return new AutoPublicationTask(repository, Clock.systemUTC(),
+        return new AutoPublicationTask(repository, markdownConverter,
+                eventPublisher, Clock.systemUTC(),
                 LoggerFactory.getILoggerFactory());
     }
 }
@@ -32,6 +32,7 @@ import org.springframework.scheduling.Trigger;
 import org.springframework.scheduling.TriggerContext;
 import org.springframework.stereotype.Service;
 
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
 import com.github.piotr_rusin.yule.repository.ArticleRepository;
 
 /**
@@ -61,7 +62,12 @@ public class AutoPublicationTrigger implements Trigger {
 
     @Override
     public Date nextExecutionTime(TriggerContext arg0) {
-        Date nextExecutionTime = repository.findNextScheduledPublicationTime();
+        Date nextExecutionTime;
+        // The trigger is evaluated right after articles are saved, so the
+        // replica may not include them yet.
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            nextExecutionTime = repository.findNextScheduledPublicationTime();
+        }
         if (nextExecutionTime != null) {
             logger.info(
                     "Next auto-publication scheduled on " + nextExecutionTime);
@@ -0,0 +1,112 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
+import com.github.piotr_rusin.yule.domain.PageLink;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+/**
+ * A service providing links to published blog pages, displayed in the
+ * navigation menu.
+ * <p>
+ * The links are read once and kept as an immutable snapshot, replaced after
+ * a change of articles affects the navigation.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Service
+public class BlogNavigation {
+    private static final Logger logger = LoggerFactory
+            .getLogger(BlogNavigation.class);
+
+    private final ArticleRepository repository;
+    private final AtomicReference<Map<String, String>> snapshot = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public BlogNavigation(ArticleRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Get slugs of published blog pages by their titles.
+     *
+     * @return an unmodifiable map of slugs, ordered by titles.
+     */
+    public Map<String, String> getPageNameToSlugMap() {
+        Map<String, String> current = snapshot.get();
+        if (current != null) {
+            return current;
+        }
+
+        long readGeneration = generation.get();
+        logger.info("Reading links to published blog pages.");
+        Map<String, String> links = new LinkedHashMap<>();
+        // The snapshot is kept until the next change, so it can't be read
+        // from a lagging replica.
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            for (PageLink link : repository.findPublishedPageLinks()) {
+                links.put(link.getTitle(), link.getSlug());
+            }
+        }
+        current = Collections.unmodifiableMap(links);
+        // The links aren't kept if they could have been read before a change
+        // of the navigation.
+        if (generation.get() == readGeneration
+                && snapshot.compareAndSet(null, current)
+                && generation.get() != readGeneration) {
+            snapshot.compareAndSet(current, null);
+        }
+        return current;
+    }
+
+    /**
+     * Discard the snapshot of links after a change affecting them.
+     *
+     * @param event
+     *            is an event describing changes of articles.
+     */
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        if (event.getChanges().stream()
+                .anyMatch(ArticleChange::changesNavigation)) {
+            generation.incrementAndGet();
+            snapshot.set(null);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.github.piotr_rusin.yule.domain.DiffLine;
+
+/**
+ * Encodes versions of article content as compressed line-based deltas.
+ * <p>
+ * A delta is a sequence of operations building new content from lines of the
+ * previous content: copies of ranges of the previous lines and insertions of
+ * new lines. It is computed in linear time, by looking up lines of the new
+ * content in an index of the previous lines, and it is compressed together
+ * with the inserted text.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ */
+final class ContentDelta {
+    private static final int COPY = 1;
+    private static final int INSERT = 2;
+    private static final int END = 0;
+
+    /**
+     * The maximum number of occurrences of a line in the previous content
+     * compared when looking for the longest copied range, so that repeated
+     * lines, like blank ones, don't make the encoding quadratic.
+     */
+    private static final int MAX_CANDIDATES = 8;
+
+    private ContentDelta() {
+    }
+
+    /**
+     * Compress the whole content.
+     *
+     * @param content
+     *            is the content.
+     * @return the compressed content.
+     */
+    static byte[] compress(String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decompress content compressed with {@link #compress(String)}.
+     *
+     * @param compressed
+     *            is the compressed content.
+     * @return the content.
+     */
+    static String decompress(byte[] compressed) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (InflaterInputStream in = new InflaterInputStream(
+                new ByteArrayInputStream(compressed))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Encode new content as a compressed delta against the previous one.
+     *
+     * @param previous
+     *            is the previous content.
+     * @param current
+     *            is the new content.
+     * @return the delta.
+     */
+    static byte[] encode(String previous, String current) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(
+                new DeflaterOutputStream(bytes))) {
+            List<String> previousLines = split(previous);
+            List<String> currentLines = split(current);
+            for (Operation op : computeOperations(previousLines,
+                    currentLines)) {
+                if (op.isCopy()) {
+                    out.writeByte(COPY);
+                    out.writeInt(op.start);
+                    out.writeInt(op.count);
+                } else {
+                    byte[] text = String.join("", currentLines.subList(
+                            op.start, op.start + op.count))
+                            .getBytes(StandardCharsets.UTF_8);
+                    out.writeByte(INSERT);
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+            }
+            out.writeByte(END);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Apply a delta to the content it was encoded against.
+     *
+     * @param previous
+     *            is the previous content.
+     * @param delta
+     *            is a delta created by {@link #encode(String, String)}.
+     * @return the new content.
+     */
+    static String apply(String previous, byte[] delta) {
+        List<String> previousLines = split(previous);
+        StringBuilder current = new StringBuilder();
+        try (DataInputStream in = new DataInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(delta)))) {
+            int op;
+            while ((op = in.readByte()) != END) {
+                if (op == COPY) {
+                    int start = in.readInt();
+                    int end = start + in.readInt();
+                    for (int i = start; i < end; i++) {
+                        current.append(previousLines.get(i));
+                    }
+                } else if (op == INSERT) {
+                    byte[] text = new byte[in.readInt()];
+                    in.readFully(text);
+                    current.append(
+                            new String(text, StandardCharsets.UTF_8));
+                } else {
+                    throw new IllegalArgumentException(
+                            "Unknown delta operation: " + op);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return current.toString();
+    }
+
+    /**
+     * Compute differences between lines of two versions of content.
+     * <p>
+     * Lines of the previous content that are copied to the new one out of
+     * their order are presented as unchanged in their new place.
+     *
+     * @param previous
+     *            is the previous content.
+     * @param current
+     *            is the new content.
+     * @return lines of both versions, marked as unchanged, added or removed.
+     */
+    static List<DiffLine> diff(String previous, String current) {
+        List<String> previousLines = split(previous);
+        List<String> currentLines = split(current);
+        List<Operation> ops = computeOperations(previousLines, currentLines);
+        BitSet copied = new BitSet(previousLines.size());
+        for (Operation op : ops) {
+            if (op.isCopy()) {
+                copied.set(op.start, op.start + op.count);
+            }
+        }
+
+        List<DiffLine> lines = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < ops.size(); i++) {
+            Operation op = ops.get(i);
+            if (!op.isCopy()) {
+                // Lines replaced by the inserted ones are presented first
+                int end = i + 1 < ops.size() ? ops.get(i + 1).start
+                        : previousLines.size();
+                if (end >= next) {
+                    addRemoved(lines, previousLines, copied, next, end);
+                    next = end;
+                }
+                addLines(lines, DiffLine.Type.ADDED,
+                        currentLines.subList(op.start, op.start + op.count));
+                continue;
+            }
+            if (op.start >= next) {
+                addRemoved(lines, previousLines, copied, next, op.start);
+                next = op.start + op.count;
+            }
+            addLines(lines, DiffLine.Type.UNCHANGED,
+                    previousLines.subList(op.start, op.start + op.count));
+        }
+        addRemoved(lines, previousLines, copied, next, previousLines.size());
+        return lines;
+    }
+
+    private static void addRemoved(List<DiffLine> lines,
+            List<String> previousLines, BitSet copied, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!copied.get(i)) {
+                lines.add(new DiffLine(DiffLine.Type.REMOVED,
+                        stripLineBreak(previousLines.get(i))));
+            }
+        }
+    }
+
+    private static void addLines(List<DiffLine> lines, DiffLine.Type type,
+            List<String> text) {
+        for (String line : text) {
+            lines.add(new DiffLine(type, stripLineBreak(line)));
+        }
+    }
+
+    private static String stripLineBreak(String line) {
+        int end = line.length();
+        if (line.endsWith("\n")) {
+            end--;
+            if (line.endsWith("\r\n")) {
+                end--;
+            }
+        }
+        return line.substring(0, end);
+    }
+
+    /**
+     * Split content into lines, each including its line break, so that the
+     * content is reproduced exactly by joining them.
+     */
+    private static List<String> split(String content) {
+        if (content.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return Arrays.asList(content.split("(?<=\n)"));
+    }
+
+    private static List<Operation> computeOperations(List<String> previous,
+            List<String> current) {
+        Map<String, List<Integer>> index = new HashMap<>();
+        for (int i = 0; i < previous.size(); i++) {
+            index.computeIfAbsent(previous.get(i), k -> new ArrayList<>())
+                    .add(i);
+        }
+
+        List<Operation> ops = new ArrayList<>();
+        int next = 0;
+        int i = 0;
+        while (i < current.size()) {
+            int start = -1;
+            int count = 0;
+            if (next < previous.size()
+                    && previous.get(next).equals(current.get(i))) {
+                start = next;
+                count = matchLength(previous, next, current, i);
+            } else {
+                List<Integer> candidates = index.get(current.get(i));
+                if (candidates != null) {
+                    // Lines following the last copied range are preferred
+                    int first = Collections.binarySearch(candidates, next);
+                    first = first < 0 ? -first - 1 : first;
+                    if (first == candidates.size()) {
+                        first = 0;
+                    }
+                    for (int c = first; c < candidates.size()
+                            && c < first + MAX_CANDIDATES; c++) {
+                        int length = matchLength(previous, candidates.get(c),
+                                current, i);
+                        if (length > count) {
+                            start = candidates.get(c);
+                            count = length;
+                        }
+                    }
+                }
+            }
+
+            if (start == -1) {
+                Operation last = ops.isEmpty() ? null
+                        : ops.get(ops.size() - 1);
+                if (last != null && !last.isCopy()) {
+                    last.count++;
+                } else {
+                    ops.add(new Operation(false, i, 1));
+                }
+                i++;
+            } else {
+                ops.add(new Operation(true, start, count));
+                i += count;
+                next = start + count;
+            }
+        }
+        return ops;
+    }
+
+    private static int matchLength(List<String> previous, int start,
+            List<String> current, int from) {
+        int length = 0;
+        while (start + length < previous.size()
+                && from + length < current.size() && previous
+                        .get(start + length).equals(current.get(from + length))) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * A copy of a range of lines of the previous content, or an insertion of
+     * a range of lines of the new content.
+     */
+    private static class Operation {
+        private final boolean copy;
+        private final int start;
+        private int count;
+
+        Operation(boolean copy, int start, int count) {
+            this.copy = copy;
+            this.start = start;
+            this.count = count;
+        }
+
+        boolean isCopy() {
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A summary of an import of articles.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+public class ImportReport {
+    /**
+     * The maximum number of described errors. Only the number of the
+     * remaining ones is reported.
+     */
+    static final int MAX_ERRORS = 10;
+
+    private long importedCount;
+    private long rejectedCount;
+    private final List<String> errors = new ArrayList<>();
+    private boolean complete = true;
+
+    void addImported(int count) {
+        importedCount += count;
+    }
+
+    void reject(long line, String reason) {
+        rejectedCount++;
+        addError(String.format("Line %s: %s", line, reason));
+    }
+
+    void rejectAll(int count, String reason) {
+        rejectedCount += count;
+        addError(reason);
+    }
+
+    void stop(String reason) {
+        complete = false;
+        addError(reason);
+    }
+
+    private void addError(String error) {
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(error);
+        }
+    }
+
+    public long getImportedCount() {
+        return importedCount;
+    }
+
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Get descriptions of errors that occurred during the import.
+     *
+     * @return up to {@value #MAX_ERRORS} descriptions, in the order in which
+     *         the errors occurred.
+     */
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Check if all records of the imported file were read.
+     *
+     * @return false if the import stopped at a malformed record.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "ImportReport [importedCount=%s, rejectedCount=%s, complete=%s]",
+                importedCount, rejectedCount, complete);
+    }
+}
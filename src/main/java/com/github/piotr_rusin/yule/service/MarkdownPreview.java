@@ -0,0 +1,409 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.SessionScope;
+
+import com.github.piotr_rusin.yule.exception.PreviewBusyException;
+import com.github.piotr_rusin.yule.exception.PreviewConflictException;
+import com.vladsch.flexmark.ast.Heading;
+import com.vladsch.flexmark.ast.Node;
+import com.vladsch.flexmark.parser.Parser;
+
+/**
+ * A live preview of Markdown content edited in the admin panel.
+ * <p>
+ * The preview is held separately for each session. It remembers the last
+ * previewed source split into blocks, each starting with a top-level node of
+ * the parsed document, and the HTML rendered for each block. After a change,
+ * only the part of the source around it is parsed again, and only the blocks
+ * that differ from the previous version are rendered again.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+@SessionScope
+public class MarkdownPreview {
+    private static final Logger logger = LoggerFactory
+            .getLogger(MarkdownPreview.class);
+
+    /**
+     * Matches link reference definitions and footnotes - constructs that
+     * affect rendering of blocks other than the ones containing them.
+     */
+    private static final Pattern DOCUMENT_SCOPED_SYNTAX = Pattern
+            .compile("^ {0,3}\\[[^\\]]+\\]:|\\[\\^", Pattern.MULTILINE);
+    /**
+     * Matches characters left out of heading texts compared to find headings
+     * that may get the same generated ids.
+     */
+    private static final Pattern NON_ALPHANUMERIC = Pattern
+            .compile("[^\\p{L}\\p{Nd}]+");
+
+    private final MarkdownToHtmlConverter converter;
+    private final Parser parser;
+    private final Lock lock = new ReentrantLock();
+    private long revision;
+    private String source;
+    private List<Block> blocks = Collections.emptyList();
+
+    @Autowired
+    public MarkdownPreview(MarkdownToHtmlConverter converter, Parser parser) {
+        this.converter = converter;
+        this.parser = parser;
+    }
+
+    /**
+     * Update the preview.
+     * <p>
+     * Only one update is performed at a time for a session. A request made
+     * while another one is processed is rejected, so that the client can send
+     * its most recent state after the current update finishes, instead of
+     * queuing renders of outdated content.
+     *
+     * @param request
+     *            is a request containing either a complete source, or a
+     *            change to the last previewed one.
+     * @return a rendering of the updated source.
+     * @throws PreviewBusyException
+     *             if another update is in progress.
+     * @throws PreviewConflictException
+     *             if the request contains a change to a revision other than
+     *             the last previewed one, or a change outside of its bounds.
+     */
+    public Rendering update(PreviewRequest request) {
+        if (!lock.tryLock()) {
+            throw new PreviewBusyException(
+                    "Another preview is being rendered.");
+        }
+        try {
+            if (request.isChange()) {
+                applyChange(request);
+            } else {
+                List<Block> updated = splitIntoBlocks(request.getMarkdown());
+                reuseHtml(blocks, updated);
+                source = request.getMarkdown();
+                blocks = updated;
+            }
+            revision++;
+            return render();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Apply a change to the last previewed source and split the changed part
+     * of it into blocks again.
+     * <p>
+     * The changed part starts at the block preceding the first changed one,
+     * so that its first line is unchanged and the blocks before it are parsed
+     * the same way. It ends where a top-level node starts both before and
+     * after the change, so that the blocks after it are parsed the same way
+     * too. If no node starts at the end of the following block, for example
+     * because the change opened a fenced code block or continued a list, the
+     * part is extended by that block.
+     */
+    private void applyChange(PreviewRequest request) {
+        if (source == null || request.getRevision() == null
+                || request.getRevision() != revision) {
+            throw new PreviewConflictException(String.format(
+                    "The change applies to revision %s, while the current "
+                    + "revision is %d.",
+                    request.getRevision(), revision));
+        }
+        int start = request.getStart();
+        int end = request.getEnd();
+        if (start < 0 || start > end || end > source.length()) {
+            throw new PreviewConflictException(String.format(
+                    "The changed range [%d, %d) is outside of the source.",
+                    start, end));
+        }
+        String text = request.getText() == null ? "" : request.getText();
+        String updated = source.substring(0, start) + text
+                + source.substring(end);
+        if (blocks.isEmpty()) {
+            source = updated;
+            blocks = splitIntoBlocks(updated);
+            return;
+        }
+
+        int first = findBlock(start);
+        int last = Math.min(findBlock(end) + 1, blocks.size() - 1);
+        first = Math.max(first - 1, 0);
+        int partStart = 0;
+        for (int i = 0; i < first; i++) {
+            partStart += blocks.get(i).markdown.length();
+        }
+        int partEnd = partStart + text.length() - (end - start);
+        for (int i = first; i <= last; i++) {
+            partEnd += blocks.get(i).markdown.length();
+        }
+
+        List<Block> parsed;
+        while (true) {
+            String part = updated.substring(partStart, partEnd);
+            if (last == blocks.size() - 1) {
+                parsed = splitIntoBlocks(part);
+                break;
+            }
+            String next = blocks.get(last + 1).markdown;
+            int lineEnd = next.indexOf('\n');
+            String nextLine = lineEnd < 0 ? next
+                    : next.substring(0, lineEnd + 1);
+            parsed = splitIntoBlocks(part + nextLine);
+            if (parsed.get(parsed.size() - 1).markdown.equals(nextLine)) {
+                parsed.remove(parsed.size() - 1);
+                break;
+            }
+            last++;
+            partEnd += next.length();
+        }
+
+        List<Block> replaced = blocks.subList(first, last + 1);
+        reuseHtml(replaced, parsed);
+        List<Block> merged = new ArrayList<>(
+                blocks.size() - replaced.size() + parsed.size());
+        merged.addAll(blocks.subList(0, first));
+        merged.addAll(parsed);
+        merged.addAll(blocks.subList(last + 1, blocks.size()));
+        logger.debug("Parsed {} of {} blocks of the preview again.",
+                parsed.size(), merged.size());
+        source = updated;
+        blocks = merged;
+    }
+
+    /**
+     * Find the block of the last previewed source containing an offset.
+     *
+     * @return the index of the block, or of the last block if the offset is
+     *         at the end of the source.
+     */
+    private int findBlock(int offset) {
+        int blockEnd = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            blockEnd += blocks.get(i).markdown.length();
+            if (offset < blockEnd) {
+                return i;
+            }
+        }
+        return blocks.size() - 1;
+    }
+
+    /**
+     * Split Markdown source into blocks.
+     * <p>
+     * Each block starts at the beginning of the line of a top-level node of
+     * the parsed document, so a loose list, a block quote or a fenced code
+     * block containing blank lines is never split.
+     *
+     * @param markdown
+     *            is the source to be split.
+     * @return the blocks, each including blank lines following its node.
+     *         Blank lines preceding the first node are included in the first
+     *         block.
+     */
+    private List<Block> splitIntoBlocks(String markdown) {
+        Node document = parser.parse(markdown);
+        List<Block> result = new ArrayList<>();
+        int blockStart = 0;
+        Node blockNode = document.getFirstChild();
+        if (blockNode == null) {
+            if (!markdown.isEmpty()) {
+                result.add(new Block(markdown, null));
+            }
+            return result;
+        }
+        for (Node node = blockNode.getNext(); node != null; node = node
+                .getNext()) {
+            int nodeStart = markdown.lastIndexOf('\n',
+                    node.getStartOffset() - 1) + 1;
+            if (nodeStart > blockStart) {
+                result.add(new Block(
+                        markdown.substring(blockStart, nodeStart),
+                        blockNode));
+                blockStart = nodeStart;
+                blockNode = node;
+            }
+        }
+        result.add(new Block(markdown.substring(blockStart), blockNode));
+        return result;
+    }
+
+    /**
+     * Set HTML of replaced blocks to new blocks with the same source.
+     */
+    private static void reuseHtml(List<Block> replaced, List<Block> created) {
+        Map<String, String> html = new HashMap<>();
+        for (Block block : replaced) {
+            if (block.html != null) {
+                html.put(block.markdown, block.html);
+            }
+        }
+        for (Block block : created) {
+            block.html = html.get(block.markdown);
+        }
+    }
+
+    private Rendering render() {
+        if (!isRenderableByBlocks()) {
+            logger.debug("Rendering the whole preview, revision {}", revision);
+            return new Rendering(revision, null, source, converter);
+        }
+
+        List<String> html = new ArrayList<>(blocks.size());
+        int renderCount = 0;
+        for (Block block : blocks) {
+            if (block.html == null) {
+                block.html = converter.convert(block.markdown);
+                renderCount++;
+            }
+            html.add(block.html);
+        }
+        logger.debug("Rendered {} of {} blocks of the preview, revision {}",
+                renderCount, blocks.size(), revision);
+        return new Rendering(revision, html, null, converter);
+    }
+
+    /**
+     * Check if the previewed source can be rendered block by block.
+     *
+     * @return false if the source contains constructs rendered differently
+     *         in separate blocks: references and footnotes, or headings that
+     *         may get the same ids, which are made unique only within a
+     *         rendered document.
+     */
+    private boolean isRenderableByBlocks() {
+        Set<String> headings = new HashSet<>();
+        for (Block block : blocks) {
+            if (block.documentScoped) {
+                return false;
+            }
+            for (String heading : block.headings) {
+                if (!headings.add(heading)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A part of the previewed source, starting with a top-level node.
+     */
+    private static class Block {
+        private final String markdown;
+        private final boolean documentScoped;
+        /**
+         * Texts of headings in the block, without characters that may be
+         * left out of their ids.
+         */
+        private final List<String> headings = new ArrayList<>();
+        private String html;
+
+        private Block(String markdown, Node node) {
+            this.markdown = markdown;
+            documentScoped = DOCUMENT_SCOPED_SYNTAX.matcher(markdown).find();
+            if (node != null) {
+                collectHeadings(node);
+            }
+        }
+
+        private void collectHeadings(Node node) {
+            if (node instanceof Heading) {
+                headings.add(NON_ALPHANUMERIC
+                        .matcher(((Heading) node).getText().toString())
+                        .replaceAll("").toLowerCase(Locale.ROOT));
+            }
+            for (Node child = node.getFirstChild(); child != null; child = child
+                    .getNext()) {
+                collectHeadings(child);
+            }
+        }
+    }
+
+    /**
+     * A rendered revision of the preview.
+     *
+     * @author Piotr Rusin <piotr.rusin88@gmail.com>
+     *
+     */
+    public static class Rendering {
+        private final long revision;
+        private final List<String> blocks;
+        private final String document;
+        private final MarkdownToHtmlConverter converter;
+
+        private Rendering(long revision, List<String> blocks, String document,
+                MarkdownToHtmlConverter converter) {
+            this.revision = revision;
+            this.blocks = blocks;
+            this.document = document;
+            this.converter = converter;
+        }
+
+        public long getRevision() {
+            return revision;
+        }
+
+        /**
+         * Write HTML of the preview.
+         * <p>
+         * A document that can't be rendered block by block is rendered
+         * directly into the output.
+         *
+         * @param output
+         *            is a destination of the HTML.
+         * @throws IOException
+         *             if writing to the output fails.
+         */
+        public void writeTo(Appendable output) throws IOException {
+            if (blocks == null) {
+                converter.convert(document, output);
+                return;
+            }
+            for (String html : blocks) {
+                output.append(html);
+            }
+        }
+    }
+}
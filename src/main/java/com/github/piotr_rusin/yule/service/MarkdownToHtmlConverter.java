@@ -23,26 +23,189 @@
  *******************************************************************************/
 package com.github.piotr_rusin.yule.service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.piotr_rusin.yule.config.RenderingConfig;
+import com.github.piotr_rusin.yule.domain.Article;
 import com.vladsch.flexmark.ast.Node;
 import com.vladsch.flexmark.html.HtmlRenderer;
 import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.options.DataKey;
+import com.vladsch.flexmark.util.options.MutableDataSet;
 
+/**
+ * A service converting Markdown to HTML.
+ * <p>
+ * Results of the conversion may be cached. The cache is limited by an
+ * approximate number of bytes occupied by its entries, rather than by their
+ * number, so that a few very long articles can't exhaust the heap.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
 @Service
 public class MarkdownToHtmlConverter {
+    private static final Logger logger = LoggerFactory
+            .getLogger(MarkdownToHtmlConverter.class);
+
+    /**
+     * An approximate number of bytes occupied by a cache entry, in addition
+     * to its key and value strings.
+     */
+    static final int ENTRY_OVERHEAD = 64;
+
     private Parser markdownParser;
     private HtmlRenderer markdownHtmlRenderer;
+    private String optionsFingerprint;
+    private Cache<String, String> cache;
 
     @Autowired
-    public MarkdownToHtmlConverter (Parser parser, HtmlRenderer renderer) {
+    public MarkdownToHtmlConverter(Parser parser, HtmlRenderer renderer,
+            MutableDataSet options, RenderingConfig config) {
         markdownParser = parser;
         markdownHtmlRenderer = renderer;
+        optionsFingerprint = getFingerprint(options);
+        long cacheSize = config.getCacheSize();
+        if (cacheSize > 0) {
+            logger.info("Caching rendered Markdown, up to {} bytes.",
+                    cacheSize);
+            cache = Caffeine.newBuilder().maximumWeight(cacheSize)
+                    .weigher((String key,
+                            String html) -> ENTRY_OVERHEAD
+                                    + 2 * (key.length() + html.length()))
+                    .recordStats().build();
+        }
     }
 
+    /**
+     * Get a value identifying a set of Markdown options.
+     *
+     * @param options
+     *            are the options used by the parser and the renderer.
+     * @return a string built from names and values of the options, in the
+     *         order of the names. Collections (like lists of extensions) are
+     *         represented by class names of their elements.
+     */
+    private static String getFingerprint(MutableDataSet options) {
+        Map<String, String> namesToValues = new TreeMap<>();
+        for (Map.Entry<DataKey, Object> option : options.getAll()
+                .entrySet()) {
+            Object value = option.getValue();
+            String valueString;
+            if (value instanceof Collection) {
+                valueString = ((Collection<?>) value).stream()
+                        .map(e -> e.getClass().getName())
+                        .collect(Collectors.joining(",", "[", "]"));
+            } else {
+                valueString = String.valueOf(value);
+            }
+            namesToValues.put(option.getKey().getName(), valueString);
+        }
+        return digest(namesToValues.toString());
+    }
+
+    private static String digest(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(
+                    digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(
+                    "SHA-256 is not supported by the platform.", e);
+        }
+    }
+
+    /**
+     * Convert Markdown to HTML.
+     * <p>
+     * If the cache is enabled, the result is looked up in it first, with a key
+     * consisting of a fingerprint of the Markdown options and a hash of the
+     * Markdown value.
+     *
+     * @param markdown
+     *            is a value to be converted.
+     * @return the HTML.
+     */
     public String convert(String markdown) {
+        if (cache == null)
+            return render(markdown);
+        return cache.get(getCacheKey(markdown), k -> render(markdown));
+    }
+
+    /**
+     * Convert Markdown to HTML, writing the result directly to given output.
+     * <p>
+     * If the cache is enabled and contains the result, the cached value is
+     * written. Otherwise, the HTML is streamed to the output by the renderer,
+     * without being built as a whole in memory and without being cached.
+     *
+     * @param markdown
+     *            is a value to be converted.
+     * @param output
+     *            is an object to which the HTML is written.
+     * @throws IOException
+     *             if writing to the output fails.
+     */
+    public void convert(String markdown, Appendable output)
+            throws IOException {
+        if (cache != null) {
+            String cached = cache.getIfPresent(getCacheKey(markdown));
+            if (cached != null) {
+                output.append(cached);
+                return;
+            }
+        }
+        Node document = markdownParser.parse(markdown);
+        markdownHtmlRenderer.render(document, output);
+    }
+
+    private String getCacheKey(String markdown) {
+        return optionsFingerprint + ":" + digest(markdown);
+    }
+
+    private String render(String markdown) {
         Node document = markdownParser.parse(markdown);
         return markdownHtmlRenderer.render(document);
     }
+
+    /**
+     * Get statistics of the render cache.
+     *
+     * @return a snapshot of hit, miss and eviction counters, all equal to 0
+     *         if the cache is disabled.
+     */
+    public CacheStats getCacheStats() {
+        return cache == null ? CacheStats.empty() : cache.stats();
+    }
+
+    /**
+     * Render HTML versions of the content and the introduction of an article
+     * and set them as its properties.
+     *
+     * @param article
+     *            is an article whose HTML properties are to be updated.
+     */
+    public void renderHtmlOf(Article article) {
+        String content = article.getContent();
+        article.setContentHtml(content == null ? null : convert(content));
+        String introduction = article.getIntroduction();
+        article.setIntroductionHtml(
+                introduction == null ? null : convert(introduction));
+    }
 }
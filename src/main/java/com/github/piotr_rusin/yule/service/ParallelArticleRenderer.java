@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.github.piotr_rusin.yule.config.RenderingConfig;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+/**
+ * A service rendering HTML of articles to be displayed, in case it wasn't
+ * rendered when they were saved (for example, when they were inserted into
+ * the database directly).
+ * <p>
+ * Articles are rendered concurrently, on a pool with a configurable number of
+ * threads, so the time needed to render a page of articles depends on the
+ * slowest one rather than on their number.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Service
+public class ParallelArticleRenderer {
+    private static final Logger logger = LoggerFactory
+            .getLogger(ParallelArticleRenderer.class);
+
+    private ArticleRepository repository;
+    private MarkdownToHtmlConverter markdownConverter;
+    private ForkJoinPool pool;
+    private long pageTimeout;
+
+    @Autowired
+    public ParallelArticleRenderer(ArticleRepository repository,
+            MarkdownToHtmlConverter markdownConverter,
+            RenderingConfig config) {
+        this.repository = repository;
+        this.markdownConverter = markdownConverter;
+        pool = new ForkJoinPool(config.getParallelism());
+        pageTimeout = config.getPageTimeout();
+    }
+
+    /**
+     * Render and save HTML of articles that don't have it.
+     * <p>
+     * The method waits for the articles to be rendered for up to the
+     * configured page timeout. HTML of articles rendered in time is saved in
+     * the database and set to the article objects. The remaining articles are
+     * left without HTML.
+     *
+     * @param articles
+     *            are articles to be displayed on a page.
+     */
+    public void renderMissingHtml(List<Article> articles) {
+        Map<Article, CompletableFuture<Article>> rendered = new LinkedHashMap<>();
+        for (Article article : articles) {
+            if (article.getContentHtml() == null
+                    && !article.isContentOmitted()) {
+                rendered.put(article, CompletableFuture
+                        .supplyAsync(() -> render(article), pool));
+            }
+        }
+        if (rendered.isEmpty())
+            return;
+
+        logger.info("Rendering missing HTML of {} articles.",
+                rendered.size());
+        try {
+            CompletableFuture
+                    .allOf(rendered.values()
+                            .toArray(new CompletableFuture<?>[0]))
+                    .get(pageTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Rendering articles took longer than {} ms.",
+                    pageTimeout);
+        } catch (ExecutionException e) {
+            logger.error("Rendering articles failed.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        rendered.forEach((article, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                setHtml(article, future.join());
+            }
+        });
+    }
+
+    /**
+     * Render HTML of a copy of an article.
+     * <p>
+     * The copy is rendered instead of the original, so that managed article
+     * objects are modified only on the calling thread.
+     */
+    private Article render(Article article) {
+        Article copy = new Article(article);
+        markdownConverter.renderHtmlOf(copy);
+        return copy;
+    }
+
+    /**
+     * Save rendered HTML and set it to the article.
+     * <p>
+     * The article is detached before the HTML is set. Otherwise it would be
+     * dirty when the HTML of the next article is saved, and flushed with a
+     * new version and modification time.
+     */
+    private void setHtml(Article article, Article rendered) {
+        repository.detach(article);
+        repository.updateHtml(article.getId(), rendered.getContentHtml(),
+                rendered.getIntroductionHtml());
+        article.setContentHtml(rendered.getContentHtml());
+        article.setIntroductionHtml(rendered.getIntroductionHtml());
+    }
+
+    @PreDestroy
+    public void shutDown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
+import com.github.piotr_rusin.yule.domain.ArchiveMonth;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+/**
+ * An archive of published blog posts, grouped by UTC-based months of their
+ * publication.
+ * <p>
+ * The numbers of posts published in each month are counted when they are
+ * first requested, by reading publication times of all published posts,
+ * and then maintained using article change events. Like the number of all
+ * published posts, they are counted again after a configured interval.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+public class PostArchive {
+    private static final Logger logger = LoggerFactory
+            .getLogger(PostArchive.class);
+
+    private final ArticleRepository repository;
+    private final YuleConfig config;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+    private TreeMap<YearMonth, Long> postCounts;
+    private long changeCount;
+    private Instant reconciliationTime;
+    private long reconciliationPosition;
+
+    @Autowired
+    public PostArchive(ArticleRepository repository, YuleConfig config) {
+        this(repository, config, Clock.systemUTC());
+    }
+
+    PostArchive(ArticleRepository repository, YuleConfig config,
+            Clock clock) {
+        this.repository = repository;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the months in which blog posts were published.
+     *
+     * @return the months, from the most recent one.
+     */
+    public List<ArchiveMonth> getMonths() {
+        return getPostCounts().descendingMap().entrySet().stream()
+                .map(e -> new ArchiveMonth(e.getKey(), e.getValue()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the months in which blog posts were published, grouped by year.
+     *
+     * @return the months, from the most recent one, mapped to their years,
+     *         from the most recent one.
+     */
+    public Map<Integer, List<ArchiveMonth>> getMonthsByYear() {
+        Map<Integer, List<ArchiveMonth>> years = new LinkedHashMap<>();
+        for (ArchiveMonth month : getMonths()) {
+            years.computeIfAbsent(month.getMonth().getYear(),
+                    y -> new ArrayList<>()).add(month);
+        }
+        return years;
+    }
+
+    /**
+     * Get the number of blog posts published in a range of months.
+     *
+     * @param first
+     *            is the first month of the range.
+     * @param last
+     *            is the last month of the range.
+     * @return the number of the posts.
+     */
+    public long countPosts(YearMonth first, YearMonth last) {
+        return getPostCounts().subMap(first, true, last, true).values()
+                .stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * Get a copy of the numbers of posts published in each month, counting
+     * them first if they weren't counted yet or the reconciliation is due.
+     */
+    private NavigableMap<YearMonth, Long> getPostCounts() {
+        long changes;
+        synchronized (lock) {
+            if (postCounts != null && !isReconciliationDue()) {
+                return new TreeMap<>(postCounts);
+            }
+            changes = changeCount;
+        }
+
+        logger.info("Counting published blog posts by month.");
+        TreeMap<YearMonth, Long> actual = new TreeMap<>();
+        // The counts are maintained with changes made in the primary database.
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            repository.findPublishedPostTimestamps()
+                    .forEach(t -> actual.merge(getMonth(t), 1L, Long::sum));
+        }
+        long position = ArticleChangeEvent.nextPosition();
+
+        synchronized (lock) {
+            // Changes made while counting may or may not be included in the
+            // result, so in that case it is discarded.
+            if (changeCount == changes) {
+                if (postCounts != null && !postCounts.equals(actual)) {
+                    logger.warn(
+                            "The maintained numbers of published blog posts "
+                                    + "by month differed from the actual ones.");
+                }
+                postCounts = new TreeMap<>(actual);
+                reconciliationTime = clock.instant();
+                reconciliationPosition = position;
+            }
+        }
+        return actual;
+    }
+
+    private boolean isReconciliationDue() {
+        return !clock.instant().isBefore(reconciliationTime
+                .plusSeconds(config.getPostCountReconciliationInterval()));
+    }
+
+    /**
+     * Update the numbers of posts published in each month after articles
+     * changed.
+     *
+     * @param event
+     *            is an event describing changes of articles.
+     */
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        List<ArticleChange> moves = event.getChanges().stream()
+                .filter(ArticleChange::movesListedPost)
+                .collect(Collectors.toList());
+        if (moves.isEmpty()) {
+            return;
+        }
+
+        synchronized (lock) {
+            changeCount++;
+            if (postCounts == null) {
+                return;
+            }
+            // The change may already be included in the last counts
+            if (event.getWritePosition() < reconciliationPosition) {
+                postCounts = null;
+                return;
+            }
+            for (ArticleChange change : moves) {
+                ArticleSnapshot previous = change.getPrevious();
+                if (previous != null && previous.isListedPost()) {
+                    postCounts.computeIfPresent(
+                            getMonth(previous.getPublicationTimestamp()),
+                            (m, c) -> c > 1 ? c - 1 : null);
+                }
+                ArticleSnapshot current = change.getCurrent();
+                if (current != null && current.isListedPost()) {
+                    postCounts.merge(
+                            getMonth(current.getPublicationTimestamp()), 1L,
+                            Long::sum);
+                }
+            }
+        }
+    }
+
+    private static YearMonth getMonth(Instant publicationTimestamp) {
+        return YearMonth.from(publicationTimestamp.atOffset(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.time.Clock;
+import java.time.Instant;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+/**
+ * A counter of published blog posts.
+ * <p>
+ * The number of posts is counted in the database when it is first
+ * requested, and then maintained using article change events. It is
+ * counted again after a configured interval, to correct the maintained
+ * value in case the articles were modified outside of the application.
+ * <p>
+ * Change events arrive after the changes are committed, so a change written
+ * before a count ended may already be included in it. The delta of such a
+ * change is not applied, and the posts are counted again instead.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@Component
+public class PublishedPostCounter {
+    private static final Logger logger = LoggerFactory
+            .getLogger(PublishedPostCounter.class);
+
+    private final ArticleRepository repository;
+    private final YuleConfig config;
+    private final Clock clock;
+
+    private final Object lock = new Object();
+    private Long count;
+    private long changeCount;
+    private Instant reconciliationTime;
+    private long reconciliationPosition;
+
+    @Autowired
+    public PublishedPostCounter(ArticleRepository repository,
+            YuleConfig config) {
+        this(repository, config, Clock.systemUTC());
+    }
+
+    PublishedPostCounter(ArticleRepository repository, YuleConfig config,
+            Clock clock) {
+        this.repository = repository;
+        this.config = config;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the number of published blog posts.
+     *
+     * @return the number of the posts.
+     */
+    public long get() {
+        long changes;
+        synchronized (lock) {
+            if (count != null && !isReconciliationDue()) {
+                return count;
+            }
+            changes = changeCount;
+        }
+
+        logger.info("Counting published blog posts.");
+        long actual;
+        // The count is maintained with changes made in the primary database.
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            actual = repository.countPublishedPosts();
+        }
+        long position = ArticleChangeEvent.nextPosition();
+
+        synchronized (lock) {
+            // Changes made while counting may or may not be included in the
+            // result, so in that case it is discarded.
+            if (changeCount == changes) {
+                if (count != null && count != actual) {
+                    logger.warn(
+                            "The maintained number of published blog posts "
+                                    + "({}) differed from the actual one ({}).",
+                            count, actual);
+                }
+                count = actual;
+                reconciliationTime = clock.instant();
+                reconciliationPosition = position;
+            }
+        }
+        return actual;
+    }
+
+    private boolean isReconciliationDue() {
+        return !clock.instant().isBefore(reconciliationTime
+                .plusSeconds(config.getPostCountReconciliationInterval()));
+    }
+
+    /**
+     * Update the number of published blog posts after articles changed.
+     *
+     * @param event
+     *            is an event describing changes of articles.
+     */
+    @EventListener
+    public void onArticleChange(ArticleChangeEvent event) {
+        long delta = event.getChanges().stream()
+                .mapToLong(c -> countListed(c.getCurrent())
+                        - countListed(c.getPrevious()))
+                .sum();
+        if (delta == 0) {
+            return;
+        }
+
+        synchronized (lock) {
+            changeCount++;
+            if (count == null) {
+                return;
+            }
+            if (event.getWritePosition() < reconciliationPosition) {
+                logger.debug("The change may be included in the last count "
+                        + "of published blog posts, counting them again.");
+                count = null;
+            } else {
+                count += delta;
+            }
+        }
+    }
+
+    private static long countListed(ArticleSnapshot article) {
+        return article != null && article.isListedPost() ? 1 : 0;
+    }
+}
@@ -0,0 +1,280 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.datasource.PrimaryReads;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleRevision;
+import com.github.piotr_rusin.yule.domain.ArticleRevisionItem;
+import com.github.piotr_rusin.yule.domain.Revision;
+import com.github.piotr_rusin.yule.domain.RevisionDiff;
+import com.github.piotr_rusin.yule.exception.ResourceNotFoundException;
+import com.github.piotr_rusin.yule.repository.ArticleRevisionRepository;
+
+/**
+ * Records revisions of articles saved by their author, and reconstructs them
+ * for comparison and restoring.
+ * <p>
+ * Content of a revision is stored as a compressed delta against the previous
+ * revision of the article. After a configured number of deltas, or when a
+ * delta wouldn't be smaller, the whole compressed content is stored instead,
+ * so a revision is reconstructed by applying a bounded number of deltas to
+ * the last preceding snapshot.
+ * <p>
+ * Each delta is stored with the version it was computed against, and no two
+ * deltas of an article may have the same base version. A writer losing a
+ * race against another application instance computes its delta again, and
+ * a chain whose deltas don't follow each other is rejected instead of being
+ * reconstructed into wrong content.
+ * <p>
+ * Revisions are written by a background thread, after the transaction saving
+ * the article is committed, so that the author doesn't wait for the deltas
+ * to be computed.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ */
+@Service
+public class RevisionHistory {
+    private static final Logger logger = LoggerFactory
+            .getLogger(RevisionHistory.class);
+
+    private final ArticleRevisionRepository repository;
+    private final int deltaLimit;
+    private final ExecutorService executor;
+
+    @Autowired
+    public RevisionHistory(ArticleRevisionRepository repository,
+            YuleConfig config) {
+        this(repository, config, Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "revision-history");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    RevisionHistory(ArticleRevisionRepository repository, YuleConfig config,
+            ExecutorService executor) {
+        this.repository = repository;
+        this.deltaLimit = config.getRevisionDeltaLimit();
+        this.executor = executor;
+    }
+
+    /**
+     * Record the current version of a saved article.
+     * <p>
+     * The revision is written in the background, after the current
+     * transaction, if any, is committed. Revisions are written one at a time,
+     * in order in which they were recorded.
+     *
+     * @param article
+     *            is the saved article.
+     */
+    public void record(Article article) {
+        Revision revision = Revision.of(article);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            executor.execute(() -> write(revision));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronizationAdapter() {
+                    @Override
+                    public void afterCommit() {
+                        executor.execute(() -> write(revision));
+                    }
+                });
+    }
+
+    void write(Revision revision) {
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            try {
+                store(revision);
+            } catch (DataIntegrityViolationException e) {
+                logger.debug("Another revision was recorded against the same "
+                        + "base as {}, recording it again.", revision);
+                store(revision);
+            }
+        } catch (RuntimeException e) {
+            logger.error("The revision {} could not be recorded.", revision,
+                    e);
+        }
+    }
+
+    private void store(Revision revision) {
+        long articleId = revision.getArticleId();
+        Integer latest = repository.findLatestVersion(articleId);
+        if (latest != null && latest >= revision.getVersion()) {
+            logger.debug("The revision {} is already recorded.", revision);
+            return;
+        }
+        List<ArticleRevision> chain = latest == null ? null
+                : repository.findChain(articleId, latest);
+
+        byte[] snapshot = ContentDelta.compress(revision.getContent());
+        ArticleRevision stored;
+        if (chain == null || chain.isEmpty() || chain.size() > deltaLimit) {
+            stored = new ArticleRevision(revision, null, snapshot);
+        } else {
+            byte[] delta = ContentDelta.encode(reconstruct(chain),
+                    revision.getContent());
+            stored = delta.length < snapshot.length
+                    ? new ArticleRevision(revision, latest, delta)
+                    : new ArticleRevision(revision, null, snapshot);
+        }
+        repository.save(stored);
+        logger.debug("Recorded {} ({} bytes).", stored,
+                stored.getContent().length);
+    }
+
+    /**
+     * Get revisions of an article.
+     *
+     * @param articleId
+     *            is an identifier of the article.
+     * @return the revisions, without their content, the latest first.
+     */
+    public List<ArticleRevisionItem> getRevisions(long articleId) {
+        return repository.findItems(articleId);
+    }
+
+    /**
+     * Get a revision of an article, with its content.
+     *
+     * @param articleId
+     *            is an identifier of the article.
+     * @param version
+     *            is a version of the revision.
+     * @return the revision.
+     * @throws ResourceNotFoundException
+     *             if the revision doesn't exist.
+     */
+    public Revision getRevision(long articleId, int version) {
+        List<ArticleRevision> chain = findChain(articleId, version);
+        return chain.get(chain.size() - 1).toRevision(reconstruct(chain));
+    }
+
+    /**
+     * Compare a revision of an article with the one preceding it.
+     *
+     * @param articleId
+     *            is an identifier of the article.
+     * @param version
+     *            is a version of the revision.
+     * @return differences between the revisions.
+     * @throws ResourceNotFoundException
+     *             if the revision doesn't exist.
+     */
+    public RevisionDiff getDiff(long articleId, int version) {
+        List<ArticleRevision> chain = findChain(articleId, version);
+        ArticleRevision last = chain.get(chain.size() - 1);
+        Revision previous = null;
+        String previousContent = "";
+        if (chain.size() > 1) {
+            // The preceding revision is a part of the same chain
+            List<ArticleRevision> previousChain = chain.subList(0,
+                    chain.size() - 1);
+            previousContent = reconstruct(previousChain);
+            previous = previousChain.get(previousChain.size() - 1)
+                    .toRevision(previousContent);
+            checkBaseVersion(last, previous.getVersion());
+        } else {
+            Integer previousVersion = repository
+                    .findPreviousVersion(articleId, version);
+            if (previousVersion != null) {
+                previous = getRevision(articleId, previousVersion);
+                previousContent = previous.getContent();
+            }
+        }
+
+        String content = last.isSnapshot()
+                ? ContentDelta.decompress(last.getContent())
+                : ContentDelta.apply(previousContent, last.getContent());
+        return new RevisionDiff(last.toRevision(content), previous,
+                ContentDelta.diff(previousContent, content));
+    }
+
+    private List<ArticleRevision> findChain(long articleId, int version) {
+        List<ArticleRevision> chain = repository.findChain(articleId,
+                version);
+        if (chain.isEmpty()
+                || chain.get(chain.size() - 1).getVersion() != version) {
+            throw new ResourceNotFoundException(String.format(
+                    "The revision %d of the article %d doesn't exist.",
+                    version, articleId));
+        }
+        return chain;
+    }
+
+    private static String reconstruct(List<ArticleRevision> chain) {
+        String content = ContentDelta.decompress(chain.get(0).getContent());
+        for (int i = 1; i < chain.size(); i++) {
+            ArticleRevision revision = chain.get(i);
+            checkBaseVersion(revision, chain.get(i - 1).getVersion());
+            content = ContentDelta.apply(content, revision.getContent());
+        }
+        return content;
+    }
+
+    /**
+     * Make sure a delta was computed against the revision it follows in a
+     * chain.
+     *
+     * @throws IllegalStateException
+     *             if the delta has another base version.
+     */
+    private static void checkBaseVersion(ArticleRevision revision,
+            int previousVersion) {
+        Integer baseVersion = revision.getBaseVersion();
+        if (baseVersion == null || baseVersion != previousVersion) {
+            throw new IllegalStateException(String.format(
+                    "The revision %d of the article %d is a delta against "
+                            + "the revision %s, but follows the revision %d.",
+                    revision.getVersion(), revision.getArticleId(),
+                    baseVersion, previousVersion));
+        }
+    }
+
+    @PreDestroy
+    public void shutDown() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            logger.warn("Some revisions of articles were not recorded.");
+        }
+    }
+}
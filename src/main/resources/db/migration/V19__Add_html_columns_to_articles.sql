@@ -0,0 +1,2 @@
+ALTER TABLE articles ADD content_html text;
+ALTER TABLE articles ADD introduction_html text;
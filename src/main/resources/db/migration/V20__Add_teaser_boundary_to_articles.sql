@@ -0,0 +1,2 @@
+ALTER TABLE articles ADD teaser_boundary integer;
+UPDATE articles SET teaser_boundary = -1 WHERE strpos(content, '<!--more-->') = 0;
@@ -0,0 +1,3 @@
+CREATE INDEX articles_published_posts_idx
+	ON articles (publication_timestamp, id)
+	WHERE is_blog_post AND status = 'PUBLISHED';
@@ -0,0 +1,8 @@
+CREATE INDEX articles_creation_timestamp_idx
+	ON articles (creation_timestamp);
+CREATE INDEX articles_status_creation_timestamp_idx
+	ON articles (status, creation_timestamp);
+CREATE INDEX articles_publication_timestamp_idx
+	ON articles (publication_timestamp);
+CREATE INDEX articles_lower_title_idx
+	ON articles (lower(title) text_pattern_ops);
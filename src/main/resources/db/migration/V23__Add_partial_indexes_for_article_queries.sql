@@ -0,0 +1,11 @@
+CREATE INDEX articles_published_pages_idx
+	ON articles (publication_timestamp)
+	WHERE NOT is_blog_post AND status = 'PUBLISHED';
+CREATE INDEX articles_scheduled_idx
+	ON articles (publication_timestamp)
+	WHERE status = 'SCHEDULED_FOR_PUBLICATION';
+CREATE INDEX articles_unrendered_idx
+	ON articles (id)
+	WHERE content_html IS NULL;
+CREATE INDEX articles_is_blog_post_creation_timestamp_idx
+	ON articles (is_blog_post, creation_timestamp);
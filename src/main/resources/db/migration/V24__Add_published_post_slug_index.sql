@@ -0,0 +1,3 @@
+CREATE INDEX articles_published_posts_slug_idx
+	ON articles (slug, publication_timestamp)
+	WHERE is_blog_post AND status = 'PUBLISHED';
@@ -0,0 +1,30 @@
+ALTER TABLE articles ADD COLUMN search_vector tsvector;
+
+CREATE FUNCTION articles_search_vector(title text, custom_introduction text,
+	content text) RETURNS tsvector AS $$
+	SELECT setweight(to_tsvector('english', coalesce(title, '')), 'A')
+		|| setweight(to_tsvector('english',
+			coalesce(custom_introduction, '')), 'B')
+		|| setweight(to_tsvector('english', content), 'C');
+$$ LANGUAGE SQL IMMUTABLE;
+
+CREATE FUNCTION articles_search_vector_trigger() RETURNS trigger AS $$
+BEGIN
+	NEW.search_vector := articles_search_vector(NEW.title,
+		NEW.custom_introduction, NEW.content);
+	RETURN NEW;
+END
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER articles_search_vector_update
+	BEFORE INSERT OR UPDATE OF title, custom_introduction, content
+	ON articles
+	FOR EACH ROW EXECUTE PROCEDURE articles_search_vector_trigger();
+
+UPDATE articles
+	SET search_vector = articles_search_vector(title, custom_introduction,
+		content);
+
+CREATE INDEX articles_search_vector_idx
+	ON articles USING gin (search_vector)
+	WHERE status = 'PUBLISHED';
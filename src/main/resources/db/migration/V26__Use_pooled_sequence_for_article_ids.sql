@@ -0,0 +1,10 @@
+-- Article ids are generated by the application from a sequence incremented
+-- by the allocation size of its pooled optimizer, so that articles can be
+-- inserted in JDBC batches without a round trip for each id. A value taken
+-- by the column default is never a part of a range allocated by the
+-- application, so articles can still be inserted directly.
+ALTER SEQUENCE posts_id_seq RENAME TO articles_id_seq;
+
+ALTER SEQUENCE articles_id_seq INCREMENT BY 50;
+
+SELECT setval('articles_id_seq', GREATEST((SELECT max(id) FROM articles), 1));
@@ -0,0 +1,24 @@
+-- Versions of articles saved by authors. The content of a revision is stored
+-- as a compressed delta against the previous revision of the same article,
+-- except for periodic snapshots holding the whole compressed content, so that
+-- any revision is reconstructed from a bounded number of deltas. A delta
+-- records the version it was computed against, and no two deltas may share
+-- it, so that revisions written concurrently can't be reconstructed from a
+-- wrong chain.
+CREATE TABLE article_revisions (
+	article_id bigint NOT NULL REFERENCES articles (id) ON DELETE CASCADE,
+	version integer NOT NULL,
+	title text NOT NULL,
+	custom_introduction text,
+	snapshot boolean NOT NULL,
+	base_version integer,
+	content bytea NOT NULL,
+	creation_timestamp timestamp with time zone NOT NULL,
+	PRIMARY KEY (article_id, version),
+	UNIQUE (article_id, base_version),
+	CHECK (snapshot = (base_version IS NULL)),
+	CHECK (base_version < version)
+);
+
+-- The content is already compressed by the application.
+ALTER TABLE article_revisions ALTER COLUMN content SET STORAGE EXTERNAL;
@@ -23,6 +23,22 @@ $('#articleForm').submit(function() {
 });
 
 
+$('#bulkForm').submit(function() {
+  console.log('Setting value of bulk publicationTimestamp field...');
+  var localValue = $('#bulkLocalPublicationDateTime').val();
+  var instant = $('#bulkPublicationTimestamp');
+  instant.val('');
+  if (localValue) {
+    instant.val(new Date(localValue).toISOString());
+  }
+});
+
+
+$('#selectAllArticles').change(function() {
+  $('.selectArticle').prop('checked', $(this).prop('checked'));
+});
+
+
 updateTimeTags('.articleDateTime', false);
 
 
@@ -119,10 +135,7 @@ $('.deleteArticle').each(function() {
     var article = new ArticleIdData($(this));
 
     function sendDeleteArticleRequest() {
-      var csrfToken = $("meta[name='_csrf']").attr("content");
-      if (!csrfToken) {
-        csrfToken = $('input[name="_csrf"]').val();
-      }
+      var csrfToken = getCsrfToken();
       console.log('Sending request for deleting ' + article);
       $('<form action=/admin/article/' + article.id +
         '/delete method="POST" style="display=none;">' +
@@ -173,6 +186,107 @@ $('#cancelRequest').click(function() {
 });
 
 
+function getCsrfToken() {
+  var csrfToken = $("meta[name='_csrf']").attr("content");
+  if (!csrfToken) {
+    csrfToken = $('input[name="_csrf"]').val();
+  }
+  return csrfToken;
+}
+
+
+function MarkdownPreview(source, target) {
+  this.source = source;
+  this.target = target;
+  this.revision = null;
+  this.previewed = null;
+  this.timer = null;
+  this.pending = false;
+}
+
+MarkdownPreview.DELAY = 400;
+
+MarkdownPreview.prototype.schedule = function() {
+  clearTimeout(this.timer);
+  this.timer = setTimeout(this.send.bind(this), MarkdownPreview.DELAY);
+};
+
+// sends only the changed range if the server has the previous revision
+MarkdownPreview.prototype.createRequest = function(markdown) {
+  var previous = this.previewed;
+  if (this.revision === null || previous === null) {
+    return {markdown: markdown};
+  }
+  var start = 0;
+  var maxStart = Math.min(previous.length, markdown.length);
+  while (start < maxStart && previous[start] === markdown[start]) {
+    start++;
+  }
+  var end = previous.length;
+  var newEnd = markdown.length;
+  while (end > start && newEnd > start &&
+    previous[end - 1] === markdown[newEnd - 1]) {
+    end--;
+    newEnd--;
+  }
+  return {
+    revision: this.revision,
+    start: start,
+    end: end,
+    text: markdown.substring(start, newEnd)
+  };
+};
+
+MarkdownPreview.prototype.send = function() {
+  if (this.pending) {
+    this.schedule();
+    return;
+  }
+  var markdown = this.source.val();
+  if (markdown === this.previewed) {
+    return;
+  }
+  var self = this;
+  this.pending = true;
+  $.ajax({
+    url: '/admin/article/preview',
+    method: 'POST',
+    contentType: 'application/json',
+    data: JSON.stringify(this.createRequest(markdown)),
+    headers: {'X-CSRF-TOKEN': getCsrfToken()},
+    dataType: 'html'
+  }).done(function(html, status, xhr) {
+    self.revision = parseInt(xhr.getResponseHeader('X-Preview-Revision'));
+    self.previewed = markdown;
+    self.target.html(html);
+  }).fail(function(xhr) {
+    if (xhr.status === 409) {
+      console.log('Preview revision conflict, sending the whole content');
+      self.revision = null;
+      self.previewed = null;
+      self.schedule();
+    } else if (xhr.status === 429) {
+      self.schedule();
+    } else {
+      console.log('Preview request failed with status ' + xhr.status);
+    }
+  }).always(function() {
+    self.pending = false;
+  });
+};
+
+(function initializeMarkdownPreview() {
+  var target = $('#articlePreview');
+  if (!target[0]) {
+    return;
+  }
+  var preview = new MarkdownPreview($('#content'), target);
+  $('#content').on('input', function() {
+    preview.schedule();
+  });
+})();
+
+
 function togglePublicationTimeHint() {
   var value = $('#status').val();
   var hint = $('#publicationTimeHint');
@@ -189,3 +303,55 @@ $('#status').change(togglePublicationTimeHint);
 $(function () {
   $('[data-toggle="tooltip"]').tooltip();
 });
+
+
+function TitleSuggestions(input, list, feedback, articleId) {
+  this.input = input;
+  this.list = list;
+  this.feedback = feedback;
+  this.articleId = articleId;
+  this.timer = null;
+}
+
+TitleSuggestions.DELAY = 200;
+
+TitleSuggestions.prototype.schedule = function() {
+  clearTimeout(this.timer);
+  this.timer = setTimeout(this.send.bind(this), TitleSuggestions.DELAY);
+};
+
+// shows titles starting with the edited one and marks it if it is taken
+TitleSuggestions.prototype.send = function() {
+  var title = this.input.val();
+  if (!title) {
+    this.list.empty();
+    this.feedback.hide();
+    return;
+  }
+  var self = this;
+  $.getJSON('/admin/articles/titles', {prefix: title}).done(function(found) {
+    self.list.empty();
+    var taken = false;
+    found.forEach(function(article) {
+      $('<option>').val(article.title).appendTo(self.list);
+      if (article.title === title && String(article.id) !== self.articleId) {
+        taken = true;
+      }
+    });
+    self.input.toggleClass('is-invalid', taken);
+    self.feedback.toggle(taken);
+  });
+};
+
+(function initializeTitleSuggestions() {
+  var list = $('#titleSuggestions');
+  if (!list[0]) {
+    return;
+  }
+  var input = $('#title');
+  var suggestions = new TitleSuggestions(input, list,
+    $('#duplicateTitleFeedback'), $('#articleForm [type="submit"]').val());
+  input.on('input', function() {
+    suggestions.schedule();
+  });
+})();
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.service.ArticleChange;
+
+public class PageDependenciesTest {
+    private static final Instant NOW = Instant.parse("2017-10-01T12:00:00Z");
+
+    private static Article getPost(long id, long hoursAgo) {
+        Article article = new Article("Title " + id, "Content " + id);
+        ReflectionTestUtils.setField(article, "id", id);
+        article.setStatus(ArticleStatus.PUBLISHED);
+        article.setPublicationTimestamp(NOW.minusSeconds(hoursAgo * 3600));
+        return article;
+    }
+
+    private static ArticleChange getChange(Article previous, Article current) {
+        long id = previous != null ? previous.getId() : current.getId();
+        return new ArticleChange(id, ArticleSnapshot.of(previous),
+                ArticleSnapshot.of(current));
+    }
+
+    /**
+     * Get dependencies of the first page of a list of 5 posts, published 1 to
+     * 5 hours ago, displaying two of them on each page.
+     */
+    private static PageDependencies getFirstIndexPage() {
+        return PageDependencies.ofIndexPage(new PageImpl<>(
+                Arrays.asList(getPost(1, 1), getPost(2, 2)),
+                new PageRequest(0, 2), 5));
+    }
+
+    @Test
+    public void testArticlePageIsAffectedByChangeOfTheArticle() {
+        Article article = getPost(1, 1);
+        Article edited = new Article(article);
+        edited.setContent("Edited content");
+
+        assertThat(PageDependencies.ofArticle(article)
+                .isAffectedBy(getChange(article, edited))).isTrue();
+    }
+
+    @Test
+    public void testArticlePageIsNotAffectedByChangeOfAnotherPost() {
+        Article other = getPost(2, 2);
+
+        assertThat(PageDependencies.ofArticle(getPost(1, 1))
+                .isAffectedBy(getChange(other, null))).isFalse();
+    }
+
+    @Test
+    public void testEveryPageIsAffectedByPublishedBlogPage() {
+        Article page = getPost(7, 10);
+        page.setPost(false);
+
+        assertThat(PageDependencies.ofArticle(getPost(1, 1))
+                .isAffectedBy(getChange(null, page))).isTrue();
+    }
+
+    @Test
+    public void testIndexPageIsAffectedByEditOfListedPost() {
+        Article post = getPost(2, 2);
+        Article edited = new Article(post);
+        edited.setTitle("Edited title");
+
+        assertThat(getFirstIndexPage().isAffectedBy(getChange(post, edited)))
+                .isTrue();
+    }
+
+    @Test
+    public void testIndexPageIsNotAffectedByEditOfPostOnAnotherPage() {
+        Article post = getPost(4, 4);
+        Article edited = new Article(post);
+        edited.setTitle("Edited title");
+
+        assertThat(getFirstIndexPage().isAffectedBy(getChange(post, edited)))
+                .isFalse();
+    }
+
+    @Test
+    public void testIndexPageIsAffectedByNewerPost() {
+        assertThat(getFirstIndexPage()
+                .isAffectedBy(getChange(null, getPost(8, 0)))).isTrue();
+    }
+
+    @Test
+    public void testIndexPageIsNotAffectedByOlderPostWithinPageCount() {
+        assertThat(getFirstIndexPage()
+                .isAffectedBy(getChange(null, getPost(8, 10)))).isFalse();
+    }
+
+    @Test
+    public void testIndexPageIsAffectedByChangeOfPageCount() {
+        assertThat(getFirstIndexPage()
+                .isAffectedBy(getChange(getPost(4, 4), null))).isTrue();
+    }
+}
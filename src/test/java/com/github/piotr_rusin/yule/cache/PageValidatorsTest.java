@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.domain.ModificationSummary;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+import com.github.piotr_rusin.yule.service.ArticleChangeEvent;
+
+@RunWith(SpringRunner.class)
+public class PageValidatorsTest {
+    @Mock
+    private ArticleRepository repository;
+
+    private PageValidators validators;
+    private Article article;
+
+    @Before
+    public void setUp() {
+        when(repository.findPublishedPagesSummary())
+                .thenReturn(new ModificationSummary(0L, null));
+        validators = new PageValidators(repository);
+        article = new Article("Title", "Content");
+        ReflectionTestUtils.setField(article, "id", 1L);
+    }
+
+    private MockHttpServletResponse request(String etag) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET",
+                "/article");
+        if (etag != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        validators.checkNotModified(new ServletWebRequest(request, response),
+                article);
+        return response;
+    }
+
+    @Test
+    public void testCheckNotModifiedSetsValidators() {
+        MockHttpServletResponse response = request(null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotNull();
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNotNull();
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL))
+                .isEqualTo("no-cache");
+    }
+
+    @Test
+    public void testCheckNotModifiedAnswersMatchingETag() {
+        String etag = request(null).getHeader(HttpHeaders.ETAG);
+
+        assertThat(request(etag).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    public void testCheckNotModifiedDetectsNewVersion() {
+        String etag = request(null).getHeader(HttpHeaders.ETAG);
+        ReflectionTestUtils.setField(article, "version", 1);
+
+        assertThat(request(etag).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void testCheckNotModifiedDetectsNavigationChange() {
+        Article page = new Article("Page", "Content");
+        ReflectionTestUtils.setField(page, "id", 2L);
+        page.setPost(false);
+        page.setStatus(ArticleStatus.PUBLISHED);
+        String etag = request(null).getHeader(HttpHeaders.ETAG);
+        when(repository.findPublishedPagesSummary())
+                .thenReturn(new ModificationSummary(1L, Instant.now()));
+        validators.onArticleChange(ArticleChangeEvent.of(2L, null, page,
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(request(etag).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    public void testCheckNotModifiedIgnoresAuthenticatedUsers() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET",
+                "/article");
+        request.setUserPrincipal(() -> "admin");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThat(validators.checkNotModified(
+                new ServletWebRequest(request, response), article)).isFalse();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+}
@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import com.github.piotr_rusin.yule.datasource.ReplicaCacheModeJpaDialect.ReplicaTransactionData;
+
+@RunWith(SpringRunner.class)
+public class ReplicaCacheModeJpaDialectTest {
+    @Mock
+    private Session session;
+
+    private static DefaultTransactionDefinition getDefinition(
+            boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(readOnly);
+        return definition;
+    }
+
+    @Test
+    public void testReadOnlyTransactionsAreRoutedToReplica() {
+        assertThat(ReplicaCacheModeJpaDialect
+                .isRoutedToReplica(getDefinition(true))).isTrue();
+    }
+
+    @Test
+    public void testReadWriteTransactionsAreNotRoutedToReplica() {
+        assertThat(ReplicaCacheModeJpaDialect
+                .isRoutedToReplica(getDefinition(false))).isFalse();
+    }
+
+    @Test
+    public void testReadOnlyTransactionsInPrimaryReadsAreNotRoutedToReplica() {
+        try (PrimaryReads reads = PrimaryReads.begin()) {
+            assertThat(ReplicaCacheModeJpaDialect
+                    .isRoutedToReplica(getDefinition(true))).isFalse();
+        }
+    }
+
+    @Test
+    public void testRestrictCacheModeStopsPuttingDataInCaches() {
+        doReturn(CacheMode.NORMAL).when(session).getCacheMode();
+
+        CacheMode previous = ReplicaCacheModeJpaDialect
+                .restrictCacheMode(session);
+
+        verify(session).setCacheMode(CacheMode.GET);
+        assertThat(previous).isEqualTo(CacheMode.NORMAL);
+    }
+
+    @Test
+    public void testRestrictCacheModeIgnoresCachesIfSessionOnlyPutsData() {
+        doReturn(CacheMode.REFRESH).when(session).getCacheMode();
+
+        ReplicaCacheModeJpaDialect.restrictCacheMode(session);
+
+        verify(session).setCacheMode(CacheMode.IGNORE);
+    }
+
+    @Test
+    public void testRestrictCacheModeKeepsModeWithoutPuts() {
+        doReturn(CacheMode.GET).when(session).getCacheMode();
+
+        ReplicaCacheModeJpaDialect.restrictCacheMode(session);
+
+        verify(session, never()).setCacheMode(any(CacheMode.class));
+    }
+
+    @Test
+    public void testCleanupTransactionRestoresCacheMode() {
+        new ReplicaCacheModeJpaDialect().cleanupTransaction(
+                new ReplicaTransactionData(null, session, CacheMode.NORMAL));
+
+        verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+}
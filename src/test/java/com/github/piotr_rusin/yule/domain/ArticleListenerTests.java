@@ -91,6 +91,13 @@ public class ArticleListenerTests {
         testExpectedSlugAfterPersist(customSlug);
     }
 
+    @Test
+    public void testSlugCreatedFromTitleIsNotReserved() {
+        article.setTitle("Archive");
+
+        testExpectedSlugAfterPersist("archive-page");
+    }
+
     private void testExpectedSlugAfterUpdate(String expectedSlug) {
         entityManager.flush();
 
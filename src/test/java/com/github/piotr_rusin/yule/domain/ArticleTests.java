@@ -152,6 +152,90 @@ public class ArticleTests {
         assertDetectedOneExpectedViolation("status", null, "may not be null");
     }
 
+    @Test
+    public void shouldDetectReservedSlug() {
+        article.setSlug("archive");
+        assertDetectedOneExpectedViolation("slug", "archive",
+                "this value is reserved");
+    }
+
+    @Test
+    public void articleWithSlugStartingWithReservedValueIsValid() {
+        article.setSlug("archive-of-old-posts");
+        assertThat(validator.validate(article)).isEmpty();
+    }
+
+    @Test
+    public void getIntroductionReturnsContentBeforeMoreTag() {
+        article.setContent("Introduction<!--more-->Rest of the content");
+
+        assertThat(article.getIntroduction()).isEqualTo("Introduction");
+    }
+
+    @Test
+    public void getIntroductionReturnsNullWithoutMoreTag() {
+        article.setContent("Content without introduction");
+
+        assertThat(article.getIntroduction()).isNull();
+    }
+
+    @Test
+    public void getIntroductionReturnsNullWithNothingAfterMoreTags() {
+        article.setContent("Content<!--more--><!--more-->");
+
+        assertThat(article.getIntroduction()).isNull();
+    }
+
+    @Test
+    public void getIntroductionReturnsCustomIntroduction() {
+        article.setContent("Introduction<!--more-->Rest of the content");
+        article.setCustomIntroduction("Custom introduction");
+
+        assertThat(article.getIntroduction())
+                .isEqualTo("Custom introduction");
+    }
+
+    @Test
+    public void getIntroductionIsUpdatedWithContent() {
+        article.setContent("Introduction<!--more-->Rest of the content");
+        article.getIntroduction();
+        article.setContent("New introduction<!--more-->New content");
+
+        assertThat(article.getIntroduction()).isEqualTo("New introduction");
+    }
+
+    @Test
+    public void hasIntroductionIsTrueWithUnrenderedIntroduction() {
+        article.setContent("Introduction<!--more-->Rest of the content");
+
+        assertThat(article.getIntroductionHtml()).isNull();
+        assertThat(article.hasIntroduction()).isTrue();
+    }
+
+    @Test
+    public void hasIntroductionIsFalseWithoutIntroduction() {
+        article.setContent("Content without introduction");
+
+        assertThat(article.hasIntroduction()).isFalse();
+    }
+
+    @Test
+    public void hasIntroductionIsTrueForViewsWithOmittedContent() {
+        Article view = new Article(1L, 1, "Title", "title", true,
+                ArticleStatus.PUBLISHED, Instant.now(), Instant.now(),
+                "<p>Introduction</p>", null);
+
+        assertThat(view.hasIntroduction()).isTrue();
+    }
+
+    @Test
+    public void findTeaserBoundaryFindsFirstMoreTag() {
+        int actual = Article
+                .findTeaserBoundary("Intro<!--more-->More<!--more-->End");
+
+        assertThat(actual).isEqualTo("Intro".length());
+    }
+
     /**
      * Assert that one expected violation was detected.
      *
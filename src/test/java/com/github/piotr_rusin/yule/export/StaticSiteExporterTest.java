@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.github.piotr_rusin.yule.cache.LocalPageClient;
+import com.github.piotr_rusin.yule.config.ExportConfig;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.service.ArticleProvider;
+
+public class StaticSiteExporterTest {
+    private static final String POST_PATH = "/2017-10-01/an-example-title";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Article getArticle(boolean post) {
+        Article article = new Article("An example title", "Content");
+        ReflectionTestUtils.setField(article, "id", 1L);
+        ReflectionTestUtils.setField(article, "slug", "an-example-title");
+        article.setPost(post);
+        article.setStatus(ArticleStatus.PUBLISHED);
+        article.setPublicationTimestamp(Instant.parse("2017-10-01T23:30:00Z"));
+        return article;
+    }
+
+    private static ArticleSnapshot getSnapshot(boolean post) {
+        return ArticleSnapshot.of(getArticle(post));
+    }
+
+    private Path writePage(String path, String content) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(path.substring(1))
+                .resolve("index.html");
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testGetPathOfPost() {
+        assertThat(StaticSiteExporter.getPath(getSnapshot(true)))
+                .isEqualTo("/2017-10-01/an-example-title");
+    }
+
+    @Test
+    public void testGetPathOfPage() {
+        assertThat(StaticSiteExporter.getPath(getSnapshot(false)))
+                .isEqualTo("/an-example-title");
+    }
+
+    @Test
+    public void testExportAllKeepsPublishedPageThatFailedToExport()
+            throws IOException {
+        Path post = writePage(POST_PATH, "Previously exported post");
+        Path removed = writePage("/removed-page", "Removed page");
+        ArticleProvider articleProvider = mock(ArticleProvider.class);
+        doReturn(new PageImpl<>(Collections.singletonList(getArticle(true))))
+                .when(articleProvider).getBlogPostPage(0);
+        doReturn(Collections.emptyList()).when(articleProvider)
+                .getPublishedPages();
+        LocalPageClient client = mock(LocalPageClient.class);
+        doReturn("Index".getBytes(StandardCharsets.UTF_8)).when(client)
+                .getForExport("/");
+        doThrow(new ResourceAccessException("Connection reset"))
+                .when(client).getForExport(POST_PATH);
+        ExportConfig config = new ExportConfig();
+        config.setDirectory(folder.getRoot().toString());
+        config.setParallelism(1);
+        StaticSiteExporter exporter = new StaticSiteExporter(articleProvider,
+                client, config);
+
+        try {
+            exporter.exportAll();
+        } finally {
+            exporter.shutDown();
+        }
+
+        assertThat(new String(Files.readAllBytes(post),
+                StandardCharsets.UTF_8)).isEqualTo("Previously exported post");
+        assertThat(removed).doesNotExist();
+        assertThat(folder.getRoot().toPath().resolve("index.html")).exists();
+    }
+}
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+
+/**
+ * Integration tests verifying that SQL equivalents of ArticleRepository
+ * queries are planned with the indexes created for them.
+ * <p>
+ * The test data is too small for PostgreSQL to prefer index scans on its
+ * own, so sequential scans are disabled for each test transaction.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Sql(scripts = "classpath:insert_article_repository_test_data.sql")
+@ActiveProfiles("test")
+public class ArticleQueryPlanTests {
+    private static final String PUBLISHED_POSTS = "select id from articles "
+            + "where is_blog_post = true and status = 'PUBLISHED' ";
+    private static final String PUBLISHED_PAGES = "select id from articles "
+            + "where is_blog_post = false and status = 'PUBLISHED' ";
+    private static final String SCHEDULED = "select id from articles "
+            + "where status = 'SCHEDULED_FOR_PUBLICATION' ";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Before
+    public void setUp() {
+        entityManager.createNativeQuery("set local enable_seqscan = off")
+                .executeUpdate();
+        entityManager.createNativeQuery("analyze articles").executeUpdate();
+    }
+
+    @SuppressWarnings("unchecked")
+    private String explain(String query) {
+        List<Object> plan = entityManager
+                .createNativeQuery("explain " + query).getResultList();
+        return plan.stream().map(String::valueOf)
+                .collect(Collectors.joining("\n"));
+    }
+
+    /**
+     * Assert that a query is planned with one of given indexes.
+     * <p>
+     * More than one index may be expected, because with little data
+     * PostgreSQL may find them equally good. Any of them is better than a
+     * scan of the primary key index the planner falls back to instead of a
+     * sequential scan.
+     */
+    private void assertUsesIndex(String query, String... indexes) {
+        String plan = explain(query);
+        assertThat(plan).contains("Index").doesNotContain("Seq Scan")
+                .doesNotContain("articles_pkey");
+        assertThat(Arrays.stream(indexes).anyMatch(plan::contains))
+                .as("Plan using one of %s:%n%s", Arrays.toString(indexes), plan)
+                .isTrue();
+    }
+
+    @Test
+    public void testLatestPublishedPostsUseIndex() {
+        assertUsesIndex(PUBLISHED_POSTS
+                + "order by publication_timestamp desc, id desc limit 5",
+                "articles_published_posts_idx");
+    }
+
+    @Test
+    public void testPublishedPostsBeforeUseIndex() {
+        assertUsesIndex(PUBLISHED_POSTS
+                + "and publication_timestamp <= '2013-01-01' "
+                + "and (publication_timestamp < '2013-01-01' or id < 10) "
+                + "order by publication_timestamp desc, id desc limit 5",
+                "articles_published_posts_idx");
+    }
+
+    @Test
+    public void testPublishedPostsInRangeUseIndex() {
+        assertUsesIndex(PUBLISHED_POSTS
+                + "and publication_timestamp >= '2013-01-01' "
+                + "and publication_timestamp < '2014-01-01' "
+                + "order by publication_timestamp desc, id desc limit 5",
+                "articles_published_posts_idx");
+    }
+
+    @Test
+    public void testPublishedPostCountUsesIndex() {
+        assertUsesIndex(
+                "select count(*) from articles where is_blog_post = true "
+                        + "and status = 'PUBLISHED'",
+                "articles_published_posts_idx",
+                "articles_status_creation_timestamp_idx");
+    }
+
+    @Test
+    public void testPublishedPagesUseIndex() {
+        assertUsesIndex(PUBLISHED_PAGES
+                + "order by publication_timestamp desc",
+                "articles_published_pages_idx",
+                "articles_status_creation_timestamp_idx");
+    }
+
+    @Test
+    public void testPublishedPostBySlugUsesIndex() {
+        assertUsesIndex(PUBLISHED_POSTS + "and slug = 'the-first-slug'",
+                "articles_slug_key");
+    }
+
+    @Test
+    public void testPublishedPostBySlugAndDateUsesIndex() {
+        assertUsesIndex(PUBLISHED_POSTS + "and slug = 'the-first-slug' "
+                + "and publication_timestamp >= '2013-01-01' "
+                + "and publication_timestamp < '2013-01-02'",
+                "articles_published_posts_slug_idx", "articles_slug_key");
+    }
+
+    @Test
+    public void testScheduledByTimestampUsesIndex() {
+        assertUsesIndex(SCHEDULED
+                + "and publication_timestamp = '2015-11-16'",
+                "articles_scheduled_idx",
+                "articles_publication_timestamp_idx");
+    }
+
+    @Test
+    public void testCurrentAutoPublicationTargetsUseIndex() {
+        assertUsesIndex(SCHEDULED + "and publication_timestamp <= now()",
+                "articles_scheduled_idx",
+                "articles_status_creation_timestamp_idx");
+    }
+
+    @Test
+    public void testSearchUsesIndex() {
+        assertUsesIndex("select id from articles where status = 'PUBLISHED' "
+                + "and search_vector @@ plainto_tsquery('english', 'lorem')",
+                "articles_search_vector_idx");
+    }
+
+    @Test
+    public void testAdminArticleListUsesIndex() {
+        assertUsesIndex("select id from articles "
+                + "order by creation_timestamp desc limit 10",
+                "articles_creation_timestamp_idx");
+    }
+
+    @Test
+    public void testAdminArticleListByTypeUsesIndex() {
+        assertUsesIndex("select id from articles where is_blog_post = false "
+                + "order by creation_timestamp desc limit 10",
+                "articles_is_blog_post_creation_timestamp_idx");
+    }
+
+    @Test
+    public void testAdminArticleListByStatusUsesIndex() {
+        assertUsesIndex("select id from articles where status = 'DRAFT' "
+                + "order by creation_timestamp desc limit 10",
+                "articles_status_creation_timestamp_idx");
+    }
+
+    @Test
+    public void testAdminArticleListByTitlePrefixUsesIndex() {
+        assertUsesIndex(
+                "select id from articles where lower(title) like 'morbi%'",
+                "articles_lower_title_idx");
+    }
+}
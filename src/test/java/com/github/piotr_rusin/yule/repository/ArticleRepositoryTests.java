@@ -26,12 +26,20 @@ package com.github.piotr_rusin.yule.repository;
 import static org.assertj.core.api.Assertions.*;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.Cache;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -42,13 +50,30 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.jdbc.Sql;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.StringUtils;
 
+import com.github.piotr_rusin.yule.config.RenderingConfig;
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleListItem;
+import com.github.piotr_rusin.yule.domain.ArticleRecord;
 import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.domain.PostCursor;
+import com.github.piotr_rusin.yule.domain.SearchCursor;
+import com.github.piotr_rusin.yule.domain.SearchHit;
+import com.github.piotr_rusin.yule.service.MarkdownToHtmlConverter;
+import com.github.piotr_rusin.yule.service.ParallelArticleRenderer;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.options.MutableDataSet;
 
 /**
  * Integration tests for custom queries defined in ArticleRepository interface.
@@ -66,6 +91,9 @@ public class ArticleRepositoryTests {
     @Autowired
     private ArticleRepository articleRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Pageable allArticlePageRequest;
 
     private List<Article> allArticles;
@@ -78,23 +106,170 @@ public class ArticleRepositoryTests {
     }
 
     @Test
-    public void testFindPublishedPostsOrdersByPublicationDate() {
+    public void testFindLatestPublishedPostsOrdersByPublicationDate() {
         Comparator<Article> desc = Comparator
-                .comparing(Article::getPublicationTimestamp).reversed();
+                .comparing(Article::getPublicationTimestamp)
+                .thenComparing(Article::getId).reversed();
 
         List<Article> actualArticles = articleRepository
-                .findPublishedPosts(allArticlePageRequest).getContent();
+                .findLatestPublishedPosts(allArticlePageRequest);
 
         assertThat(actualArticles).isSortedAccordingTo(desc);
     }
 
     @Test
-    public void testFindPublishedPostsFindsAllExpectedArticles() {
+    public void testFindLatestPublishedPostsFindsAllExpectedArticles() {
         List<Article> expectedArticles = filterPublicArticles(Article::isPost);
-        Page<Article> actualArticles = articleRepository
-                .findPublishedPosts(allArticlePageRequest);
+        List<Article> actualArticles = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest);
 
-        assertThat(actualArticles).hasSameElementsAs(expectedArticles);
+        assertThat(actualArticles).extracting(Article::getId)
+                .hasSameElementsAs(expectedArticles.stream()
+                        .map(Article::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindLatestPublishedPostsOmitsContent() {
+        List<Article> actualArticles = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest);
+
+        assertThat(actualArticles).allMatch(a -> a.getContent() == null);
+    }
+
+    @Test
+    public void testFindPublishedPostsBeforeContinuesTheList() {
+        List<Article> posts = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest);
+        PostCursor cursor = PostCursor.of(posts.get(1));
+
+        List<Article> actualArticles = articleRepository
+                .findPublishedPostsBefore(cursor.getPublicationTimestamp(),
+                        cursor.getId(), allArticlePageRequest);
+
+        assertThat(actualArticles).extracting(Article::getId)
+                .containsExactlyElementsOf(posts.subList(2, posts.size())
+                        .stream().map(Article::getId)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindPublishedPostsAfterFindsPrecedingPosts() {
+        List<Article> posts = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest);
+        PostCursor cursor = PostCursor.of(posts.get(2));
+
+        List<Article> actualArticles = articleRepository
+                .findPublishedPostsAfter(cursor.getPublicationTimestamp(),
+                        cursor.getId(), allArticlePageRequest);
+
+        assertThat(actualArticles).extracting(Article::getId)
+                .containsExactly(posts.get(1).getId(), posts.get(0).getId());
+    }
+
+    @Test
+    public void testFindPublishedPostsBetweenFindsPostsInRange() {
+        List<Article> posts = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest);
+        Instant from = posts.get(posts.size() - 1).getPublicationTimestamp();
+        Instant to = posts.get(0).getPublicationTimestamp();
+
+        List<Article> actualArticles = articleRepository
+                .findPublishedPostsBetween(from, to, allArticlePageRequest);
+
+        assertThat(actualArticles).extracting(Article::getId)
+                .containsExactlyElementsOf(posts.stream()
+                        .filter(p -> p.getPublicationTimestamp().isBefore(to))
+                        .map(Article::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindPublishedPostsBetweenBeforeStopsAtRangeStart() {
+        List<Article> posts = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest);
+        PostCursor cursor = PostCursor.of(posts.get(0));
+        Instant from = posts.get(1).getPublicationTimestamp();
+
+        List<Article> actualArticles = articleRepository
+                .findPublishedPostsBetweenBefore(from,
+                        cursor.getPublicationTimestamp(), cursor.getId(),
+                        allArticlePageRequest);
+
+        assertThat(actualArticles).extracting(Article::getId)
+                .containsExactlyElementsOf(posts.subList(1, posts.size())
+                        .stream().filter(p -> !p.getPublicationTimestamp()
+                                .isBefore(from))
+                        .map(Article::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindPublishedPostTimestamps() {
+        List<Instant> expectedTimestamps = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest).stream()
+                .map(Article::getPublicationTimestamp)
+                .collect(Collectors.toList());
+
+        assertThat(articleRepository.findPublishedPostTimestamps())
+                .hasSameElementsAs(expectedTimestamps)
+                .hasSameSizeAs(expectedTimestamps);
+    }
+
+    @Test
+    public void testFindPublishedPostCursors() {
+        List<PostCursor> expectedCursors = articleRepository
+                .findLatestPublishedPosts(allArticlePageRequest).stream()
+                .map(PostCursor::of).collect(Collectors.toList());
+
+        List<PostCursor> actualCursors = articleRepository
+                .findPublishedPostCursors(allArticlePageRequest);
+
+        assertThat(actualCursors).isEqualTo(expectedCursors);
+        assertThat(articleRepository.countPublishedPosts())
+                .isEqualTo(expectedCursors.size());
+    }
+
+    @Test
+    public void testFindListItemsFindsAllArticles() {
+        Page<ArticleListItem> actual = articleRepository.findListItems(null,
+                allArticlePageRequest);
+
+        assertThat(actual.getContent()).extracting(ArticleListItem::getId)
+                .hasSameElementsAs(allArticles.stream().map(Article::getId)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testFindListItemsFiltersAndSorts() {
+        List<Long> expectedIds = allArticles.stream()
+                .filter(a -> a.getStatus() == ArticleStatus.DRAFT && a.isPost())
+                .sorted(Comparator.comparing(Article::getTitle))
+                .map(Article::getId).collect(Collectors.toList());
+        Specification<Article> filter = Specifications
+                .where(ArticleSpecifications.hasStatus(ArticleStatus.DRAFT))
+                .and(ArticleSpecifications.isPost(true));
+
+        Page<ArticleListItem> actual = articleRepository.findListItems(filter,
+                new PageRequest(0, allArticles.size(), Sort.Direction.ASC,
+                        "title"));
+
+        assertThat(actual.getContent()).extracting(ArticleListItem::getId)
+                .containsExactlyElementsOf(expectedIds);
+    }
+
+    @Test
+    public void testTitleStartsWithIgnoresCase() {
+        List<Article> actual = articleRepository
+                .findAll(ArticleSpecifications.titleStartsWith("mORBI"));
+
+        assertThat(actual).isNotEmpty()
+                .allMatch(a -> a.getTitle().startsWith("Morbi"));
+    }
+
+    @Test
+    public void testTitleStartsWithEscapesWildcards() {
+        List<Article> actual = articleRepository
+                .findAll(ArticleSpecifications.titleStartsWith("%"));
+
+        assertThat(actual).isEmpty();
     }
 
     @Test
@@ -105,15 +280,45 @@ public class ArticleRepositoryTests {
         assertThat(actualArticles).hasSameElementsAs(expectedArticles);
     }
 
+    private Article findPublishedPostBy(String slug, Instant publicationDate) {
+        Instant from = publicationDate.truncatedTo(ChronoUnit.DAYS);
+        return articleRepository.findPublishedPostBy(slug, from,
+                from.plus(1, ChronoUnit.DAYS));
+    }
+
     @Test
     public void testFindPublishedPostBy() {
         Article expectedArticle = getRandomPublicArticleBy(Article::isPost);
-        Article actualArticle = articleRepository
-                .findPublishedPostBy(expectedArticle.getSlug());
+        Article actualArticle = findPublishedPostBy(expectedArticle.getSlug(),
+                expectedArticle.getPublicationTimestamp());
 
         assertThat(actualArticle).isEqualTo(expectedArticle);
     }
 
+    @Test
+    public void testFindPublishedPostByReturnsNullForAnotherDate() {
+        Article article = getRandomPublicArticleBy(Article::isPost);
+        Article actualArticle = findPublishedPostBy(article.getSlug(),
+                article.getPublicationTimestamp().minus(1, ChronoUnit.DAYS));
+
+        assertThat(actualArticle).isNull();
+    }
+
+    @Test
+    public void testFindPublishedPostByStoresArticleInSecondLevelCache() {
+        Article expectedArticle = getRandomPublicArticleBy(Article::isPost);
+        Cache cache = entityManager.getEntityManager()
+                .getEntityManagerFactory().getCache();
+        entityManager.clear();
+        cache.evictAll();
+
+        findPublishedPostBy(expectedArticle.getSlug(),
+                expectedArticle.getPublicationTimestamp());
+
+        assertThat(cache.contains(Article.class, expectedArticle.getId()))
+                .isTrue();
+    }
+
     @Test
     public void testFindPublishedPageBy() {
         Article expectedArticle = getRandomPublicArticleBy(a -> !a.isPost());
@@ -197,9 +402,239 @@ public class ArticleRepositoryTests {
         List<Article> expected = filterScheduledArticles(
                 a -> !a.getPublicationTimestamp().isAfter(Instant.now()));
         List<Article> actual = articleRepository
-                .findCurrentAutoPublicationTargets();
+                .findCurrentAutoPublicationTargets(0, allArticlePageRequest);
 
         assertThat(actual).hasSameElementsAs(expected);
+        assertThat(actual).isSortedAccordingTo(
+                Comparator.comparing(Article::getId));
+    }
+
+    /**
+     * Get copies of current auto-publication targets, as they are passed to
+     * {@link ArticleRepository#publishScheduled(List)}, with the first of them
+     * having an outdated version.
+     */
+    private List<Article> getRenderedAutoPublicationTargets(String html) {
+        List<Article> targets = new ArrayList<>();
+        for (Article article : articleRepository
+                .findCurrentAutoPublicationTargets(0, allArticlePageRequest)) {
+            Article copy = new Article(article);
+            copy.setContentHtml(html);
+            targets.add(copy);
+        }
+        ReflectionTestUtils.setField(targets.get(0), "version",
+                targets.get(0).getVersion() - 1);
+        return targets;
+    }
+
+    @Test
+    public void testPublishScheduledPublishesArticlesWithExpectedVersions() {
+        List<Article> targets = getRenderedAutoPublicationTargets(null);
+        Article stale = targets.get(0);
+
+        List<Long> published = articleRepository.publishScheduled(targets);
+        entityManager.clear();
+
+        assertThat(published).hasSameElementsAs(targets.stream()
+                .filter(a -> a != stale).map(Article::getId)
+                .collect(Collectors.toList()));
+        for (Article target : targets.subList(1, targets.size())) {
+            Article article = articleRepository.findOne(target.getId());
+            assertThat(article.getStatus())
+                    .isEqualTo(ArticleStatus.PUBLISHED);
+            assertThat(article.getVersion())
+                    .isEqualTo(target.getVersion() + 1);
+        }
+        assertThat(articleRepository.findOne(stale.getId()).getStatus())
+                .isEqualTo(ArticleStatus.SCHEDULED_FOR_PUBLICATION);
+    }
+
+    @Test
+    public void testPublishScheduledReplacesStoredHtml() {
+        String previousHtml = "<p>Rendered with previous options</p>";
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE articles SET content_html = ?1 "
+                        + "WHERE status = 'SCHEDULED_FOR_PUBLICATION'")
+                .setParameter(1, previousHtml).executeUpdate();
+        entityManager.clear();
+        String currentHtml = "<p>Rendered with current options</p>";
+        List<Article> targets = getRenderedAutoPublicationTargets(
+                currentHtml);
+        Article stale = targets.get(0);
+
+        articleRepository.publishScheduled(targets);
+        entityManager.clear();
+
+        for (Article target : targets.subList(1, targets.size())) {
+            assertThat(articleRepository.findOne(target.getId())
+                    .getContentHtml()).isEqualTo(currentHtml);
+        }
+        assertThat(articleRepository.findOne(stale.getId()).getContentHtml())
+                .isEqualTo(previousHtml);
+    }
+
+    @Test
+    public void testRenderMissingHtmlKeepsVersionsOfManagedArticles() {
+        entityManager.getEntityManager()
+                .createNativeQuery("UPDATE articles SET content_html = NULL, "
+                        + "introduction_html = NULL")
+                .executeUpdate();
+        entityManager.clear();
+        List<Article> articles = articleRepository.findAll();
+        Map<Long, Integer> versions = articles.stream().collect(
+                Collectors.toMap(Article::getId, Article::getVersion));
+        RenderingConfig config = new RenderingConfig();
+        MutableDataSet options = new MutableDataSet();
+        ParallelArticleRenderer renderer = new ParallelArticleRenderer(
+                articleRepository,
+                new MarkdownToHtmlConverter(Parser.builder(options).build(),
+                        HtmlRenderer.builder(options).build(), options,
+                        config),
+                config);
+
+        try {
+            renderer.renderMissingHtml(articles);
+        } finally {
+            renderer.shutDown();
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(articles.size()).isGreaterThan(1);
+        for (Article article : articleRepository.findAll()) {
+            assertThat(article.getVersion())
+                    .isEqualTo(versions.get(article.getId()));
+            if (article.getContent() != null) {
+                assertThat(article.getContentHtml()).isNotNull();
+            }
+        }
+    }
+
+    private Map<Long, Integer> getVersionsWithStale(List<Article> articles,
+            Article stale) {
+        Map<Long, Integer> versions = new HashMap<>();
+        for (Article article : articles) {
+            versions.put(article.getId(), article == stale
+                    ? article.getVersion() - 1 : article.getVersion());
+        }
+        return versions;
+    }
+
+    @Test
+    public void publishSelectedPublishesUnpublishedArticlesWithContent() {
+        List<Article> drafts = filterArticles(
+                a -> a.getStatus() != ArticleStatus.PUBLISHED);
+        Article stale = drafts.get(0);
+        Map<Long, Integer> versions = getVersionsWithStale(drafts, stale);
+
+        Map<Long, Instant> published = articleRepository
+                .publishSelected(versions);
+        entityManager.clear();
+
+        assertThat(published.keySet()).hasSameElementsAs(drafts.stream()
+                .filter(a -> a != stale)
+                .filter(a -> StringUtils.hasText(a.getContent()))
+                .map(Article::getId).collect(Collectors.toList()));
+        for (Long id : published.keySet()) {
+            Article article = articleRepository.findOne(id);
+            assertThat(article.getStatus())
+                    .isEqualTo(ArticleStatus.PUBLISHED);
+            assertThat(article.getPublicationTimestamp())
+                    .isEqualTo(published.get(id));
+        }
+        assertThat(articleRepository.findOne(stale.getId()).getStatus())
+                .isEqualTo(stale.getStatus());
+    }
+
+    @Test
+    public void deleteSelectedDeletesArticlesWithExpectedVersions() {
+        List<Article> selected = allArticles.subList(0, 3);
+        Article stale = selected.get(0);
+        Map<Long, Integer> versions = getVersionsWithStale(selected, stale);
+
+        List<Long> deleted = articleRepository.deleteSelected(versions);
+        entityManager.clear();
+
+        assertThat(deleted).containsOnly(selected.get(1).getId(),
+                selected.get(2).getId());
+        assertThat(articleRepository.exists(stale.getId())).isTrue();
+        assertThat(articleRepository.count())
+                .isEqualTo(allArticles.size() - 2);
+    }
+
+    @Test
+    public void searchFindsPublishedArticleByTitle() {
+        Article article = getRandomPublicArticleBy(a -> true);
+
+        List<SearchHit> hits = articleRepository.search(article.getTitle(),
+                null, allArticles.size());
+
+        assertThat(hits).extracting(SearchHit::getId)
+                .contains(article.getId());
+        assertThat(hits).isSortedAccordingTo(Comparator
+                .comparing(SearchHit::getRank).thenComparing(SearchHit::getId)
+                .reversed());
+        assertThat(hits).allMatch(h -> h.getSnippet() != null);
+    }
+
+    @Test
+    public void searchSkipsUnpublishedArticles() {
+        Article article = filterScheduledArticles(null).get(0);
+
+        List<SearchHit> hits = articleRepository.search(article.getTitle(),
+                null, allArticles.size());
+
+        assertThat(hits).extracting(SearchHit::getId)
+                .doesNotContain(article.getId());
+    }
+
+    @Test
+    public void searchAfterCursorContinuesResults() {
+        String terms = getRandomPublicArticleBy(a -> true).getTitle()
+                .split(" ")[0];
+        List<SearchHit> hits = articleRepository.search(terms, null,
+                allArticles.size());
+
+        List<SearchHit> actual = articleRepository.search(terms,
+                SearchCursor.of(hits.get(0)), allArticles.size());
+
+        assertThat(actual).extracting(SearchHit::getId)
+                .containsExactlyElementsOf(hits.subList(1, hits.size())
+                        .stream().map(SearchHit::getId)
+                        .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testInsertAllInsertsArticles() {
+        Article first = new Article("Imported title 1", "Content");
+        Article second = new Article("Imported title 2", "Content");
+
+        articleRepository.insertAll(Arrays.asList(first, second));
+
+        assertThat(second.getId()).isGreaterThan(first.getId());
+        assertThat(articleRepository.findOne(second.getId()).getSlug())
+                .isEqualTo("imported-title-2");
+    }
+
+    @Test
+    public void testStreamAllRecordsReadsArticlesInOrder() {
+        List<ArticleRecord> records;
+        try (Stream<ArticleRecord> stream = articleRepository
+                .streamAllRecords()) {
+            records = stream.collect(Collectors.toList());
+        }
+
+        assertThat(records).extracting(ArticleRecord::getId)
+                .containsExactlyElementsOf(allArticles.stream()
+                        .map(Article::getId).sorted()
+                        .collect(Collectors.toList()));
+        Article article = allArticles.get(0);
+        ArticleRecord record = records.stream()
+                .filter(r -> r.getId().equals(article.getId())).findFirst()
+                .get();
+        assertThat(record.toArticle().getContent())
+                .isEqualTo(article.getContent());
+        assertThat(record.getStatus()).isEqualTo(article.getStatus().name());
     }
 
     private List<Article> filterScheduledArticles(
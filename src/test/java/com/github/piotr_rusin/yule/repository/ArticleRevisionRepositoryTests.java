@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.repository;
+
+import static org.assertj.core.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.List;
+
+import javax.persistence.PersistenceException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.domain.ArticleRevision;
+import com.github.piotr_rusin.yule.domain.ArticleRevisionItem;
+import com.github.piotr_rusin.yule.domain.Revision;
+
+/**
+ * Integration tests for queries defined in ArticleRevisionRepository
+ * interface.
+ *
+ * @author Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ */
+@RunWith(SpringRunner.class)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@Sql(scripts = "classpath:insert_article_repository_test_data.sql")
+@ActiveProfiles("test")
+public class ArticleRevisionRepositoryTests {
+
+    @Autowired
+    private ArticleRevisionRepository revisionRepository;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private long articleId;
+
+    /**
+     * Store revisions 0 to 5 of an article, with snapshots at versions 0 and
+     * 3.
+     */
+    @Before
+    public void setUp() {
+        articleId = articleRepository.findAll().get(0).getId();
+        for (int version = 0; version < 6; version++) {
+            Revision revision = new Revision(articleId, version,
+                    "Title " + version, null, "", Instant.now());
+            entityManager.persist(new ArticleRevision(revision,
+                    version % 3 == 0 ? null : version - 1,
+                    new byte[] { (byte) version }));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    public void testFindChainStartsWithLastPrecedingSnapshot() {
+        List<ArticleRevision> chain = revisionRepository.findChain(articleId,
+                5);
+
+        assertThat(chain).extracting(ArticleRevision::getVersion)
+                .containsExactly(3, 4, 5);
+        assertThat(chain.get(0).isSnapshot()).isTrue();
+    }
+
+    @Test
+    public void testFindChainOfSnapshotContainsOnlyTheSnapshot() {
+        List<ArticleRevision> chain = revisionRepository.findChain(articleId,
+                3);
+
+        assertThat(chain).extracting(ArticleRevision::getVersion)
+                .containsExactly(3);
+    }
+
+    @Test
+    public void testFindPreviousVersionFindsPrecedingRevision() {
+        assertThat(revisionRepository.findPreviousVersion(articleId, 3))
+                .isEqualTo(2);
+        assertThat(revisionRepository.findPreviousVersion(articleId, 0))
+                .isNull();
+        assertThat(revisionRepository.findLatestVersion(articleId))
+                .isEqualTo(5);
+    }
+
+    @Test
+    public void testFindItemsOrdersByVersionDescending() {
+        List<ArticleRevisionItem> items = revisionRepository
+                .findItems(articleId);
+
+        assertThat(items).extracting(ArticleRevisionItem::getVersion)
+                .containsExactly(5, 4, 3, 2, 1, 0);
+    }
+
+    @Test
+    public void testDeltasCantShareBaseVersion() {
+        Revision revision = new Revision(articleId, 6, "Title 6", null, "",
+                Instant.now());
+        entityManager.persist(
+                new ArticleRevision(revision, 4, new byte[] { 6 }));
+
+        assertThatExceptionOfType(PersistenceException.class)
+                .isThrownBy(entityManager::flush);
+    }
+
+    @Test
+    public void testRevisionsAreDeletedWithArticle() {
+        articleRepository.delete(articleId);
+        articleRepository.flush();
+
+        assertThat(revisionRepository.findItems(articleId)).isEmpty();
+    }
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.piotr_rusin.yule.config.RenderingConfig;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+@RunWith(SpringRunner.class)
+public class ArticleImporterTest {
+    private static final String DRAFT = "{\"title\": \"Title %s\", "
+            + "\"content\": \"Content\", \"status\": \"DRAFT\"}\n";
+
+    @Mock
+    private ArticleRepository repository;
+
+    @Mock
+    private AutoPublicationScheduler publicationScheduler;
+
+    @Mock
+    private MarkdownToHtmlConverter markdownConverter;
+
+    @Mock
+    private ArticleTitleIndex titleIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RenderingConfig renderingConfig;
+
+    private ValidatorFactory validatorFactory;
+
+    private ArticleImporter importer;
+
+    @Before
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        Validator validator = validatorFactory.getValidator();
+        doReturn(2).when(renderingConfig).getParallelism();
+        importer = new ArticleImporter(repository, publicationScheduler,
+                markdownConverter, titleIndex, validator, eventPublisher,
+                new ObjectMapper(), renderingConfig);
+    }
+
+    @After
+    public void tearDown() {
+        importer.shutDown();
+        validatorFactory.close();
+    }
+
+    private static InputStream getInput(String records) {
+        return new ByteArrayInputStream(
+                records.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String getDrafts(int count) {
+        StringBuilder records = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            records.append(String.format(DRAFT, i));
+        }
+        return records.toString();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void importArticlesInsertsBatches() throws IOException {
+        ArgumentCaptor<List<Article>> batches = ArgumentCaptor
+                .forClass((Class<List<Article>>) (Class<?>) List.class);
+
+        ImportReport report = importer.importArticles(
+                getInput(getDrafts(ArticleImporter.BATCH_SIZE + 1)));
+
+        assertThat(report.getImportedCount())
+                .isEqualTo(ArticleImporter.BATCH_SIZE + 1);
+        assertThat(report.isComplete()).isTrue();
+        verify(repository, times(2)).insertAll(batches.capture());
+        assertThat(batches.getAllValues().get(0))
+                .hasSize(ArticleImporter.BATCH_SIZE);
+        assertThat(batches.getAllValues().get(1)).extracting(Article::getSlug)
+                .containsExactly("title-500");
+        verify(markdownConverter, times(ArticleImporter.BATCH_SIZE + 1))
+                .renderHtmlOf(any(Article.class));
+        verify(eventPublisher, times(2))
+                .publishEvent(any(ArticleChangeEvent.class));
+        verify(publicationScheduler, times(1)).scheduleNew();
+    }
+
+    @Test
+    public void importArticlesRejectsInvalidRecords() throws IOException {
+        String records = String.format(DRAFT, 1)
+                + "{\"title\": \"\", \"content\": \"Content\"}\n"
+                + "{\"title\": \"Future\", \"content\": \"Content\", "
+                + "\"status\": \"PUBLISHED\", "
+                + "\"publicationTimestamp\": \"2999-01-01T00:00:00Z\"}\n"
+                + "{\"title\": \"Date\", \"content\": \"Content\", "
+                + "\"publicationTimestamp\": \"yesterday\"}\n"
+                + "{\"title\": \"Status\", \"content\": \"Content\", "
+                + "\"status\": \"HIDDEN\"}\n";
+
+        ImportReport report = importer.importArticles(getInput(records));
+
+        assertThat(report.getImportedCount()).isEqualTo(1);
+        assertThat(report.getRejectedCount()).isEqualTo(4);
+        assertThat(report.getErrors()).hasSize(4);
+        assertThat(report.getErrors().get(0)).startsWith("Line 2: title");
+        assertThat(report.getErrors().get(1))
+                .startsWith("Line 3: publicationTimestamp");
+        verify(repository).insertAll(anyListOf(Article.class));
+    }
+
+    @Test
+    public void importArticlesRejectsDuplicateTitles() throws IOException {
+        doReturn(true).when(titleIndex).isTitleTaken(any(Article.class));
+
+        ImportReport report = importer
+                .importArticles(getInput(getDrafts(2)));
+
+        assertThat(report.getImportedCount()).isEqualTo(0);
+        assertThat(report.getRejectedCount()).isEqualTo(2);
+        verify(repository, never()).insertAll(anyListOf(Article.class));
+        verify(publicationScheduler).scheduleNew();
+    }
+
+    @Test
+    public void importArticlesRejectsTitlesRepeatedInBatch()
+            throws IOException {
+        ImportReport report = importer.importArticles(
+                getInput(String.format(DRAFT, 1) + String.format(DRAFT, 1)));
+
+        assertThat(report.getImportedCount()).isEqualTo(1);
+        assertThat(report.getErrors()).containsExactly(
+                "Line 2: An article named \"Title 1\" already exists.");
+    }
+
+    @Test
+    public void importArticlesStopsAtMalformedRecord() throws IOException {
+        ImportReport report = importer.importArticles(
+                getInput(String.format(DRAFT, 1) + "{\"title\": \n"));
+
+        assertThat(report.isComplete()).isFalse();
+        assertThat(report.getImportedCount()).isEqualTo(1);
+        verify(publicationScheduler).scheduleNew();
+    }
+
+    @Test
+    public void importArticlesContinuesAfterFailedBatch() throws IOException {
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(repository).insertAll(anyListOf(Article.class));
+
+        ImportReport report = importer
+                .importArticles(getInput(getDrafts(3)));
+
+        assertThat(report.getImportedCount()).isEqualTo(0);
+        assertThat(report.getRejectedCount()).isEqualTo(3);
+        assertThat(report.isComplete()).isTrue();
+        verify(eventPublisher, never())
+                .publishEvent(any(ArticleChangeEvent.class));
+        verify(publicationScheduler).scheduleNew();
+    }
+}
@@ -25,11 +25,18 @@ package com.github.piotr_rusin.yule.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Before;
@@ -39,14 +46,19 @@ import org.mockito.Mock;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.github.piotr_rusin.yule.config.YuleConfig;
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleListItem;
 import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.domain.PostCursor;
 import com.github.piotr_rusin.yule.exception.PageNotFoundException;
 import com.github.piotr_rusin.yule.exception.ResourceNotFoundException;
 import com.github.piotr_rusin.yule.repository.ArticleRepository;
+import com.github.piotr_rusin.yule.repository.ArticleSpecifications;
 
 @RunWith(SpringRunner.class)
 public class ArticleProviderTest {
@@ -56,15 +68,22 @@ public class ArticleProviderTest {
     @Mock
     private YuleConfig config;
 
+    @Mock
+    private PublishedPostCounter publishedPostCounter;
+
+    @Mock
+    private PostArchive postArchive;
+
     private ArticleProvider articleProvider;
 
     @Before
     public void setUp() {
-        articleProvider = new ArticleProvider(repository, config);
+        articleProvider = new ArticleProvider(repository, config,
+                publishedPostCounter, postArchive);
     }
 
     /**
-     * Get a page of articles to be used during a test.
+     * Get a page of admin article list items to be used during a test.
      *
      * @param pageRequest
      *            is a page request used to query for the page.
@@ -72,62 +91,89 @@ public class ArticleProviderTest {
      *            if true, the returned collection will be empty.
      * @return the page.
      */
-    private Page<Article> getArticlePage(PageRequest pageRequest,
+    private Page<ArticleListItem> getArticleListPage(PageRequest pageRequest,
             boolean empty) {
-        List<Article> content = new ArrayList<>();
+        List<ArticleListItem> content = new ArrayList<>();
         int actualCount = empty ? 0 : pageRequest.getPageSize();
         for (int i = 0; i < actualCount; i++) {
-            content.add(new Article("Title " + i, "Content " + i));
+            content.add(new ArticleListItem((long) i, 0, "Title " + i,
+                    "title-" + i, true, ArticleStatus.DRAFT, Instant.now(),
+                    null));
         }
         return new PageImpl<>(content, pageRequest, actualCount * 10);
     }
 
     /**
-     * Configure the repository to return a page of blog posts.
-     * <p>
-     * The configuration mock object is also configured so that the number of
-     * posts listed on the index page will be equal to the size of the requested
-     * page.
+     * Get a list of published blog posts to be used during a test.
      *
-     * @param page
-     *            is the page to be configured as the return value of a query
-     *            for published blog posts.
-     * @param pageRequest
-     *            is a page request to be configured as a request for the page.
+     * @param count
+     *            is the number of the posts.
+     * @return the posts, from the most recently published.
+     */
+    private List<Article> getPublishedPosts(int count) {
+        List<Article> posts = new ArrayList<>();
+        Instant timestamp = Instant.parse("2017-06-01T12:00:00Z");
+        for (int i = 0; i < count; i++) {
+            Article post = new Article("Title " + i, "Content " + i);
+            ReflectionTestUtils.setField(post, "id", (long) count - i);
+            post.setPublicationTimestamp(timestamp.minus(i, ChronoUnit.DAYS));
+            post.setStatus(ArticleStatus.PUBLISHED);
+            post.setContentHtml("<p>Content " + i + "</p>");
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    /**
+     * Configure the mock objects so that there are the given number of
+     * published blog posts, and the given number of them is listed on a page.
+     *
+     * @param pageSize
+     *            is the number of posts listed on the index page.
+     * @param total
+     *            is the number of all published blog posts.
      */
-    private void setUpAsPublishedBlogPostPage(Page<Article> page,
-            PageRequest pageRequest) {
-        doReturn(pageRequest.getPageSize()).when(config).getIndexPageSize();
-        doReturn(page).when(repository).findPublishedPosts(pageRequest);
+    private void setUpPublishedPosts(int pageSize, long total) {
+        doReturn(pageSize).when(config).getIndexPageSize();
+        doReturn(total).when(publishedPostCounter).get();
     }
 
     @Test
     public void testGetBlogPostPageReturnsRequestedPage() {
         PageRequest pageRequest = new PageRequest(2, 10);
-        Page<Article> expected = getArticlePage(pageRequest, false);
-        setUpAsPublishedBlogPostPage(expected, pageRequest);
+        PostCursor anchor = new PostCursor(
+                Instant.parse("2017-07-01T12:00:00Z"), 42L);
+        List<Article> posts = getPublishedPosts(10);
+        setUpPublishedPosts(10, 100);
+        doReturn(Collections.singletonList(anchor)).when(repository)
+                .findPublishedPostCursors(new PageRequest(19, 1));
+        doReturn(posts).when(repository).findPublishedPostsBefore(
+                anchor.getPublicationTimestamp(), 42L, new PageRequest(0, 10));
 
         Page<Article> actual = articleProvider.getBlogPostPage(2);
 
-        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).isEqualTo(new PageImpl<>(posts, pageRequest, 100));
     }
 
     @Test
     public void testGetBlogPostPageReturnsNull() {
         PageRequest pageRequest = new PageRequest(0, 10);
-        Page<Article> expected = getArticlePage(pageRequest, true);
-        setUpAsPublishedBlogPostPage(expected, pageRequest);
+        setUpPublishedPosts(10, 0);
+        doReturn(Collections.emptyList()).when(repository)
+                .findLatestPublishedPosts(pageRequest);
 
         Page<Article> actual = articleProvider.getBlogPostPage(0);
 
-        assertThat(actual).isEqualTo(expected);
+        assertThat(actual).isEqualTo(
+                new PageImpl<>(Collections.emptyList(), pageRequest, 0));
     }
 
     @Test
     public void testGetBlogPostPageRaisesPageNotFound() {
         PageRequest pageRequest = new PageRequest(2, 10);
-        Page<Article> expected = getArticlePage(pageRequest, true);
-        setUpAsPublishedBlogPostPage(expected, pageRequest);
+        setUpPublishedPosts(10, 15);
+        doReturn(Collections.emptyList()).when(repository)
+                .findPublishedPostCursors(new PageRequest(19, 1));
 
         assertThatExceptionOfType(PageNotFoundException.class)
                 .isThrownBy(() -> articleProvider.getBlogPostPage(2))
@@ -136,14 +182,143 @@ public class ArticleProviderTest {
                         pageRequest));
     }
 
+    @Test
+    public void testGetBlogPostPageSeeksFromPrecedingPage() {
+        List<Article> posts = getPublishedPosts(20);
+        Article last = posts.get(9);
+        setUpPublishedPosts(10, 20);
+        doReturn(posts.subList(0, 10)).when(repository)
+                .findLatestPublishedPosts(new PageRequest(0, 10));
+        doReturn(posts.subList(10, 20)).when(repository)
+                .findPublishedPostsBefore(last.getPublicationTimestamp(),
+                        last.getId(), new PageRequest(0, 10));
+
+        articleProvider.getBlogPostPage(0);
+        Page<Article> actual = articleProvider.getBlogPostPage(1);
+
+        assertThat(actual.getContent()).isEqualTo(posts.subList(10, 20));
+        verify(repository, never()).findPublishedPostCursors(any());
+    }
+
+    @Test
+    public void testOnArticleChangeForgetsPageAnchors() {
+        List<Article> posts = getPublishedPosts(20);
+        setUpPublishedPosts(10, 20);
+        doReturn(posts.subList(0, 10)).when(repository)
+                .findLatestPublishedPosts(new PageRequest(0, 10));
+        articleProvider.getBlogPostPage(0);
+        doReturn(Collections.singletonList(PostCursor.of(posts.get(9))))
+                .when(repository)
+                .findPublishedPostCursors(new PageRequest(9, 1));
+        doReturn(posts.subList(10, 20)).when(repository)
+                .findPublishedPostsBefore(posts.get(9).getPublicationTimestamp(),
+                        posts.get(9).getId(), new PageRequest(0, 10));
+        Article published = getPublishedPosts(1).get(0);
+
+        articleProvider
+                .onArticleChange(ArticleChangeEvent.of(1L, null, published,
+                        ArticleChangeEvent.nextPosition()));
+        articleProvider.getBlogPostPage(1);
+
+        verify(repository).findPublishedPostCursors(new PageRequest(9, 1));
+    }
+
+    @Test
+    public void testGetBlogPostPageLoadsUnrenderedPosts() {
+        List<Article> views = getPublishedPosts(10);
+        Article unrendered = views.get(3);
+        unrendered.setContentHtml(null);
+        Article loaded = new Article(unrendered);
+        setUpPublishedPosts(10, 10);
+        doReturn(views).when(repository)
+                .findLatestPublishedPosts(new PageRequest(0, 10));
+        doReturn(Collections.singletonList(loaded)).when(repository)
+                .findAll(Collections.singletonList(unrendered.getId()));
+
+        Page<Article> actual = articleProvider.getBlogPostPage(0);
+
+        assertThat(actual.getContent().get(3)).isSameAs(loaded);
+        assertThat(actual.getContent().subList(0, 3))
+                .isEqualTo(views.subList(0, 3));
+    }
+
+    @Test
+    public void testGetBlogPostPageBeforeCursor() {
+        PageRequest pageRequest = new PageRequest(1, 10);
+        List<Article> posts = getPublishedPosts(10);
+        PostCursor before = new PostCursor(
+                Instant.parse("2017-01-01T12:00:00Z"), 7L);
+        List<Article> reversed = new ArrayList<>(posts);
+        Collections.reverse(reversed);
+        setUpPublishedPosts(10, 30);
+        doReturn(reversed).when(repository).findPublishedPostsAfter(
+                before.getPublicationTimestamp(), 7L, new PageRequest(0, 10));
+
+        Page<Article> actual = articleProvider.getBlogPostPage(1, null, before);
+
+        assertThat(actual).isEqualTo(new PageImpl<>(posts, pageRequest, 30));
+    }
+
+    @Test
+    public void testGetArchivePageReturnsPostsOfMonth() {
+        PageRequest pageRequest = new PageRequest(0, 10);
+        List<Article> posts = getPublishedPosts(10);
+        YearMonth month = YearMonth.of(2017, 5);
+        setUpPublishedPosts(10, 100);
+        doReturn(15L).when(postArchive).countPosts(month, month);
+        doReturn(posts).when(repository).findPublishedPostsBetween(
+                Instant.parse("2017-05-01T00:00:00Z"),
+                Instant.parse("2017-06-01T00:00:00Z"), pageRequest);
+
+        Page<Article> actual = articleProvider.getArchivePage(month, month, 0,
+                null, null);
+
+        assertThat(actual).isEqualTo(new PageImpl<>(posts, pageRequest, 15));
+    }
+
+    @Test
+    public void testGetArchivePageSeeksWithinYear() {
+        PageRequest pageRequest = new PageRequest(1, 10);
+        List<Article> posts = getPublishedPosts(10);
+        PostCursor after = new PostCursor(
+                Instant.parse("2017-08-01T12:00:00Z"), 7L);
+        YearMonth first = YearMonth.of(2017, 1);
+        YearMonth last = YearMonth.of(2017, 12);
+        setUpPublishedPosts(10, 100);
+        doReturn(30L).when(postArchive).countPosts(first, last);
+        doReturn(posts).when(repository).findPublishedPostsBetweenBefore(
+                Instant.parse("2017-01-01T00:00:00Z"),
+                after.getPublicationTimestamp(), 7L, new PageRequest(0, 10));
+
+        Page<Article> actual = articleProvider.getArchivePage(first, last, 1,
+                after, null);
+
+        assertThat(actual).isEqualTo(new PageImpl<>(posts, pageRequest, 30));
+    }
+
+    @Test
+    public void testGetArchivePageThrowsResourceNotFoundForEmptyMonth() {
+        YearMonth month = YearMonth.of(2017, 5);
+        setUpPublishedPosts(10, 100);
+        doReturn(Collections.emptyList()).when(repository)
+                .findPublishedPostsBetween(any(), any(), any());
+
+        assertThatExceptionOfType(ResourceNotFoundException.class)
+                .isThrownBy(() -> articleProvider.getArchivePage(month, month,
+                        0, null, null))
+                .withMessage(
+                        "No blog posts were published from 2017-05 to 2017-05.");
+    }
+
     @Test
     public void testGetAdminArticleListPageReturnsRequestedPage() {
         PageRequest pageRequest = new PageRequest(2, 10);
-        Page<Article> expected = getArticlePage(pageRequest, false);
-        doReturn(expected).when(repository).findAll(pageRequest);
+        Page<ArticleListItem> expected = getArticleListPage(pageRequest,
+                false);
+        doReturn(expected).when(repository).findListItems(null, pageRequest);
 
-        Page<Article> actual = articleProvider
-                .getAdminArticleListPage(pageRequest);
+        Page<ArticleListItem> actual = articleProvider
+                .getAdminArticleListPage(null, pageRequest);
 
         assertThat(actual).isEqualTo(expected);
     }
@@ -151,11 +326,25 @@ public class ArticleProviderTest {
     @Test
     public void testGetAdminArticleListPageReturnsNull() {
         PageRequest pageRequest = new PageRequest(0, 10);
-        Page<Article> expected = getArticlePage(pageRequest, true);
-        doReturn(expected).when(repository).findAll(pageRequest);
+        Page<ArticleListItem> expected = getArticleListPage(pageRequest, true);
+        doReturn(expected).when(repository).findListItems(null, pageRequest);
+
+        Page<ArticleListItem> actual = articleProvider
+                .getAdminArticleListPage(null, pageRequest);
+
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    public void testGetAdminArticleListPagePassesFilter() {
+        PageRequest pageRequest = new PageRequest(0, 10);
+        Specification<Article> filter = ArticleSpecifications.isPost(true);
+        Page<ArticleListItem> expected = getArticleListPage(pageRequest,
+                false);
+        doReturn(expected).when(repository).findListItems(filter, pageRequest);
 
-        Page<Article> actual = articleProvider
-                .getAdminArticleListPage(pageRequest);
+        Page<ArticleListItem> actual = articleProvider
+                .getAdminArticleListPage(filter, pageRequest);
 
         assertThat(actual).isEqualTo(expected);
     }
@@ -163,11 +352,12 @@ public class ArticleProviderTest {
     @Test
     public void testGetAdminArticleListPageRaisesPageNotFound() {
         PageRequest pageRequest = new PageRequest(2, 10);
-        Page<Article> expected = getArticlePage(pageRequest, true);
-        doReturn(expected).when(repository).findAll(pageRequest);
+        Page<ArticleListItem> expected = getArticleListPage(pageRequest, true);
+        doReturn(expected).when(repository).findListItems(null, pageRequest);
 
         assertThatExceptionOfType(PageNotFoundException.class).isThrownBy(
-                () -> articleProvider.getAdminArticleListPage(pageRequest))
+                () -> articleProvider.getAdminArticleListPage(null,
+                        pageRequest))
                 .withMessage(String.format(
                         "No articles could be found for page request %s.",
                         pageRequest));
@@ -197,7 +387,10 @@ public class ArticleProviderTest {
         String slug = "title";
         LocalDate publicationDate = LocalDate.now(ZoneOffset.UTC);
         Article expected = getPublishedArticle(true);
-        doReturn(expected).when(repository).findPublishedPostBy(slug);
+        Instant from = publicationDate.atStartOfDay(ZoneOffset.UTC)
+                .toInstant();
+        doReturn(expected).when(repository).findPublishedPostBy(slug, from,
+                from.plus(1, ChronoUnit.DAYS));
 
         Article actual = articleProvider.getPublishedBlogPost(slug,
                 publicationDate);
@@ -214,23 +407,8 @@ public class ArticleProviderTest {
                 .isThrownBy(() -> articleProvider.getPublishedBlogPost(slug,
                         publicationDate))
                 .withMessage(String.format(
-                        "The requested article \"%s\" was not found.", slug));
-    }
-
-    @Test
-    public void testGetPublishedBlogPostThrowsResourceNotFoundForIncorrectPublicationDate() {
-        String slug = "title";
-        Article expected = getPublishedArticle(true);
-        doReturn(expected).when(repository).findPublishedPostBy(slug);
-
-        LocalDate publicationDate = LocalDate.now(ZoneOffset.UTC).minusDays(1);
-
-        assertThatExceptionOfType(ResourceNotFoundException.class)
-                .isThrownBy(() -> articleProvider.getPublishedBlogPost(slug,
-                        publicationDate))
-                .withMessage(String.format(
-                        "Incorrect publication date for blog post %s - the requested date was %s.",
-                        expected, publicationDate));
+                        "The requested blog post \"%s\" published on %s was not found.",
+                        slug, publicationDate));
     }
 
     @Test
@@ -25,18 +25,32 @@ package com.github.piotr_rusin.yule.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
 import com.github.piotr_rusin.yule.exception.ResourceNotFoundException;
 import com.github.piotr_rusin.yule.repository.ArticleRepository;
 
@@ -51,12 +65,32 @@ public class ArticleRepositoryUpdaterTest {
     @Mock
     private ArticleProvider articleProvider;
 
+    @Mock
+    private MarkdownToHtmlConverter markdownConverter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RevisionHistory revisionHistory;
+
     private ArticleRepositoryUpdater articleManager;
 
     @Before
     public void setUp() {
+        doAnswer(returnsFirstArg()).when(articleRepository)
+                .save(any(Article.class));
         articleManager = new ArticleRepositoryUpdater(articleRepository,
-                autoPublicationScheduler, articleProvider);
+                autoPublicationScheduler, articleProvider, markdownConverter,
+                eventPublisher, revisionHistory);
+    }
+
+    private ArticleChange getPublishedChange() {
+        ArgumentCaptor<ArticleChangeEvent> captor = ArgumentCaptor
+                .forClass(ArticleChangeEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().getChanges()).hasSize(1);
+        return captor.getValue().getChanges().get(0);
     }
 
     private void assertSaves(Article article) {
@@ -76,6 +110,28 @@ public class ArticleRepositoryUpdaterTest {
         assertSaves(articleToSave);
     }
 
+    @Test
+    public void testSaveRendersHtml() {
+        Article articleToSave = getArticleToSave();
+
+        articleManager.save(articleToSave);
+
+        verify(markdownConverter).renderHtmlOf(articleToSave);
+    }
+
+    @Test
+    public void testSavePublishesArticleChangeEvent() {
+        Article articleToSave = getArticleToSave();
+        articleToSave.setStatus(ArticleStatus.PUBLISHED);
+
+        articleManager.save(articleToSave);
+
+        ArticleChange change = getPublishedChange();
+        assertThat(change.getPrevious()).isNull();
+        assertThat(change.getCurrent().isListedPost()).isTrue();
+        assertThat(change.movesListedPost()).isTrue();
+    }
+
     private void assertSchedulesAutoPublication() {
         verify(autoPublicationScheduler).scheduleNew();
     }
@@ -89,6 +145,15 @@ public class ArticleRepositoryUpdaterTest {
         assertSchedulesAutoPublication();
     }
 
+    @Test
+    public void testSaveRecordsRevision() {
+        Article articleToSave = getArticleToSave();
+
+        Article saved = articleManager.save(articleToSave);
+
+        verify(revisionHistory).record(saved);
+    }
+
     @Test
     public void testSaveReturnsSavedArticle() {
         Article articleToSave = getArticleToSave();
@@ -206,6 +271,91 @@ public class ArticleRepositoryUpdaterTest {
         assertThat(actual).isEqualTo(expected);
     }
 
+    @Test
+    public void testDeletePublishesArticleChangeEvent() {
+        long id = 10;
+        Article article = getExistingArticle(id);
+        doReturn(article).when(articleProvider).getArticleById(id);
+
+        articleManager.delete(id);
+
+        ArticleChange change = getPublishedChange();
+        assertThat(change.getArticleId()).isEqualTo(id);
+        assertThat(change.getPrevious().getTitle())
+                .isEqualTo(article.getTitle());
+        assertThat(change.getCurrent()).isNull();
+    }
+
+    private Map<Long, Integer> getSelectedVersions() {
+        Article first = new Article(1L, 3, "First", "first", true,
+                ArticleStatus.DRAFT, null, null, null, null);
+        Article second = new Article(2L, 5, "Second", "second", true,
+                ArticleStatus.DRAFT, null, null, null, null);
+        doReturn(Arrays.asList(first, second)).when(articleRepository)
+                .findAll(any(Iterable.class));
+
+        Map<Long, Integer> versions = new HashMap<>();
+        versions.put(1L, 3);
+        versions.put(2L, 4);
+        return versions;
+    }
+
+    @Test
+    public void testApplyPassesOnlyCurrentVersionsToRepository() {
+        Map<Long, Integer> versions = getSelectedVersions();
+
+        articleManager.apply(BulkAction.UNPUBLISH, versions, null);
+
+        verify(articleRepository)
+                .unpublishSelected(Collections.singletonMap(1L, 3));
+    }
+
+    @Test
+    public void testApplyReschedulesAutoPublicationOnce() {
+        Map<Long, Integer> versions = getSelectedVersions();
+        doReturn(Collections.singletonList(1L)).when(articleRepository)
+                .deleteSelected(any(Map.class));
+
+        articleManager.apply(BulkAction.DELETE, versions, null);
+
+        assertSchedulesAutoPublication();
+    }
+
+    @Test
+    public void testApplyPublishesSingleEventForChangedArticles() {
+        Map<Long, Integer> versions = getSelectedVersions();
+        Instant publicationTimestamp = Instant.now().plusSeconds(3600);
+        doReturn(Collections.singletonList(1L)).when(articleRepository)
+                .scheduleSelected(any(Map.class), any(Instant.class));
+
+        List<Long> changed = articleManager.apply(BulkAction.SCHEDULE,
+                versions, publicationTimestamp);
+
+        assertThat(changed).containsExactly(1L);
+        ArticleChange change = getPublishedChange();
+        assertThat(change.getArticleId()).isEqualTo(1L);
+        assertThat(change.getPrevious().getStatus())
+                .isEqualTo(ArticleStatus.DRAFT);
+        assertThat(change.getCurrent().getStatus())
+                .isEqualTo(ArticleStatus.SCHEDULED_FOR_PUBLICATION);
+        assertThat(change.getCurrent().getPublicationTimestamp())
+                .isEqualTo(publicationTimestamp);
+    }
+
+    @Test
+    public void testApplyPublishesNoEventIfNothingChanged() {
+        Map<Long, Integer> versions = getSelectedVersions();
+        doReturn(Collections.emptyMap()).when(articleRepository)
+                .publishSelected(any(Map.class));
+
+        List<Long> changed = articleManager.apply(BulkAction.PUBLISH,
+                versions, null);
+
+        assertThat(changed).isEmpty();
+        verify(eventPublisher, never())
+                .publishEvent(any(ArticleChangeEvent.class));
+    }
+
     @Test
     public void testDeleteThrowsResourceNotFound() {
         long id = 10;
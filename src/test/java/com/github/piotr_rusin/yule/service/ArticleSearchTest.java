@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.domain.SearchCursor;
+import com.github.piotr_rusin.yule.domain.SearchHit;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+@RunWith(SpringRunner.class)
+public class ArticleSearchTest {
+    private static final int PAGE_SIZE = 5;
+
+    @Mock
+    private ArticleRepository repository;
+
+    @Mock
+    private YuleConfig config;
+
+    private ArticleSearch search;
+
+    @Before
+    public void setUp() {
+        doReturn(PAGE_SIZE).when(config).getIndexPageSize();
+        search = new ArticleSearch(repository, config);
+    }
+
+    private static List<SearchHit> getHits(int count) {
+        List<SearchHit> hits = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            hits.add(new SearchHit((long) count - i, "Title", "title", true,
+                    Instant.now(), 1.0f, "A <b>title</b>"));
+        }
+        return hits;
+    }
+
+    @Test
+    public void searchReturnsAPageOfHits() {
+        doReturn(getHits(PAGE_SIZE + 1)).when(repository).search("title",
+                null, PAGE_SIZE + 1);
+
+        Slice<SearchHit> results = search.search(" title ", null);
+
+        assertThat(results.getContent()).hasSize(PAGE_SIZE);
+        assertThat(results.hasNext()).isTrue();
+    }
+
+    @Test
+    public void searchReturnsTheLastPage() {
+        SearchCursor after = new SearchCursor(1.0f, 10);
+        doReturn(getHits(2)).when(repository).search("title", after,
+                PAGE_SIZE + 1);
+
+        Slice<SearchHit> results = search.search("title", after);
+
+        assertThat(results.getContent()).hasSize(2);
+        assertThat(results.hasNext()).isFalse();
+    }
+
+    @Test
+    public void searchForBlankTermsDoesNotQueryRepository() {
+        Slice<SearchHit> results = search.search("  ", null);
+
+        assertThat(results.getContent()).isEmpty();
+        verify(repository, never()).search(anyString(),
+                any(SearchCursor.class), anyInt());
+    }
+
+    @Test
+    public void toSnippetHtmlEscapesAllButMarkedWords() {
+        assertThat(ArticleSearch
+                .toSnippetHtml("<script>x</script> a <b>match</b>"))
+                        .isEqualTo("&lt;script&gt;x&lt;/script&gt; a "
+                                + "<mark>match</mark>");
+    }
+
+    @Test
+    public void searchCursorIsParsedFromItsString() {
+        SearchCursor cursor = new SearchCursor(0.0607927f, 42);
+
+        assertThat(SearchCursor.valueOf(cursor.toString()))
+                .isEqualTo(cursor);
+    }
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.domain.ArticleTitle;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+@RunWith(SpringRunner.class)
+public class ArticleTitleIndexTest {
+    @Mock
+    private ArticleRepository repository;
+
+    private ArticleTitleIndex index;
+
+    @Before
+    public void setUp() {
+        doReturn(Arrays.asList(
+                new ArticleTitle(1L, "Java streams", "java-streams"),
+                new ArticleTitle(2L, "About", "about"),
+                new ArticleTitle(3L, "JavaScript promises",
+                        "javascript-promises"),
+                new ArticleTitle(4L, "Kotlin", "kotlin"))).when(repository)
+                        .findAllTitles();
+        index = new ArticleTitleIndex(repository);
+    }
+
+    private static Article getArticle(Long id, String title) {
+        Article article = new Article(title, "Content");
+        ReflectionTestUtils.setField(article, "id", id);
+        return article;
+    }
+
+    @Test
+    public void findByTitlePrefixIgnoresCase() {
+        assertThat(index.findByTitlePrefix("jAVa", 10))
+                .extracting(ArticleTitle::getId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    public void findByTitlePrefixReturnsUpToLimit() {
+        assertThat(index.findByTitlePrefix("", 3))
+                .extracting(ArticleTitle::getTitle)
+                .containsExactly("About", "Java streams", "JavaScript promises");
+    }
+
+    @Test
+    public void findByTitlePrefixReadsTitlesOnce() {
+        index.findByTitlePrefix("a", 10);
+        index.findByTitlePrefix("b", 10);
+
+        verify(repository, times(1)).findAllTitles();
+    }
+
+    @Test
+    public void isTitleTakenDetectsTitleOfAnotherArticle() {
+        assertThat(index.isTitleTaken(getArticle(null, "Kotlin"))).isTrue();
+    }
+
+    @Test
+    public void isTitleTakenDetectsSlugOfAnotherArticle() {
+        assertThat(index.isTitleTaken(getArticle(null, "Java Streams")))
+                .isTrue();
+    }
+
+    @Test
+    public void isTitleTakenIgnoresTheSameArticle() {
+        assertThat(index.isTitleTaken(getArticle(4L, "Kotlin"))).isFalse();
+    }
+
+    @Test
+    public void onArticleChangeUpdatesIndex() {
+        index.findByTitlePrefix("", 10);
+        Article renamed = getArticle(4L, "Java generics");
+        renamed.setSlug("java-generics");
+
+        index.onArticleChange(ArticleChangeEvent.of(4L,
+                ArticleSnapshot.of(getArticle(4L, "Kotlin")), renamed,
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(index.findByTitlePrefix("java", 10))
+                .extracting(ArticleTitle::getId).containsExactly(4L, 1L, 3L);
+        assertThat(index.isTitleTaken(getArticle(null, "Kotlin"))).isFalse();
+    }
+
+    @Test
+    public void onArticleChangeRemovesDeletedArticle() {
+        index.findByTitlePrefix("", 10);
+
+        index.onArticleChange(ArticleChangeEvent.of(2L,
+                ArticleSnapshot.of(getArticle(2L, "About")), null,
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(index.findByTitlePrefix("", 10))
+                .extracting(ArticleTitle::getId).doesNotContain(2L);
+    }
+}
@@ -24,8 +24,12 @@
 package com.github.piotr_rusin.yule.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -35,19 +39,23 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
-import org.assertj.core.api.Condition;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.slf4j.Logger;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.github.piotr_rusin.yule.domain.Article;
 import com.github.piotr_rusin.yule.domain.ArticleStatus;
@@ -61,6 +69,12 @@ public class AutoPublicationTaskTest {
     @Mock
     private ArticleRepository repository;
 
+    @Mock
+    private MarkdownToHtmlConverter markdownConverter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private Logger mockLogger;
 
@@ -69,13 +83,19 @@ public class AutoPublicationTaskTest {
     private Instant publicationTime;
 
     @Before
+    @SuppressWarnings("unchecked")
     public void setUp() throws Exception {
         setUpAutoPublicationTargetsAndTime();
+        when(repository.publishScheduled(anyListOf(Article.class)))
+                .thenAnswer(invocation -> ((List<Article>) invocation
+                        .getArguments()[0]).stream().map(Article::getId)
+                                .collect(Collectors.toList()));
         Clock clock = Clock.fixed(publicationTime, ZoneId.systemDefault());
         TestLoggerFactory loggerFactory = Settings.instance().enableAll()
                 .delegate(AutoPublicationTask.class.getName(), mockLogger)
                 .buildLogging();
-        task = new AutoPublicationTask(repository, clock, loggerFactory);
+        task = new AutoPublicationTask(repository, markdownConverter,
+                eventPublisher, clock, loggerFactory);
     }
 
     private void setUpAutoPublicationTargetsAndTime() {
@@ -86,13 +106,14 @@ public class AutoPublicationTaskTest {
             autoPublicationTargets.add(article);
         }
 
-        when(repository.findCurrentAutoPublicationTargets())
-                .thenReturn(autoPublicationTargets);
+        when(repository.findCurrentAutoPublicationTargets(anyLong(),
+                any(Pageable.class))).thenReturn(autoPublicationTargets);
     }
 
     private Article getAutoPublicationTarget(Instant publicationDate) {
         int index = autoPublicationTargets.size();
         Article article = new Article("title " + index, "content " + index);
+        ReflectionTestUtils.setField(article, "id", (long) index);
         article.setStatus(ArticleStatus.SCHEDULED_FOR_PUBLICATION);
         article.setPublicationTimestamp(publicationDate);
         return article;
@@ -113,35 +134,61 @@ public class AutoPublicationTaskTest {
     }
 
     @Test
-    public void runSetsPublishedStatus() {
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void runPublishesTargetsWithTheirVersions() {
         task.run();
-        Condition<Article> published = new Condition<>(
-                a -> a.getStatus() == ArticleStatus.PUBLISHED, "published");
-        assertThat(autoPublicationTargets).are(published);
+        ArgumentCaptor<List<Article>> captor = ArgumentCaptor
+                .forClass((Class) List.class);
+        verify(repository).publishScheduled(captor.capture());
+        assertThat(captor.getValue()).extracting("id", "version")
+                .containsExactlyElementsOf(autoPublicationTargets.stream()
+                        .map(a -> tuple(a.getId(), a.getVersion()))
+                        .collect(Collectors.toList()));
     }
 
     @Test
-    public void runSavesArticle() {
+    public void runRendersHtmlBeforePublishing() {
         task.run();
-        ArgumentCaptor<Article> article = ArgumentCaptor
-                .forClass(Article.class);
-        verify(repository, times(autoPublicationTargets.size()))
-                .save(article.capture());
-        List<Article> articles = article.getAllValues();
-        assertThat(articles).containsOnlyElementsOf(autoPublicationTargets);
+        InOrder inOrder = inOrder(markdownConverter, repository);
+        inOrder.verify(markdownConverter, times(autoPublicationTargets.size()))
+                .renderHtmlOf(any(Article.class));
+        inOrder.verify(repository).publishScheduled(anyListOf(Article.class));
+    }
+
+    @Test
+    public void runDoesNotSaveArticles() {
+        task.run();
+        verify(repository, never()).save(any(Article.class));
+    }
+
+    @Test
+    public void runPublishesArticleChangeEvents() {
+        task.run();
+        ArgumentCaptor<ArticleChangeEvent> captor = ArgumentCaptor
+                .forClass(ArticleChangeEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(captor.capture());
+        List<ArticleChange> changes = captor.getValue().getChanges();
+        assertThat(changes).hasSameSizeAs(autoPublicationTargets);
+        for (ArticleChange change : changes) {
+            assertThat(change.getPrevious().getStatus())
+                    .isEqualTo(ArticleStatus.SCHEDULED_FOR_PUBLICATION);
+            assertThat(change.getCurrent().getStatus())
+                    .isEqualTo(ArticleStatus.PUBLISHED);
+        }
     }
 
     @Test
-    public void runLogsWhenOptimisticLockFails() {
-        ObjectOptimisticLockingFailureException ex = mock(
-                ObjectOptimisticLockingFailureException.class);
-        when(repository.save(any(Article.class))).thenThrow(ex);
+    public void runLogsWhenArticlesWereConcurrentlyUpdated() {
+        when(repository.publishScheduled(anyListOf(Article.class)))
+                .thenReturn(Collections.emptyList());
         task.run();
         for (Article a : autoPublicationTargets) {
             verify(mockLogger).info(String.format(
                     "Postponing auto-publication of %s due to a concurrent update",
                     a));
         }
+        verify(eventPublisher, never())
+                .publishEvent(any(ArticleChangeEvent.class));
     }
 
     @Test
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.domain.PageLink;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+@RunWith(SpringRunner.class)
+public class BlogNavigationTest {
+    @Mock
+    private ArticleRepository repository;
+
+    private BlogNavigation navigation;
+
+    @Before
+    public void setUp() {
+        doReturn(Arrays.asList(new PageLink("About", "about"),
+                new PageLink("Contact", "contact"))).when(repository)
+                        .findPublishedPageLinks();
+        navigation = new BlogNavigation(repository);
+    }
+
+    private static Article getPublishedArticle(boolean post) {
+        Article article = new Article("Title", "Content");
+        article.setPost(post);
+        article.setStatus(ArticleStatus.PUBLISHED);
+        return article;
+    }
+
+    @Test
+    public void getPageNameToSlugMapReturnsLinks() {
+        assertThat(navigation.getPageNameToSlugMap())
+                .containsExactly(entry("About", "about"),
+                        entry("Contact", "contact"));
+    }
+
+    @Test
+    public void getPageNameToSlugMapReadsLinksOnce() {
+        navigation.getPageNameToSlugMap();
+        navigation.getPageNameToSlugMap();
+
+        verify(repository, times(1)).findPublishedPageLinks();
+    }
+
+    @Test
+    public void onArticleChangeDiscardsLinksAfterPageChange() {
+        navigation.getPageNameToSlugMap();
+
+        navigation.onArticleChange(
+                ArticleChangeEvent.of(1L, null, getPublishedArticle(false),
+                        ArticleChangeEvent.nextPosition()));
+        navigation.getPageNameToSlugMap();
+
+        verify(repository, times(2)).findPublishedPageLinks();
+    }
+
+    @Test
+    public void onArticleChangeKeepsLinksAfterPostChange() {
+        navigation.getPageNameToSlugMap();
+
+        navigation.onArticleChange(
+                ArticleChangeEvent.of(1L, null, getPublishedArticle(true),
+                        ArticleChangeEvent.nextPosition()));
+        navigation.getPageNameToSlugMap();
+
+        verify(repository, times(1)).findPublishedPageLinks();
+    }
+}
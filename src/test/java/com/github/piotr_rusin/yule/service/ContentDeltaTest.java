@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import com.github.piotr_rusin.yule.domain.DiffLine;
+
+public class ContentDeltaTest {
+    private static final String PREVIOUS = "# Title\n\nFirst paragraph.\n\n"
+            + "Second paragraph.\n\nThird paragraph.\n";
+
+    private static String apply(String previous, String current) {
+        return ContentDelta.apply(previous,
+                ContentDelta.encode(previous, current));
+    }
+
+    @Test
+    public void testApplyReconstructsEditedContent() {
+        String current = "# New title\n\nFirst paragraph.\n\n"
+                + "Third paragraph.\n\nAdded paragraph.";
+
+        assertThat(apply(PREVIOUS, current)).isEqualTo(current);
+    }
+
+    @Test
+    public void testApplyReconstructsReorderedContent() {
+        String current = "Third paragraph.\n\nSecond paragraph.\n\n"
+                + "# Title\n\nFirst paragraph.\n";
+
+        assertThat(apply(PREVIOUS, current)).isEqualTo(current);
+    }
+
+    @Test
+    public void testApplyReconstructsEmptyContent() {
+        assertThat(apply(PREVIOUS, "")).isEmpty();
+        assertThat(apply("", PREVIOUS)).isEqualTo(PREVIOUS);
+    }
+
+    @Test
+    public void testApplyPreservesWindowsLineBreaks() {
+        String current = PREVIOUS.replace("\n", "\r\n");
+
+        assertThat(apply(PREVIOUS, current)).isEqualTo(current);
+    }
+
+    @Test
+    public void testDecompressReversesCompress() {
+        assertThat(ContentDelta.decompress(ContentDelta.compress(PREVIOUS)))
+                .isEqualTo(PREVIOUS);
+    }
+
+    @Test
+    public void testEncodeOfSmallEditIsSmallerThanSnapshot() {
+        String previous = String.join("\n", Collections.nCopies(1000,
+                "A line of a long article, repeated many times."));
+        String current = previous.replaceFirst("long", "longer");
+
+        assertThat(ContentDelta.encode(previous, current).length)
+                .isLessThan(ContentDelta.compress(current).length);
+    }
+
+    @Test
+    public void testDiffMarksChangedLines() {
+        String current = "# Title\n\nFirst paragraph.\n\n"
+                + "Changed paragraph.\n\nThird paragraph.\n";
+
+        List<String> lines = ContentDelta.diff(PREVIOUS, current).stream()
+                .map(DiffLine::toString).collect(Collectors.toList());
+
+        assertThat(lines).containsExactly(" # Title", " ", " First paragraph.",
+                " ", "-Second paragraph.", "+Changed paragraph.", " ",
+                " Third paragraph.");
+    }
+}
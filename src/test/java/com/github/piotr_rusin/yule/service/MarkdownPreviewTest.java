@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.exception.PreviewConflictException;
+import com.vladsch.flexmark.parser.Parser;
+
+@RunWith(SpringRunner.class)
+public class MarkdownPreviewTest {
+    private static final String SOURCE = "# Title\n\nFirst paragraph.\n\nSecond paragraph.\n";
+
+    @Mock
+    private MarkdownToHtmlConverter converter;
+
+    private MarkdownPreview preview;
+
+    @Before
+    public void setUp() {
+        when(converter.convert(anyString()))
+                .then(i -> "<" + i.getArgumentAt(0, String.class) + ">");
+        preview = new MarkdownPreview(converter, Parser.builder().build());
+    }
+
+    private static PreviewRequest fullRequest(String markdown) {
+        PreviewRequest request = new PreviewRequest();
+        request.setMarkdown(markdown);
+        return request;
+    }
+
+    private static PreviewRequest changeRequest(long revision, int start,
+            int end, String text) {
+        PreviewRequest request = new PreviewRequest();
+        request.setRevision(revision);
+        request.setStart(start);
+        request.setEnd(end);
+        request.setText(text);
+        return request;
+    }
+
+    private static String write(MarkdownPreview.Rendering rendering)
+            throws IOException {
+        StringBuilder output = new StringBuilder();
+        rendering.writeTo(output);
+        return output.toString();
+    }
+
+    @Test
+    public void testUpdateRendersTopLevelBlocks() throws IOException {
+        String markdown = "Paragraph\n\n```\ncode\n\nmore code\n```\n\n- item\n\n    continued\n";
+
+        String html = write(preview.update(fullRequest(markdown)));
+
+        assertThat(html).isEqualTo("<Paragraph\n\n>"
+                + "<```\ncode\n\nmore code\n```\n\n>"
+                + "<- item\n\n    continued\n>");
+    }
+
+    @Test
+    public void testUpdateRendersLooseListAsOneBlock() throws IOException {
+        String markdown = "1. One\n\n2. Two\n\n3. Three\n\nAfter\n";
+
+        String html = write(preview.update(fullRequest(markdown)));
+
+        assertThat(html).isEqualTo(
+                "<1. One\n\n2. Two\n\n3. Three\n\n><After\n>");
+    }
+
+    @Test
+    public void testUpdateRendersIndentedAndLongerFencesAsOneBlock()
+            throws IOException {
+        String markdown = "  ~~~~\n  code\n\n  ~~~\n  ```\n\n  ~~~~\n\nAfter\n";
+
+        String html = write(preview.update(fullRequest(markdown)));
+
+        assertThat(html).isEqualTo(
+                "<  ~~~~\n  code\n\n  ~~~\n  ```\n\n  ~~~~\n\n><After\n>");
+    }
+
+    @Test
+    public void testUpdateParsesFollowingBlocksOpenedFenceContains()
+            throws IOException {
+        String markdown = "Text\n\nMore\n\nEnd\n\nLast\n";
+        long revision = preview.update(fullRequest(markdown)).getRevision();
+        int start = markdown.indexOf("More");
+
+        String html = write(preview
+                .update(changeRequest(revision, start, start, "```\n")));
+
+        assertThat(html).isEqualTo(
+                "<Text\n\n><```\nMore\n\nEnd\n\nLast\n>");
+    }
+
+    @Test
+    public void testUpdateMergesBlocksContinuingList() throws IOException {
+        String markdown = "- One\n\nText\n\n- Three\n\nLast\n";
+        long revision = preview.update(fullRequest(markdown)).getRevision();
+        int start = markdown.indexOf("Text");
+
+        String html = write(preview
+                .update(changeRequest(revision, start, start + 4, "- Two")));
+
+        assertThat(html).isEqualTo(
+                "<- One\n\n- Two\n\n- Three\n\n><Last\n>");
+    }
+
+    @Test
+    public void testUpdateRendersOnlyChangedBlocks() throws IOException {
+        long revision = preview.update(fullRequest(SOURCE)).getRevision();
+        int start = SOURCE.indexOf("Second");
+
+        MarkdownPreview.Rendering rendering = preview
+                .update(changeRequest(revision, start, start + 6, "Third"));
+
+        assertThat(rendering.getRevision()).isEqualTo(revision + 1);
+        assertThat(write(rendering)).isEqualTo(
+                "<# Title\n\n><First paragraph.\n\n><Third paragraph.\n>");
+        verify(converter, times(1)).convert("First paragraph.\n\n");
+        verify(converter, times(4)).convert(anyString());
+    }
+
+    @Test(expected = PreviewConflictException.class)
+    public void testUpdateRejectsChangeOfOutdatedRevision() {
+        long revision = preview.update(fullRequest(SOURCE)).getRevision();
+
+        preview.update(changeRequest(revision - 1, 0, 0, "text"));
+    }
+
+    @Test(expected = PreviewConflictException.class)
+    public void testUpdateRejectsChangeOutsideOfSource() {
+        long revision = preview.update(fullRequest(SOURCE)).getRevision();
+
+        preview.update(changeRequest(revision, 0, SOURCE.length() + 1, ""));
+    }
+
+    @Test
+    public void testUpdateRendersDocumentWithRepeatedHeadingsAsWhole()
+            throws IOException {
+        String markdown = "# Notes\n\nText\n\n## notes\n";
+
+        write(preview.update(fullRequest(markdown)));
+
+        verify(converter).convert(eq(markdown), any(Appendable.class));
+    }
+
+    @Test
+    public void testUpdateRendersDocumentWithReferencesAsWhole()
+            throws IOException {
+        String markdown = "[link][ref]\n\n[ref]: http://example.com\n";
+
+        write(preview.update(fullRequest(markdown)));
+
+        verify(converter).convert(eq(markdown), any(Appendable.class));
+    }
+}
@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.junit.Test;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.piotr_rusin.yule.config.RenderingConfig;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.options.MutableDataSet;
+
+public class MarkdownToHtmlConverterTest {
+    private static final String MARKDOWN = "# Title\n\nSome *emphasized* text.";
+
+    private MarkdownToHtmlConverter getConverter(long cacheSize) {
+        MutableDataSet options = new MutableDataSet();
+        RenderingConfig config = new RenderingConfig();
+        config.setCacheSize(cacheSize);
+        return new MarkdownToHtmlConverter(Parser.builder(options).build(),
+                HtmlRenderer.builder(options).build(), options, config);
+    }
+
+    @Test
+    public void testConvertRendersHtml() {
+        MarkdownToHtmlConverter converter = getConverter(0);
+
+        String actual = converter.convert(MARKDOWN);
+
+        assertThat(actual).contains("<h1>Title</h1>")
+                .contains("<em>emphasized</em>");
+    }
+
+    @Test
+    public void testConvertReturnsCachedHtml() {
+        MarkdownToHtmlConverter converter = getConverter(1024 * 1024);
+
+        String first = converter.convert(MARKDOWN);
+        String second = converter.convert(MARKDOWN);
+
+        assertThat(second).isSameAs(first);
+        CacheStats stats = converter.getCacheStats();
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConvertDoesNotCacheWhenDisabled() {
+        MarkdownToHtmlConverter converter = getConverter(0);
+
+        converter.convert(MARKDOWN);
+        converter.convert(MARKDOWN);
+
+        assertThat(converter.getCacheStats().requestCount()).isZero();
+    }
+
+    @Test
+    public void testConvertWritesHtmlToOutput() throws IOException {
+        MarkdownToHtmlConverter converter = getConverter(0);
+        StringBuilder output = new StringBuilder();
+
+        converter.convert(MARKDOWN, output);
+
+        assertThat(output.toString()).isEqualTo(converter.convert(MARKDOWN));
+    }
+
+    @Test
+    public void testConvertWritesCachedHtmlToOutput() throws IOException {
+        MarkdownToHtmlConverter converter = getConverter(1024 * 1024);
+        String expected = converter.convert(MARKDOWN);
+        StringBuilder output = new StringBuilder();
+
+        converter.convert(MARKDOWN, output);
+
+        assertThat(output.toString()).isEqualTo(expected);
+        assertThat(converter.getCacheStats().hitCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.config.RenderingConfig;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+import com.vladsch.flexmark.html.HtmlRenderer;
+import com.vladsch.flexmark.parser.Parser;
+import com.vladsch.flexmark.util.options.MutableDataSet;
+
+@RunWith(SpringRunner.class)
+public class ParallelArticleRendererTest {
+    @Mock
+    private ArticleRepository repository;
+
+    private ParallelArticleRenderer renderer;
+
+    private List<Article> articles = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MutableDataSet options = new MutableDataSet();
+        RenderingConfig config = new RenderingConfig();
+        config.setParallelism(2);
+        MarkdownToHtmlConverter converter = new MarkdownToHtmlConverter(
+                Parser.builder(options).build(),
+                HtmlRenderer.builder(options).build(), options, config);
+        renderer = new ParallelArticleRenderer(repository, converter, config);
+
+        for (int i = 0; i < 4; i++) {
+            articles.add(new Article("Title " + i, "*Content " + i + "*"));
+        }
+    }
+
+    @After
+    public void tearDown() {
+        renderer.shutDown();
+    }
+
+    @Test
+    public void testRenderMissingHtmlSetsHtml() {
+        renderer.renderMissingHtml(articles);
+
+        for (int i = 0; i < articles.size(); i++) {
+            assertThat(articles.get(i).getContentHtml())
+                    .contains("<em>Content " + i + "</em>");
+        }
+    }
+
+    @Test
+    public void testRenderMissingHtmlSavesHtml() {
+        renderer.renderMissingHtml(articles);
+
+        for (Article a : articles) {
+            verify(repository).updateHtml(a.getId(), a.getContentHtml(),
+                    a.getIntroductionHtml());
+        }
+    }
+
+    @Test
+    public void testRenderMissingHtmlSkipsRenderedArticles() {
+        for (Article a : articles) {
+            a.setContentHtml("<p>Rendered</p>");
+        }
+
+        renderer.renderMissingHtml(articles);
+
+        verify(repository, never()).updateHtml(anyLong(), anyString(),
+                anyString());
+        assertThat(articles).allMatch(
+                a -> a.getContentHtml().equals("<p>Rendered</p>"));
+    }
+
+    @Test
+    public void testRenderMissingHtmlSkipsViewsWithOmittedContent() {
+        Article view = new Article(1L, 1, "Title", "title", true,
+                ArticleStatus.PUBLISHED, Instant.now(), Instant.now(),
+                "<p>Introduction</p>", null);
+
+        renderer.renderMissingHtml(Collections.singletonList(view));
+
+        verify(repository, never()).updateHtml(anyLong(), anyString(),
+                anyString());
+        assertThat(view.getContentHtml()).isNull();
+    }
+}
@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.domain.ArchiveMonth;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+@RunWith(SpringRunner.class)
+public class PostArchiveTest {
+    private static final Instant START = Instant.parse("2017-06-01T12:00:00Z");
+    private static final YearMonth MAY = YearMonth.of(2017, 5);
+    private static final YearMonth DECEMBER = YearMonth.of(2016, 12);
+
+    @Mock
+    private ArticleRepository repository;
+
+    @Mock
+    private YuleConfig config;
+
+    @Mock
+    private Clock clock;
+
+    private PostArchive archive;
+
+    @Before
+    public void setUp() {
+        doReturn(START).when(clock).instant();
+        doReturn(3600L).when(config).getPostCountReconciliationInterval();
+        doReturn(Arrays.asList(Instant.parse("2017-05-31T23:59:59Z"),
+                Instant.parse("2017-05-01T00:00:00Z"),
+                Instant.parse("2016-12-24T18:00:00Z"))).when(repository)
+                        .findPublishedPostTimestamps();
+        archive = new PostArchive(repository, config, clock);
+    }
+
+    private static Article getPublishedPost(String publicationTimestamp) {
+        Article post = new Article("Title", "Content");
+        post.setStatus(ArticleStatus.PUBLISHED);
+        post.setPublicationTimestamp(Instant.parse(publicationTimestamp));
+        return post;
+    }
+
+    @Test
+    public void getMonthsCountsPostsByMonth() {
+        assertThat(archive.getMonths()).extracting("month", "postCount")
+                .containsExactly(tuple(MAY, 2L), tuple(DECEMBER, 1L));
+    }
+
+    @Test
+    public void getMonthsByYearGroupsMonths() {
+        assertThat(archive.getMonthsByYear()).containsOnlyKeys(2017, 2016);
+        assertThat(archive.getMonthsByYear().keySet()).containsExactly(2017,
+                2016);
+    }
+
+    @Test
+    public void countPostsSumsMonthsInRange() {
+        assertThat(archive.countPosts(YearMonth.of(2016, 1), MAY))
+                .isEqualTo(3);
+        assertThat(archive.countPosts(YearMonth.of(2017, 1),
+                YearMonth.of(2017, 12))).isEqualTo(2);
+    }
+
+    @Test
+    public void countPostsReadsTimestampsOnceWithinInterval() {
+        archive.countPosts(MAY, MAY);
+        doReturn(START.plusSeconds(3599)).when(clock).instant();
+
+        archive.countPosts(MAY, MAY);
+
+        verify(repository, times(1)).findPublishedPostTimestamps();
+    }
+
+    @Test
+    public void countPostsReadsTimestampsAgainAfterInterval() {
+        archive.countPosts(MAY, MAY);
+        doReturn(Arrays.asList(Instant.parse("2017-05-02T00:00:00Z")))
+                .when(repository).findPublishedPostTimestamps();
+        doReturn(START.plusSeconds(3600)).when(clock).instant();
+
+        assertThat(archive.countPosts(MAY, MAY)).isEqualTo(1);
+    }
+
+    @Test
+    public void onArticleChangeCountsPublishedPost() {
+        archive.countPosts(MAY, MAY);
+
+        archive.onArticleChange(ArticleChangeEvent.of(1L, null,
+                getPublishedPost("2017-05-10T12:00:00Z"),
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(archive.countPosts(MAY, MAY)).isEqualTo(3);
+    }
+
+    @Test
+    public void onArticleChangeMovesRescheduledPost() {
+        archive.countPosts(MAY, MAY);
+        Article post = getPublishedPost("2016-12-01T12:00:00Z");
+        ArticleSnapshot previous = ArticleSnapshot.of(post);
+        post.setPublicationTimestamp(Instant.parse("2017-05-10T12:00:00Z"));
+
+        archive.onArticleChange(ArticleChangeEvent.of(1L, previous, post,
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(archive.getMonths()).extracting(ArchiveMonth::getMonth)
+                .containsExactly(MAY);
+        assertThat(archive.countPosts(MAY, MAY)).isEqualTo(3);
+    }
+
+    @Test
+    public void onArticleChangeCountsDeletedPost() {
+        archive.countPosts(MAY, MAY);
+
+        archive.onArticleChange(ArticleChangeEvent.of(1L,
+                ArticleSnapshot.of(getPublishedPost("2017-05-01T00:00:00Z")),
+                null, ArticleChangeEvent.nextPosition()));
+
+        assertThat(archive.countPosts(MAY, MAY)).isEqualTo(1);
+    }
+
+    @Test
+    public void onArticleChangeRecountsChangesWrittenBeforeCount() {
+        long position = ArticleChangeEvent.nextPosition();
+        doReturn(Arrays.asList(Instant.parse("2017-05-31T23:59:59Z"),
+                Instant.parse("2017-05-10T12:00:00Z"),
+                Instant.parse("2017-05-01T00:00:00Z"))).when(repository)
+                        .findPublishedPostTimestamps();
+        archive.countPosts(MAY, MAY);
+
+        archive.onArticleChange(ArticleChangeEvent.of(1L, null,
+                getPublishedPost("2017-05-10T12:00:00Z"), position));
+
+        assertThat(archive.countPosts(MAY, MAY)).isEqualTo(3);
+        verify(repository, times(2)).findPublishedPostTimestamps();
+    }
+}
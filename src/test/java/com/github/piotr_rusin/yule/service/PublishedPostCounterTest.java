@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Clock;
+import java.time.Instant;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.domain.Article;
+import com.github.piotr_rusin.yule.domain.ArticleSnapshot;
+import com.github.piotr_rusin.yule.domain.ArticleStatus;
+import com.github.piotr_rusin.yule.repository.ArticleRepository;
+
+@RunWith(SpringRunner.class)
+public class PublishedPostCounterTest {
+    private static final Instant START = Instant.parse("2017-06-01T12:00:00Z");
+
+    @Mock
+    private ArticleRepository repository;
+
+    @Mock
+    private YuleConfig config;
+
+    @Mock
+    private Clock clock;
+
+    private PublishedPostCounter counter;
+
+    @Before
+    public void setUp() {
+        doReturn(START).when(clock).instant();
+        doReturn(3600L).when(config).getPostCountReconciliationInterval();
+        doReturn(10L).when(repository).countPublishedPosts();
+        counter = new PublishedPostCounter(repository, config, clock);
+    }
+
+    private static Article getPublishedPost() {
+        Article post = new Article("Title", "Content");
+        post.setStatus(ArticleStatus.PUBLISHED);
+        return post;
+    }
+
+    @Test
+    public void getCountsPostsOnceWithinInterval() {
+        counter.get();
+        doReturn(START.plusSeconds(3599)).when(clock).instant();
+
+        assertThat(counter.get()).isEqualTo(10);
+        verify(repository, times(1)).countPublishedPosts();
+    }
+
+    @Test
+    public void getCountsPostsAgainAfterInterval() {
+        counter.get();
+        doReturn(12L).when(repository).countPublishedPosts();
+        doReturn(START.plusSeconds(3600)).when(clock).instant();
+
+        assertThat(counter.get()).isEqualTo(12);
+        verify(repository, times(2)).countPublishedPosts();
+    }
+
+    @Test
+    public void onArticleChangeCountsPublishedPost() {
+        counter.get();
+
+        counter.onArticleChange(
+                ArticleChangeEvent.of(1L, null, getPublishedPost(),
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(counter.get()).isEqualTo(11);
+    }
+
+    @Test
+    public void onArticleChangeCountsDeletedPost() {
+        counter.get();
+
+        counter.onArticleChange(ArticleChangeEvent.of(1L,
+                ArticleSnapshot.of(getPublishedPost()), null,
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(counter.get()).isEqualTo(9);
+    }
+
+    @Test
+    public void onArticleChangeIgnoresUnlistedArticles() {
+        counter.get();
+        Article page = getPublishedPost();
+        page.setPost(false);
+
+        counter.onArticleChange(ArticleChangeEvent.of(1L, null, page,
+                ArticleChangeEvent.nextPosition()));
+
+        assertThat(counter.get()).isEqualTo(10);
+    }
+
+    @Test
+    public void onArticleChangeRecountsChangesWrittenBeforeCount() {
+        long position = ArticleChangeEvent.nextPosition();
+        doReturn(11L).when(repository).countPublishedPosts();
+        counter.get();
+
+        counter.onArticleChange(
+                ArticleChangeEvent.of(1L, null, getPublishedPost(), position));
+
+        assertThat(counter.get()).isEqualTo(11);
+        verify(repository, times(2)).countPublishedPosts();
+    }
+
+    @Test
+    public void onArticleChangeCountsChangesWrittenAfterCount() {
+        counter.get();
+        long position = ArticleChangeEvent.nextPosition();
+
+        counter.onArticleChange(
+                ArticleChangeEvent.of(1L, null, getPublishedPost(), position));
+
+        assertThat(counter.get()).isEqualTo(11);
+        verify(repository, times(1)).countPublishedPosts();
+    }
+}
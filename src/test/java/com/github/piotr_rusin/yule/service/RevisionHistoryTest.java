@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * MIT License
+ *
+ * Copyright (c) 2017 Piotr Rusin <piotr.rusin88@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *******************************************************************************/
+package com.github.piotr_rusin.yule.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import com.github.piotr_rusin.yule.config.YuleConfig;
+import com.github.piotr_rusin.yule.domain.ArticleRevision;
+import com.github.piotr_rusin.yule.domain.DiffLine;
+import com.github.piotr_rusin.yule.domain.Revision;
+import com.github.piotr_rusin.yule.domain.RevisionDiff;
+import com.github.piotr_rusin.yule.exception.ResourceNotFoundException;
+import com.github.piotr_rusin.yule.repository.ArticleRevisionRepository;
+
+@RunWith(SpringRunner.class)
+public class RevisionHistoryTest {
+    private static final long ARTICLE_ID = 1;
+    private static final int DELTA_LIMIT = 2;
+
+    @Mock
+    private ArticleRevisionRepository repository;
+
+    @Mock
+    private YuleConfig config;
+
+    private List<ArticleRevision> stored;
+
+    /**
+     * A revision stored by another writer when the next revision is saved,
+     * failing the save.
+     */
+    private AtomicReference<ArticleRevision> competing;
+
+    private RevisionHistory history;
+
+    /**
+     * Make the repository mock store revisions in a list and answer queries
+     * like the database would.
+     */
+    @Before
+    public void setUp() {
+        stored = new ArrayList<>();
+        competing = new AtomicReference<>();
+        doAnswer(invocation -> {
+            ArticleRevision other = competing.getAndSet(null);
+            if (other != null) {
+                stored.add(other);
+                throw new DataIntegrityViolationException(
+                        "duplicate key value violates unique constraint");
+            }
+            stored.add((ArticleRevision) invocation.getArguments()[0]);
+            return invocation.getArguments()[0];
+        }).when(repository).save(any(ArticleRevision.class));
+        doAnswer(invocation -> stored.stream()
+                .map(ArticleRevision::getVersion).max(Integer::compare)
+                .orElse(null)).when(repository).findLatestVersion(anyLong());
+        doAnswer(invocation -> {
+            int version = (Integer) invocation.getArguments()[1];
+            return stored.stream().map(ArticleRevision::getVersion)
+                    .filter(v -> v < version).max(Integer::compare)
+                    .orElse(null);
+        }).when(repository).findPreviousVersion(anyLong(), anyInt());
+        doAnswer(invocation -> {
+            int version = (Integer) invocation.getArguments()[1];
+            int snapshot = stored.stream()
+                    .filter(r -> r.isSnapshot() && r.getVersion() <= version)
+                    .mapToInt(ArticleRevision::getVersion).max().orElse(-1);
+            return stored.stream()
+                    .filter(r -> r.getVersion() >= snapshot
+                            && r.getVersion() <= version && snapshot != -1)
+                    .collect(Collectors.toList());
+        }).when(repository).findChain(anyLong(), anyInt());
+
+        doReturn(DELTA_LIMIT).when(config).getRevisionDeltaLimit();
+        history = new RevisionHistory(repository, config,
+                mock(ExecutorService.class));
+    }
+
+    private static String getContent(int version) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            content.append(i == version ? "Changed" : "Unchanged")
+                    .append(" paragraph ").append(i).append(".\n\n");
+        }
+        return content.toString();
+    }
+
+    private static Revision getRevision(int version) {
+        return new Revision(ARTICLE_ID, version, "Title " + version, null,
+                getContent(version), Instant.now());
+    }
+
+    private void writeRevisions(int count) {
+        for (int version = 0; version < count; version++) {
+            history.write(getRevision(version));
+        }
+    }
+
+    private static ArticleRevision getDelta(int version, int baseVersion) {
+        return new ArticleRevision(getRevision(version), baseVersion,
+                ContentDelta.encode(getContent(baseVersion),
+                        getContent(version)));
+    }
+
+    @Test
+    public void testWriteStoresSnapshotsAfterDeltaLimit() {
+        writeRevisions(7);
+
+        assertThat(stored).extracting(ArticleRevision::isSnapshot)
+                .containsExactly(true, false, false, true, false, false,
+                        true);
+    }
+
+    @Test
+    public void testWriteStoresBaseVersionsOfDeltas() {
+        writeRevisions(4);
+
+        assertThat(stored).extracting(ArticleRevision::getVersion,
+                ArticleRevision::getBaseVersion).containsExactly(
+                        tuple(0, null), tuple(1, 0), tuple(2, 1),
+                        tuple(3, null));
+    }
+
+    @Test
+    public void testWriteEncodesDeltaAgainAfterConcurrentWrite() {
+        writeRevisions(1);
+        competing.set(getDelta(1, 0));
+
+        history.write(getRevision(2));
+
+        assertThat(stored).extracting(ArticleRevision::getVersion,
+                ArticleRevision::getBaseVersion).containsExactly(
+                        tuple(0, null), tuple(1, 0), tuple(2, 1));
+        assertThat(history.getRevision(ARTICLE_ID, 2).getContent())
+                .isEqualTo(getContent(2));
+    }
+
+    @Test
+    public void testWriteSkipsRecordedVersion() {
+        writeRevisions(2);
+
+        history.write(new Revision(ARTICLE_ID, 1, "Title", null, "Content",
+                Instant.now()));
+
+        assertThat(stored).hasSize(2);
+    }
+
+    @Test
+    public void testGetRevisionReconstructsContent() {
+        writeRevisions(7);
+
+        for (int version = 0; version < 7; version++) {
+            Revision revision = history.getRevision(ARTICLE_ID, version);
+            assertThat(revision.getContent()).isEqualTo(getContent(version));
+            assertThat(revision.getTitle()).isEqualTo("Title " + version);
+        }
+    }
+
+    @Test
+    public void testGetRevisionRejectsChainWithMismatchedBaseVersion() {
+        writeRevisions(2);
+        stored.add(getDelta(2, 0));
+
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> history.getRevision(ARTICLE_ID, 2));
+    }
+
+    @Test
+    public void testGetRevisionThrowsResourceNotFound() {
+        writeRevisions(2);
+
+        assertThatExceptionOfType(ResourceNotFoundException.class)
+                .isThrownBy(() -> history.getRevision(ARTICLE_ID, 5));
+    }
+
+    @Test
+    public void testGetDiffComparesWithPreviousRevision() {
+        writeRevisions(4);
+
+        // The revision 3 is a snapshot, so the previous one is reconstructed
+        // from another chain
+        RevisionDiff diff = history.getDiff(ARTICLE_ID, 3);
+
+        assertThat(diff.getPrevious().getVersion()).isEqualTo(2);
+        assertThat(diff.getLines()).filteredOn(
+                l -> l.getType() != DiffLine.Type.UNCHANGED)
+                .extracting(DiffLine::toString)
+                .containsExactly("-Changed paragraph 2.",
+                        "+Unchanged paragraph 2.", "-Unchanged paragraph 3.",
+                        "+Changed paragraph 3.");
+    }
+
+    @Test
+    public void testGetDiffOfFirstRevisionAddsAllLines() {
+        writeRevisions(1);
+
+        RevisionDiff diff = history.getDiff(ARTICLE_ID, 0);
+
+        assertThat(diff.getPrevious()).isNull();
+        assertThat(diff.getLines())
+                .allMatch(l -> l.getType() == DiffLine.Type.ADDED);
+    }
+}